@@ -5,6 +5,8 @@ import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.linearalgebra.LinearSolver;
+import dk.alexandra.fresco.stat.linearalgebra.QRMethod;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -49,7 +51,28 @@ public interface AdvancedLinearAlgebra {
   DRes<List<ArrayList<DRes<SFixed>>>> gramSchmidt(List<ArrayList<DRes<SFixed>>> vectors);
 
   /**
-   * Compute the inverse of a lower triangular matrix.
+   * Compute the discrete convolution of two vectors.
+   *
+   * @param a A vector of length <i>m</i>.
+   * @param b A vector of length <i>n</i>.
+   * @return The convolution of <i>a</i> and <i>b</i> which has length <i>m + n - 1</i>.
+   */
+  DRes<ArrayList<DRes<SFixed>>> convolution(ArrayList<DRes<SFixed>> a, ArrayList<DRes<SFixed>> b);
+
+  /**
+   * Compute the discrete convolution of two vectors as {@link #convolution(ArrayList, ArrayList)}
+   * using Karatsuba's algorithm. This requires fewer multiplications for long vectors.
+   *
+   * @param a A vector of length <i>m</i>.
+   * @param b A vector of length <i>n</i>.
+   * @return The convolution of <i>a</i> and <i>b</i> which has length <i>m + n - 1</i>.
+   */
+  DRes<ArrayList<DRes<SFixed>>> karatsubaConvolution(ArrayList<DRes<SFixed>> a,
+      ArrayList<DRes<SFixed>> b);
+
+  /**
+   * Compute the inverse of a lower triangular matrix with positive diagonal using recursive block
+   * inversion (see {@link dk.alexandra.fresco.stat.linearalgebra.BlockInvertTriangularMatrix}).
    *
    * @param l A lower triangular matrix.
    * @return The inverse of <i>l</i>
@@ -69,6 +92,26 @@ public interface AdvancedLinearAlgebra {
   DRes<ArrayList<DRes<SFixed>>> linearInverseProblem(Matrix<DRes<SFixed>> a,
       ArrayList<DRes<SFixed>> b);
 
+  /**
+   * Solve a linear inverse problem as {@link #linearInverseProblem(Matrix, ArrayList)} using the
+   * given method.
+   *
+   * @param a      An <i>m×n</i>-matrix.
+   * @param b      An <i>n</i>-dimensional vector.
+   * @param solver The method used to solve the system.
+   * @return A solution to the equation <i>ax = b</i> or a matrix minimising <i>ax - b</i>.
+   */
+  DRes<ArrayList<DRes<SFixed>>> linearInverseProblem(Matrix<DRes<SFixed>> a,
+      ArrayList<DRes<SFixed>> b, LinearSolver solver);
+
+  /**
+   * Compute the Cholesky decomposition of a symmetric positive definite matrix.
+   *
+   * @param a A symmetric positive definite matrix.
+   * @return A lower triangular matrix <i>L</i> such that <i>a = LL<sup>T</sup></i>.
+   */
+  DRes<Matrix<DRes<SFixed>>> choleskyDecomposition(Matrix<DRes<SFixed>> a);
+
   /**
    * Compute the Moore-Penrose pseudo-inverse of an <i>m×n</i>-matrix with full column rank.
    *
@@ -77,6 +120,40 @@ public interface AdvancedLinearAlgebra {
    */
   DRes<Matrix<DRes<SFixed>>> moorePenrosePseudoInverse(Matrix<DRes<SFixed>> a);
 
+  /**
+   * Compute the Moore-Penrose pseudo-inverse of an <i>m×n</i>-matrix with full column rank using
+   * the given method for the QR-decomposition.
+   *
+   * @param a      An <i>m×n</i>-matrix with full column rank.
+   * @param method The method used for the QR-decomposition.
+   * @return The Moore-Penrose pseudo-inverse of <i>a</i>.
+   */
+  DRes<Matrix<DRes<SFixed>>> moorePenrosePseudoInverse(Matrix<DRes<SFixed>> a, QRMethod method);
+
+  /**
+   * Compute the product of two matrices using Strassen's algorithm with the default cutoff (see
+   * {@link dk.alexandra.fresco.stat.linearalgebra.StrassenMultiplication}). This requires fewer
+   * multiplications than {@link dk.alexandra.fresco.lib.fixed.FixedLinearAlgebra#mult(DRes, DRes)}
+   * for large matrices.
+   *
+   * @param a An <i>m×k</i>-matrix.
+   * @param b A <i>k×n</i>-matrix.
+   * @return The product <i>ab</i>.
+   */
+  DRes<Matrix<DRes<SFixed>>> mult(Matrix<DRes<SFixed>> a, Matrix<DRes<SFixed>> b);
+
+  /**
+   * Compute the product of two matrices using Strassen's algorithm. The recursion stops and the
+   * product is computed directly when one of the dimensions is at most <code>cutoff</code> or when
+   * recursing does not save any multiplications.
+   *
+   * @param a      An <i>m×k</i>-matrix.
+   * @param b      A <i>k×n</i>-matrix.
+   * @param cutoff The size at which to compute the product directly.
+   * @return The product <i>ab</i>.
+   */
+  DRes<Matrix<DRes<SFixed>>> mult(Matrix<DRes<SFixed>> a, Matrix<DRes<SFixed>> b, int cutoff);
+
   /**
    * Normalize a non-zero vector.
    *
@@ -103,6 +180,18 @@ public interface AdvancedLinearAlgebra {
    */
   DRes<List<DRes<SFixed>>> iterativeEigenvalues(Matrix<DRes<SFixed>> a, int iterations);
 
+  /**
+   * Approximate the eigenvalues of a matrix using the QR-algorithm with the given method for the
+   * QR-decompositions.
+   *
+   * @param a          A square matrix.
+   * @param iterations The number of iterations.
+   * @param method     The method used for the QR-decompositions.
+   * @return An approximation of the eigenvalues of <i>a</i>.
+   */
+  DRes<List<DRes<SFixed>>> iterativeEigenvalues(Matrix<DRes<SFixed>> a, int iterations,
+      QRMethod method);
+
   /**
    * Compute the QR-decomposition of an <i>mxn</i>-matrix a with <i>m &ge; n</i> and full column
    * rank. The QR-decomposition is a pair of matrices <i>(Q,R)</i> with <i>A = QR</i> and where
@@ -116,4 +205,15 @@ public interface AdvancedLinearAlgebra {
    */
   DRes<Pair<Matrix<DRes<SFixed>>, Matrix<DRes<SFixed>>>> qrDecomposition(Matrix<DRes<SFixed>> a);
 
+  /**
+   * Compute the QR-decomposition of an <i>mxn</i>-matrix a with <i>m &ge; n</i> and full column
+   * rank using the given method.
+   *
+   * @param a      An <i>mxn</i>-matrix
+   * @param method The method used to compute the decomposition.
+   * @return A pair of matrices <i>(Q,R)</i> with <i>a = QR</i>.
+   */
+  DRes<Pair<Matrix<DRes<SFixed>>, Matrix<DRes<SFixed>>>> qrDecomposition(Matrix<DRes<SFixed>> a,
+      QRMethod method);
+
 }
@@ -6,15 +6,21 @@ import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.linearalgebra.BackSubstitution;
+import dk.alexandra.fresco.stat.linearalgebra.BlockInvertTriangularMatrix;
+import dk.alexandra.fresco.stat.linearalgebra.CholeskyDecomposition;
+import dk.alexandra.fresco.stat.linearalgebra.Convolution;
 import dk.alexandra.fresco.stat.linearalgebra.ForwardSubstitution;
 import dk.alexandra.fresco.stat.linearalgebra.GramSchmidt;
-import dk.alexandra.fresco.stat.linearalgebra.InvertTriangularMatrix;
+import dk.alexandra.fresco.stat.linearalgebra.KaratsubaConvolution;
 import dk.alexandra.fresco.stat.linearalgebra.LinearInverseProblem;
+import dk.alexandra.fresco.stat.linearalgebra.LinearSolver;
 import dk.alexandra.fresco.stat.linearalgebra.MoorePenrosePseudoInverse;
 import dk.alexandra.fresco.stat.linearalgebra.NormalizeVector;
 import dk.alexandra.fresco.stat.linearalgebra.Projection;
 import dk.alexandra.fresco.stat.linearalgebra.QRAlgorithm;
 import dk.alexandra.fresco.stat.linearalgebra.QRDecomposition;
+import dk.alexandra.fresco.stat.linearalgebra.QRMethod;
+import dk.alexandra.fresco.stat.linearalgebra.StrassenMultiplication;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,9 +49,21 @@ public class DefaultLinearAlgebra implements AdvancedLinearAlgebra {
     return new GramSchmidt(vectors).buildComputation(builder);
   }
 
+  @Override
+  public DRes<ArrayList<DRes<SFixed>>> convolution(ArrayList<DRes<SFixed>> a,
+      ArrayList<DRes<SFixed>> b) {
+    return new Convolution(a, b).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<ArrayList<DRes<SFixed>>> karatsubaConvolution(ArrayList<DRes<SFixed>> a,
+      ArrayList<DRes<SFixed>> b) {
+    return new KaratsubaConvolution(a, b).buildComputation(builder);
+  }
+
   @Override
   public DRes<Matrix<DRes<SFixed>>> invertLowerTriangularMatrix(Matrix<DRes<SFixed>> l) {
-    return new InvertTriangularMatrix(l).buildComputation(builder);
+    return new BlockInvertTriangularMatrix(l).buildComputation(builder);
   }
 
   @Override
@@ -54,11 +72,39 @@ public class DefaultLinearAlgebra implements AdvancedLinearAlgebra {
     return new LinearInverseProblem(a, b).buildComputation(builder);
   }
 
+  @Override
+  public DRes<ArrayList<DRes<SFixed>>> linearInverseProblem(Matrix<DRes<SFixed>> a,
+      ArrayList<DRes<SFixed>> b, LinearSolver solver) {
+    return new LinearInverseProblem(a, b, solver).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> choleskyDecomposition(Matrix<DRes<SFixed>> a) {
+    return new CholeskyDecomposition(a).buildComputation(builder);
+  }
+
   @Override
   public DRes<Matrix<DRes<SFixed>>> moorePenrosePseudoInverse(Matrix<DRes<SFixed>> a) {
     return new MoorePenrosePseudoInverse(a).buildComputation(builder);
   }
 
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> moorePenrosePseudoInverse(Matrix<DRes<SFixed>> a,
+      QRMethod method) {
+    return new MoorePenrosePseudoInverse(a, method).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> mult(Matrix<DRes<SFixed>> a, Matrix<DRes<SFixed>> b) {
+    return new StrassenMultiplication(a, b).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> mult(Matrix<DRes<SFixed>> a, Matrix<DRes<SFixed>> b,
+      int cutoff) {
+    return new StrassenMultiplication(a, b, cutoff).buildComputation(builder);
+  }
+
   @Override
   public DRes<ArrayList<DRes<SFixed>>> normalizeVector(ArrayList<DRes<SFixed>> u) {
     return new NormalizeVector(u).buildComputation(builder);
@@ -75,9 +121,21 @@ public class DefaultLinearAlgebra implements AdvancedLinearAlgebra {
     return new QRAlgorithm(a, iterations).buildComputation(builder);
   }
 
+  @Override
+  public DRes<List<DRes<SFixed>>> iterativeEigenvalues(Matrix<DRes<SFixed>> a, int iterations,
+      QRMethod method) {
+    return new QRAlgorithm(a, iterations, method).buildComputation(builder);
+  }
+
   @Override
   public DRes<Pair<Matrix<DRes<SFixed>>, Matrix<DRes<SFixed>>>> qrDecomposition(
       Matrix<DRes<SFixed>> a) {
     return new QRDecomposition(a).buildComputation(builder);
   }
+
+  @Override
+  public DRes<Pair<Matrix<DRes<SFixed>>, Matrix<DRes<SFixed>>>> qrDecomposition(
+      Matrix<DRes<SFixed>> a, QRMethod method) {
+    return new QRDecomposition(a, method).buildComputation(builder);
+  }
 }
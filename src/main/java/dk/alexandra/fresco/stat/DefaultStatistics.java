@@ -1,17 +1,26 @@
 package dk.alexandra.fresco.stat;
 
 import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.common.collections.Collections;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
-import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.anonymisation.LeakyKAnonymity;
+import dk.alexandra.fresco.stat.descriptive.CorrelationMatrix;
+import dk.alexandra.fresco.stat.descriptive.CovarianceMatrix;
+import dk.alexandra.fresco.stat.descriptive.EqualWidthHistogram;
+import dk.alexandra.fresco.stat.descriptive.GroupBy;
+import dk.alexandra.fresco.stat.descriptive.GroupBy.Aggregate;
+import dk.alexandra.fresco.stat.descriptive.GroupBy.GroupByResult;
 import dk.alexandra.fresco.stat.descriptive.Histogram;
 import dk.alexandra.fresco.stat.descriptive.LeakyFrequencyTable;
+import dk.alexandra.fresco.stat.descriptive.Moments;
+import dk.alexandra.fresco.stat.descriptive.Moments.MomentsResult;
 import dk.alexandra.fresco.stat.descriptive.MultiDimensionalHistogram;
+import dk.alexandra.fresco.stat.descriptive.OrderStatisticsStrategy;
 import dk.alexandra.fresco.stat.descriptive.PearsonCorrelation;
 import dk.alexandra.fresco.stat.descriptive.SampleMean;
 import dk.alexandra.fresco.stat.descriptive.SampleMedian;
@@ -19,10 +28,15 @@ import dk.alexandra.fresco.stat.descriptive.SampleQuantiles;
 import dk.alexandra.fresco.stat.descriptive.SampleStandardDeviation;
 import dk.alexandra.fresco.stat.descriptive.SampleVariance;
 import dk.alexandra.fresco.stat.descriptive.TwoDimensionalHistogram;
+import dk.alexandra.fresco.stat.descriptive.sort.SortedColumn;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
+import dk.alexandra.fresco.stat.filter.Compaction;
+import dk.alexandra.fresco.stat.linearalgebra.LinearSolver;
 import dk.alexandra.fresco.stat.regression.linear.LinearRegression;
 import dk.alexandra.fresco.stat.regression.linear.LinearRegression.LinearRegressionResult;
 import dk.alexandra.fresco.stat.regression.linear.SimpleLinearRegression;
 import dk.alexandra.fresco.stat.regression.linear.SimpleLinearRegression.SimpleLinearRegressionResult;
+import dk.alexandra.fresco.stat.regression.linear.SufficientStatistics;
 import dk.alexandra.fresco.stat.survival.SurvivalInfoContinuous;
 import dk.alexandra.fresco.stat.survival.SurvivalInfoDiscrete;
 import dk.alexandra.fresco.stat.survival.cox.CoxRegressionContinuous;
@@ -31,11 +45,16 @@ import dk.alexandra.fresco.stat.tests.ChiSquareTest;
 import dk.alexandra.fresco.stat.tests.FTest;
 import dk.alexandra.fresco.stat.tests.KruskallWallisTest;
 import dk.alexandra.fresco.stat.tests.OneSampleTTest;
+import dk.alexandra.fresco.stat.tests.PartialCounts;
+import dk.alexandra.fresco.stat.tests.SampleSummary;
 import dk.alexandra.fresco.stat.tests.TwoSampleTTest;
 import dk.alexandra.fresco.stat.utils.MatrixUtils;
 import dk.alexandra.fresco.stat.utils.MultiDimensionalArray;
+import dk.alexandra.fresco.stat.utils.Shuffle;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -55,16 +74,53 @@ public class DefaultStatistics implements Statistics {
     return new SampleMean(data).buildComputation(builder);
   }
 
+  @Override
+  public DRes<SFixed> sampleMean(List<DRes<SFixed>> data, List<DRes<SInt>> indicator) {
+    return new SampleMean(data, indicator).buildComputation(builder);
+  }
+
   @Override
   public DRes<SFixed> sampleMedian(List<DRes<SFixed>> data) {
     return new SampleMedian(data).buildComputation(builder);
   }
 
+  @Override
+  public DRes<SFixed> sampleMedian(List<DRes<SFixed>> data, OrderStatisticsStrategy strategy,
+      SortingAlgorithm algorithm) {
+    return new SampleMedian(data, strategy, algorithm).buildComputation(builder);
+  }
+
   @Override
   public DRes<List<DRes<SFixed>>> samplePercentiles(List<DRes<SFixed>> data, double[] percentiles) {
     return new SampleQuantiles(data, percentiles).buildComputation(builder);
   }
 
+  @Override
+  public DRes<List<DRes<SFixed>>> samplePercentiles(List<DRes<SFixed>> data, double[] percentiles,
+      OrderStatisticsStrategy strategy, SortingAlgorithm algorithm) {
+    return new SampleQuantiles(data, percentiles, strategy, algorithm).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<SortedColumn> sorted(List<DRes<SFixed>> data) {
+    return SortedColumn.sortFixed(data).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<SortedColumn> sorted(List<DRes<SFixed>> data, SortingAlgorithm algorithm) {
+    return SortedColumn.sortFixed(data, algorithm).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<SFixed> sampleMedian(SortedColumn sorted) {
+    return new SampleMedian(sorted).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<List<DRes<SFixed>>> samplePercentiles(SortedColumn sorted, double[] percentiles) {
+    return new SampleQuantiles(sorted, percentiles).buildComputation(builder);
+  }
+
   public DRes<SFixed> sampleVariance(List<DRes<SFixed>> data, DRes<SFixed> mean) {
     return new SampleVariance(data, mean).buildComputation(builder);
   }
@@ -78,6 +134,20 @@ public class DefaultStatistics implements Statistics {
     });
   }
 
+  @Override
+  public DRes<SFixed> sampleVariance(List<DRes<SFixed>> data, List<DRes<SInt>> indicator) {
+    return builder.seq(seq -> {
+      DRes<SFixed> mean = new SampleMean(data, indicator).buildComputation(seq);
+      return new SampleVariance(data, mean, indicator).buildComputation(seq);
+    });
+  }
+
+  @Override
+  public DRes<Pair<Matrix<DRes<SInt>>, List<DRes<SInt>>>> compact(Matrix<DRes<SInt>> data,
+      List<DRes<SInt>> indicator, int bound) {
+    return new Compaction(data, indicator, bound).buildComputation(builder);
+  }
+
   @Override
   public DRes<SFixed> sampleStandardDeviation(List<DRes<SFixed>> data) {
     return builder.seq(seq -> {
@@ -92,6 +162,17 @@ public class DefaultStatistics implements Statistics {
     return new SampleStandardDeviation(data, mean).buildComputation(builder);
   }
 
+  @Override
+  public DRes<MomentsResult> moments(List<DRes<SFixed>> data, int order) {
+    return new Moments(data, order).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<GroupByResult> groupBy(List<DRes<SInt>> keys, List<DRes<SFixed>> values,
+      Aggregate... aggregates) {
+    return new GroupBy(keys, values, aggregates).buildComputation(builder);
+  }
+
   @Override
   public DRes<SFixed> ttest(List<DRes<SFixed>> data, DRes<SFixed> mu) {
     return new OneSampleTTest(data, mu).buildComputation(builder);
@@ -102,6 +183,11 @@ public class DefaultStatistics implements Statistics {
     return new TwoSampleTTest(data1, data2).buildComputation(builder);
   }
 
+  @Override
+  public DRes<SFixed> ttest(SampleSummary summary1, SampleSummary summary2) {
+    return new TwoSampleTTest(summary1, summary2).buildComputation(builder);
+  }
+
   @Override
   public DRes<SFixed> chiSquare(List<DRes<SInt>> observed, List<DRes<SFixed>> expected) {
     return new ChiSquareTest(observed, expected).buildComputation(builder);
@@ -112,12 +198,33 @@ public class DefaultStatistics implements Statistics {
     return new ChiSquareTest(observed, expected).buildComputation(builder);
   }
 
+  @Override
+  public DRes<SFixed> chiSquare(PartialCounts observed, List<DRes<SFixed>> expected) {
+    return new ChiSquareTest(observed, expected).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<SFixed> chiSquare(PartialCounts observed, double[] expected) {
+    return new ChiSquareTest(observed, expected).buildComputation(builder);
+  }
+
   @Override
   public DRes<LinearRegressionResult> linearRegression(List<ArrayList<DRes<SFixed>>> x,
       ArrayList<DRes<SFixed>> y) {
     return new LinearRegression(x, y).buildComputation(builder);
   }
 
+  @Override
+  public DRes<LinearRegressionResult> linearRegression(List<ArrayList<DRes<SFixed>>> x,
+      ArrayList<DRes<SFixed>> y, LinearSolver solver) {
+    return new LinearRegression(x, y, true, solver).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<LinearRegressionResult> linearRegression(List<SufficientStatistics> statistics) {
+    return LinearRegression.fromSufficientStatistics(statistics).buildComputation(builder);
+  }
+
   @Override
   public DRes<SimpleLinearRegressionResult> simpleLinearRegression(List<DRes<SFixed>> x,
       List<DRes<SFixed>> y) {
@@ -142,17 +249,37 @@ public class DefaultStatistics implements Statistics {
             .correlation(data1, means.getFirst(), data2, means.getSecond()));
   }
 
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> covarianceMatrix(Matrix<DRes<SFixed>> data) {
+    return new CovarianceMatrix(data).buildComputation(builder);
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> correlationMatrix(Matrix<DRes<SFixed>> data) {
+    return new CorrelationMatrix(data).buildComputation(builder);
+  }
+
   @Override
   public DRes<SFixed> ffest(List<List<DRes<SFixed>>> observed) {
     return builder.seq(seq -> new FTest(observed).buildComputation(seq));
   }
 
+  @Override
+  public DRes<SFixed> ffest(SampleSummary... summaries) {
+    return builder.seq(new FTest(summaries));
+  }
+
   @Override
   public DRes<SFixed> kruskallWallisTest(List<List<DRes<SFixed>>> observed) {
     return builder.seq(seq -> new KruskallWallisTest(KruskallWallisTest.fromSFixed(observed))
         .buildComputation(seq));
   }
 
+  @Override
+  public DRes<SFixed> kruskallWallisTest(SortedColumn sorted, List<Integer> sampleSizes) {
+    return builder.seq(new KruskallWallisTest(sorted, sampleSizes));
+  }
+
   @Override
   public DRes<List<Pair<DRes<SInt>, Integer>>> leakyFrequencyTable(List<DRes<SInt>> data) {
     return builder.seq(seq -> new LeakyFrequencyTable(data).buildComputation(seq));
@@ -160,51 +287,15 @@ public class DefaultStatistics implements Statistics {
 
   @Override
   public DRes<List<Pair<BigInteger, Integer>>> frequencyTable(List<DRes<SInt>> data) {
-    // The shuffle method expects a matrix whose height is a two power. If this is not the case, we
-    // pad with zeros and remove them afterwards.
-    BigInteger paddingValue = BigInteger.ZERO;
-    int padding = Integer.bitCount(data.size()) == 1 ? 0
-        : (Integer.highestOneBit(data.size()) << 1) - data.size();
-    return builder.par(par -> {
-      List<DRes<SInt>> input = data;
-
-      if (padding > 0) {
-        input = new ArrayList<>(data);
-        for (int i = 0; i < padding; i++) {
-          input.add(par.numeric().known(paddingValue));
-        }
-      }
-      ArrayList<ArrayList<DRes<SInt>>> rows =
-          input.stream().map(List::of).map(ArrayList::new)
-              .collect(
-                  Collectors.toCollection(ArrayList::new));
-      return DRes.of(new Matrix<>(input.size(), 1, rows));
-    }).seq((seq, columnVector) -> Collections.using(seq).shuffle(DRes.of(columnVector)))
-        .seq((seq, shuffledMatrix) -> {
-          List<DRes<SInt>> shuffled = VectorUtils.listBuilder(shuffledMatrix.getHeight(),
-              i -> shuffledMatrix.getRow(i).get(0));
-          return new LeakyFrequencyTable(shuffled).buildComputation(seq);
-        }).par((par, frequencyTable) -> DRes.of(frequencyTable.stream()
+    return builder.seq(Shuffle.shuffle(data))
+        .seq((seq, shuffled) -> new LeakyFrequencyTable(shuffled).buildComputation(seq))
+        .par((par, frequencyTable) -> DRes.of(frequencyTable.stream()
             .map(pair -> new Pair<>(par.numeric().open(pair.getFirst()), pair.getSecond())).collect(
-                Collectors.toList()))).seq((seq, frequencyTable) -> {
-          List<Pair<BigInteger, Integer>> uncorrected = frequencyTable.stream()
-              .map(pair -> new Pair<>(pair.getFirst().out(), pair.getSecond()))
-              .collect(Collectors.toList());
-          List<Pair<BigInteger, Integer>> result = new ArrayList<>();
-          for (Pair<BigInteger, Integer> frequencyPair : uncorrected) {
-            if (!frequencyPair.getFirst().equals(paddingValue)) {
-              result.add(frequencyPair);
-            } else {
-              if (frequencyPair.getSecond() > padding) {
-                result.add(new Pair<>(paddingValue, frequencyPair.getSecond() - padding));
-              }
-            }
-          }
-          return DRes.of(result);
-        });
+                Collectors.toList()))).seq((seq, frequencyTable) -> DRes.of(frequencyTable.stream()
+            .map(pair -> new Pair<>(pair.getFirst().out(), pair.getSecond()))
+            .collect(Collectors.toList())));
   }
 
-
   @Override
   public DRes<List<DRes<SFixed>>> coxRegressionDiscrete(List<SurvivalInfoDiscrete> data,
       int iterations,
@@ -222,10 +313,9 @@ public class DefaultStatistics implements Statistics {
 
   @Override
   public DRes<List<DRes<SInt>>> histogramDiscrete(int[] buckets, List<DRes<SInt>> data) {
-    return histogramDiscrete(
-        Arrays.stream(buckets).mapToObj(builder.numeric()::known)
-            .collect(Collectors.toList()),
-        data);
+    return histogramKnownBuckets(
+        Arrays.stream(buckets).mapToObj(BigInteger::valueOf).collect(Collectors.toList()), data)
+        .buildComputation(builder);
   }
 
   @Override
@@ -247,10 +337,29 @@ public class DefaultStatistics implements Statistics {
 
   @Override
   public DRes<List<DRes<SInt>>> histogramContinuous(double[] buckets, List<DRes<SFixed>> data) {
-    return histogramContinuous(
-        Arrays.stream(buckets).mapToObj(FixedNumeric.using(builder)::known)
-            .collect(Collectors.toList()),
-        data);
+    BigDecimal scale = new BigDecimal(
+        BigInteger.TWO.pow(builder.getBasicNumericContext().getDefaultFixedPointPrecision()));
+    List<BigInteger> intBuckets = Arrays.stream(buckets)
+        .mapToObj(b -> BigDecimal.valueOf(b).multiply(scale).setScale(0, RoundingMode.HALF_UP)
+            .toBigIntegerExact()).collect(Collectors.toList());
+    return builder.seq(seq -> {
+      List<DRes<SInt>> intData =
+          data.stream().map(xi -> xi.out().getSInt()).collect(Collectors.toList());
+      return histogramKnownBuckets(intBuckets, intData).buildComputation(seq);
+    });
+  }
+
+  /**
+   * Use truncation instead of comparisons if the buckets have the same width which is a power of
+   * two.
+   */
+  private static Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> histogramKnownBuckets(
+      List<BigInteger> buckets, List<DRes<SInt>> data) {
+    int log2Width = EqualWidthHistogram.log2Width(buckets);
+    if (log2Width >= 0) {
+      return new EqualWidthHistogram(buckets.get(0), log2Width, buckets.size(), data);
+    }
+    return Histogram.withKnownBuckets(buckets, data);
   }
 
   @Override
@@ -282,6 +391,12 @@ public class DefaultStatistics implements Statistics {
     return new MultiDimensionalHistogram(buckets, data).buildComputation(builder);
   }
 
+  @Override
+  public DRes<MultiDimensionalArray<DRes<SInt>>> multiDimensionalHistogramDiscrete(
+      List<List<DRes<SInt>>> buckets, Matrix<DRes<SInt>> data, int chunkSize) {
+    return new MultiDimensionalHistogram(buckets, data, chunkSize).buildComputation(builder);
+  }
+
   @Override
   public DRes<MultiDimensionalArray<List<DRes<SInt>>>> kAnonymize(Matrix<DRes<SInt>> data,
       List<DRes<SInt>> sensitiveAttributes, List<List<DRes<SInt>>> buckets, int k) {
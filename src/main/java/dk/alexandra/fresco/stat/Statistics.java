@@ -7,8 +7,18 @@ import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.GroupBy.Aggregate;
+import dk.alexandra.fresco.stat.descriptive.GroupBy.GroupByResult;
+import dk.alexandra.fresco.stat.descriptive.Moments.MomentsResult;
+import dk.alexandra.fresco.stat.descriptive.OrderStatisticsStrategy;
+import dk.alexandra.fresco.stat.descriptive.sort.SortedColumn;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
+import dk.alexandra.fresco.stat.linearalgebra.LinearSolver;
 import dk.alexandra.fresco.stat.regression.linear.LinearRegression.LinearRegressionResult;
 import dk.alexandra.fresco.stat.regression.linear.SimpleLinearRegression.SimpleLinearRegressionResult;
+import dk.alexandra.fresco.stat.regression.linear.SufficientStatistics;
+import dk.alexandra.fresco.stat.tests.PartialCounts;
+import dk.alexandra.fresco.stat.tests.SampleSummary;
 import dk.alexandra.fresco.stat.survival.SurvivalInfoContinuous;
 import dk.alexandra.fresco.stat.survival.SurvivalInfoDiscrete;
 import dk.alexandra.fresco.stat.utils.MultiDimensionalArray;
@@ -32,6 +42,16 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> sampleMean(List<DRes<SFixed>> data);
 
+  /**
+   * Compute the sample mean of the entries of the given data where the indicator is one. The
+   * indicator may be computed using a {@link dk.alexandra.fresco.stat.filter.Filter}.
+   *
+   * @param data      A dataset.
+   * @param indicator A secret 0-1-vector indicating which entries to include.
+   * @return The sample mean of the selected entries.
+   */
+  DRes<SFixed> sampleMean(List<DRes<SFixed>> data, List<DRes<SInt>> indicator);
+
   /**
    * Compute the sample median of the sample set.
    *
@@ -40,6 +60,19 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> sampleMedian(List<DRes<SFixed>> data);
 
+  /**
+   * Compute the sample median of the sample set using the given strategy and algorithm. The
+   * strategy {@link OrderStatisticsStrategy#SELECTION} may only be used with {@link
+   * SortingAlgorithm#SHUFFLE_AND_COMPARE}.
+   *
+   * @param data      Samples.
+   * @param strategy  The strategy used to find the middle elements.
+   * @param algorithm The algorithm used to sort or select from the samples.
+   * @return The median.
+   */
+  DRes<SFixed> sampleMedian(List<DRes<SFixed>> data, OrderStatisticsStrategy strategy,
+      SortingAlgorithm algorithm);
+
   /**
    * Compute the sample percentiles of a sample set.
    *
@@ -48,6 +81,56 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<List<DRes<SFixed>>> samplePercentiles(List<DRes<SFixed>> data, double[] quantiles);
 
+  /**
+   * Compute the sample percentiles of a sample set using the given strategy and algorithm. The
+   * strategy {@link OrderStatisticsStrategy#SELECTION} may only be used with {@link
+   * SortingAlgorithm#SHUFFLE_AND_COMPARE}.
+   *
+   * @param data      Samples.
+   * @param quantiles The quantiles to compute.
+   * @param strategy  The strategy used to find the needed order statistics.
+   * @param algorithm The algorithm used to sort or select from the samples.
+   * @return The percentiles.
+   */
+  DRes<List<DRes<SFixed>>> samplePercentiles(List<DRes<SFixed>> data, double[] quantiles,
+      OrderStatisticsStrategy strategy, SortingAlgorithm algorithm);
+
+  /**
+   * Sort a sample set once, so the sorted values may be used to compute several order statistics
+   * without sorting again.
+   *
+   * @param data Samples.
+   * @return The sorted samples.
+   */
+  DRes<SortedColumn> sorted(List<DRes<SFixed>> data);
+
+  /**
+   * Sort a sample set once using the given algorithm, so the sorted values may be used to compute
+   * several order statistics without sorting again.
+   *
+   * @param data      Samples.
+   * @param algorithm The algorithm used to sort the samples.
+   * @return The sorted samples.
+   */
+  DRes<SortedColumn> sorted(List<DRes<SFixed>> data, SortingAlgorithm algorithm);
+
+  /**
+   * Compute the sample median of a sample set which has already been sorted.
+   *
+   * @param sorted Sorted samples.
+   * @return The median.
+   */
+  DRes<SFixed> sampleMedian(SortedColumn sorted);
+
+  /**
+   * Compute the sample percentiles of a sample set which has already been sorted.
+   *
+   * @param sorted    Sorted samples.
+   * @param quantiles The quantiles to compute.
+   * @return The percentiles.
+   */
+  DRes<List<DRes<SFixed>>> samplePercentiles(SortedColumn sorted, double[] quantiles);
+
 
   /**
    * Compute the sample variance of the given data, assuming the sample mean has already been
@@ -67,6 +150,30 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> sampleVariance(List<DRes<SFixed>> data);
 
+  /**
+   * Compute the sample variance of the entries of the given data where the indicator is one. The
+   * indicator may be computed using a {@link dk.alexandra.fresco.stat.filter.Filter}.
+   *
+   * @param data      A dataset.
+   * @param indicator A secret 0-1-vector indicating which entries to include.
+   * @return The sample variance of the selected entries.
+   */
+  DRes<SFixed> sampleVariance(List<DRes<SFixed>> data, List<DRes<SInt>> indicator);
+
+  /**
+   * Move the rows of a table selected by a secret indicator to the front and keep only the first
+   * <code>bound</code> rows, so later computations can run on fewer rows. If more than
+   * <code>bound</code> rows are selected, only the first <code>bound</code> are kept.
+   *
+   * @param data      The table.
+   * @param indicator A secret 0-1-vector indicating which rows to select.
+   * @param bound     A public upper bound on the number of selected rows.
+   * @return The compacted table with <code>bound</code> rows along with an indicator of which of
+   * these rows were selected.
+   */
+  DRes<Pair<Matrix<DRes<SInt>>, List<DRes<SInt>>>> compact(Matrix<DRes<SInt>> data,
+      List<DRes<SInt>> indicator, int bound);
+
   /**
    * Compute the sample standard deviation of the data given that the sample mean has already been
    * calculated.
@@ -85,6 +192,30 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> sampleStandardDeviation(List<DRes<SFixed>> data);
 
+  /**
+   * Compute the sample moments of the given data up to the given order. This is more efficient
+   * than computing the mean, variance, skewness and kurtosis individually.
+   *
+   * @param data  A dataset.
+   * @param order The highest moment to compute. Must be between 1 and 4.
+   * @return The moments of the dataset up to the given order.
+   */
+  DRes<MomentsResult> moments(List<DRes<SFixed>> data, int order);
+
+  /**
+   * Compute aggregates of the values in each group of rows with the same key without revealing the
+   * keys. All aggregates are computed from a single sort of the keys. The number of groups is
+   * revealed.
+   *
+   * @param keys       The secret keys, eg. category indices.
+   * @param values     The values to aggregate.
+   * @param aggregates The aggregates to compute.
+   * @return The aggregates for each row in random order, where only the last row of each group is
+   * valid (see {@link GroupByResult}).
+   */
+  DRes<GroupByResult> groupBy(List<DRes<SInt>> keys, List<DRes<SFixed>> values,
+      Aggregate... aggregates);
+
   /**
    * Compute the test statistics for a Student's t-test for the hypothesis that the mean of the
    * sample is equal to <code>mu</code>.
@@ -105,6 +236,17 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> ttest(List<DRes<SFixed>> data1, List<DRes<SFixed>> data2);
 
+  /**
+   * Compute the test statistics for a two-sample Student's t-test from summaries of the samples,
+   * eg. computed locally by the parties holding each sample. It is assumed that the two samples
+   * have the same variance.
+   *
+   * @param summary1 A summary of the first sample.
+   * @param summary2 A summary of the second sample.
+   * @return The test statistics for the hypothesis that the two samples have the same mean.
+   */
+  DRes<SFixed> ttest(SampleSummary summary1, SampleSummary summary2);
+
   /**
    * Compute the test statistics for a &Chi;<sup>2</sup>-test.
    *
@@ -123,6 +265,26 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> chiSquare(List<DRes<SInt>> observed, double[] expected);
 
+  /**
+   * Compute the test statistics for a &Chi;<sup>2</sup>-test where the observations are counted
+   * locally by several parties.
+   *
+   * @param observed The bucket counts of each party.
+   * @param expected The expected number of observations in each bucket.
+   * @return The test statistics that the observed data fits the distribution of the expected.
+   */
+  DRes<SFixed> chiSquare(PartialCounts observed, List<DRes<SFixed>> expected);
+
+  /**
+   * Compute the test statistics for a &Chi;<sup>2</sup>-test where the observations are counted
+   * locally by several parties.
+   *
+   * @param observed The bucket counts of each party.
+   * @param expected The expected number of observations in each bucket.
+   * @return The test statistics that the observed data fits the distribution of the expected.
+   */
+  DRes<SFixed> chiSquare(PartialCounts observed, double[] expected);
+
   /**
    * Compute estimates for the parameters <i>b</i> of a linear model such that <i>b0 x0 + ... + bk
    * xk = y</i>.
@@ -134,6 +296,28 @@ public interface Statistics extends ComputationDirectory {
   DRes<LinearRegressionResult> linearRegression(List<ArrayList<DRes<SFixed>>> x,
       ArrayList<DRes<SFixed>> y);
 
+  /**
+   * Compute estimates for the parameters <i>b</i> of a linear model such that <i>b0 x0 + ... + bk
+   * xk = y</i> using the given method to solve the least squares problem.
+   *
+   * @param x      The dataset.
+   * @param y      The dependant values
+   * @param solver The method used to solve the least squares problem.
+   * @return An estimation for the parameters of a linear model for the given data.
+   */
+  DRes<LinearRegressionResult> linearRegression(List<ArrayList<DRes<SFixed>>> x,
+      ArrayList<DRes<SFixed>> y, LinearSolver solver);
+
+  /**
+   * Compute estimates for the parameters of a linear model from the sufficient statistics of a
+   * dataset which is horizontally partitioned, eg. where each party holds complete rows and has
+   * computed the statistics of its own rows locally. The cost is independent of the number of rows.
+   *
+   * @param statistics The sufficient statistics of each part of the dataset.
+   * @return An estimation for the parameters of a linear model for the combined data.
+   */
+  DRes<LinearRegressionResult> linearRegression(List<SufficientStatistics> statistics);
+
   /**
    * Compute simple linear regression on two samples.
    *
@@ -166,6 +350,24 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> correlation(List<DRes<SFixed>> data1, List<DRes<SFixed>> data2);
 
+  /**
+   * Compute the sample covariance matrix for a data set.
+   *
+   * @param data The data set. Rows are observations and columns are variables.
+   * @return A symmetric matrix where the <i>(i,j)</i>'th entry is the covariance of the <i>i</i>'th
+   * and <i>j</i>'th variable.
+   */
+  DRes<Matrix<DRes<SFixed>>> covarianceMatrix(Matrix<DRes<SFixed>> data);
+
+  /**
+   * Compute Pearson's correlation coefficient for all pairs of variables in a data set.
+   *
+   * @param data The data set. Rows are observations and columns are variables.
+   * @return A symmetric matrix where the <i>(i,j)</i>'th entry is the correlation of the
+   * <i>i</i>'th and <i>j</i>'th variable.
+   */
+  DRes<Matrix<DRes<SFixed>>> correlationMatrix(Matrix<DRes<SFixed>> data);
+
   /**
    * Compute the F-test statistics for the null hypothesis that the given datasets have the same
    * mean.
@@ -175,6 +377,15 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> ffest(List<List<DRes<SFixed>>> observed);
 
+  /**
+   * Compute the F-test statistics for the null hypothesis that the given samples have the same mean
+   * from summaries of the samples, eg. computed locally by the parties holding each sample.
+   *
+   * @param summaries A summary of each sample.
+   * @return The test statistics.
+   */
+  DRes<SFixed> ffest(SampleSummary... summaries);
+
   /**
    * Compute the Kruskall-Wallis test statistics for the null hypothesis that the given samples are
    * drawn from same the distribution.
@@ -184,6 +395,17 @@ public interface Statistics extends ComputationDirectory {
    */
   DRes<SFixed> kruskallWallisTest(List<List<DRes<SFixed>>> observed);
 
+  /**
+   * Compute the Kruskall-Wallis test statistics as {@link #kruskallWallisTest(List)} from a column
+   * which has already been sorted, eg. using {@link #sorted(List)}. The column must be the
+   * concatenation of the samples whose sizes are given.
+   *
+   * @param sorted      The sorted concatenation of the samples.
+   * @param sampleSizes The size of each sample.
+   * @return The test statistics.
+   */
+  DRes<SFixed> kruskallWallisTest(SortedColumn sorted, List<Integer> sampleSizes);
+
   /**
    * Compute a frequency table for the data. Note that the frequencies will be leaked but the
    * corresponding values will not.
@@ -296,6 +518,20 @@ public interface Statistics extends ComputationDirectory {
       List<List<DRes<SInt>>> buckets,
       Matrix<DRes<SInt>> data);
 
+  /**
+   * Compute the histogram for the given multi-dimensional sample processing at most
+   * <code>chunkSize</code> rows at a time. This bounds the memory used by the computation at the
+   * cost of more rounds.
+   *
+   * @param buckets   Upper bounds for the buckets to use in the histogram.
+   * @param data      The sample data.
+   * @param chunkSize The maximum number of rows to process at a time.
+   * @return
+   */
+  DRes<MultiDimensionalArray<DRes<SInt>>> multiDimensionalHistogramDiscrete(
+      List<List<DRes<SInt>>> buckets,
+      Matrix<DRes<SInt>> data, int chunkSize);
+
   /**
    * Compute a k-anonymized version of the given datset.
    * <p>
@@ -8,14 +8,10 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
 import dk.alexandra.fresco.lib.common.compare.Comparison;
 import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
-import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import dk.alexandra.fresco.stat.descriptive.helpers.BucketIndicators;
 import dk.alexandra.fresco.stat.utils.MultiDimensionalArray;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * Compute a  <a href="https://en.wikipedia.org/wiki/K-anonymity"><i>k</i>-anonymous</a> version of
@@ -29,7 +25,6 @@ public class LeakyKAnonymity implements
   private final List<DRes<SInt>> sensitive;
   private final List<List<DRes<SInt>>> buckets;
   private final int k;
-  private final int dimensions;
 
   /**
    * Each row in the data set contains the quasi-identifiers of an individual with a corresponding
@@ -53,89 +48,29 @@ public class LeakyKAnonymity implements
     this.data = data;
     this.sensitive = sensitive;
     this.buckets = buckets;
-    this.dimensions = buckets.size();
     this.k = k;
   }
 
   @Override
   public DRes<MultiDimensionalArray<List<DRes<SInt>>>> buildComputation(
       ProtocolBuilderNumeric builder) {
-    return builder.par(par -> {
+    return builder.seq(new BucketIndicators(buckets, data)).par((par, histogram) -> {
 
-      // Perform all necessary comparisons (one per value per bucket) in parallel
-      Matrix<DRes<List<DRes<SInt>>>> indicators = MatrixUtils.buildMatrix(data.getHeight(),
-          data.getWidth(),
-          (i, j) -> new MultiLEQ(data.getRow(i).get(j), buckets.get(j)).buildComputation(par));
-      return DRes.of(indicators);
-
-    }).par((par, indicators) -> {
-
-      // Compute the histogram x the dataset -- a 1 indicates the data point is in the
-      // corresponding cumulative histogram.
-      List<Integer> widths = buckets.stream().mapToInt(bucket -> bucket.size() + 1).boxed()
-          .collect(Collectors.toList());
-
-      Matrix<List<DRes<SInt>>> indicatorsOut = MatrixUtils.map(indicators, DRes::out);
-      MultiDimensionalArray<List<DRes<SInt>>> indicatorHistogram = MultiDimensionalArray
-          .build(widths, i -> IntStream.range(0, data.getHeight()).mapToObj(j ->
-              AdvancedNumeric.using(par).product(IntStream.range(0, dimensions).mapToObj(d ->
-                  indicatorsOut.getRow(j).get(d).get(i.get(d))).collect(
-                  Collectors.toList()))).collect(Collectors.toList()));
-      return DRes.of(indicatorHistogram);
-    }).par((par, cumulativeHistogram) -> {
-
-      // Compute indicator histogram -- for each bucket we get an indicator vector of size data.size()
-      // with a 1 at index i indicating that the i'th data point is in the corresponding bucket.
-      MultiDimensionalArray<DRes<List<DRes<SInt>>>> histogram = MultiDimensionalArray
-          .build(cumulativeHistogram.getShape(), i -> par.seq(seq -> {
-            List<DRes<SInt>> value = cumulativeHistogram.get(i);
-            for (int j = 0; j < dimensions; j++) {
-              if (i.get(j) == 0) {
-                continue;
-              }
-              List<Integer> iPrime = new ArrayList<>(i);
-              iPrime.set(j, i.get(j) - 1);
-              value = VectorUtils
-                  .mult(value, VectorUtils.negate(cumulativeHistogram.get(iPrime), seq), seq);
-            }
-            return DRes.of(value);
-          }));
+      // For each bucket we have an indicator vector of size data.size() with a 1 at index i
+      // indicating that the i'th data point is in the corresponding bucket.
       DRes<SInt> secretK = par.numeric().known(k);
       return Pair.lazy(histogram, secretK);
     }).par((par, histogramAndK) -> {
       // Make histogram k-anonymous by suppressing all buckets with less than k members
       MultiDimensionalArray<DRes<List<DRes<SInt>>>> kAnonymousHistogram = histogramAndK.getFirst()
           .map(b -> par.seq(seq -> {
-            DRes<SInt> sum = AdvancedNumeric.using(seq).sum(b.out());
+            DRes<SInt> sum = AdvancedNumeric.using(seq).sum(b);
             DRes<SInt> indicator = Comparison.using(seq).compareLEQ(histogramAndK.getSecond(), sum);
-            return DRes.of(VectorUtils.scaleInt(b.out(), indicator, seq));
+            return DRes.of(VectorUtils.scaleInt(b, indicator, seq));
           }));
       return DRes.of(kAnonymousHistogram);
     }).par((par, kAnonymousHistogram) -> DRes
         .of(kAnonymousHistogram.map(b -> VectorUtils.mult(b.out(), sensitive, par))));
   }
 
-  private static class MultiLEQ implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
-
-    private final DRes<SInt> lhs;
-    private final List<DRes<SInt>> rhs;
-
-    private MultiLEQ(DRes<SInt> lhs, List<DRes<SInt>> rhs) {
-      this.lhs = lhs;
-      this.rhs = rhs;
-    }
-
-    @Override
-    public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
-      return builder.par(par -> {
-        Comparison comparison = Comparison.using(par);
-        List<DRes<SInt>> c = Stream.concat(rhs.stream()
-            .map(x -> comparison.compareLEQ(lhs, x)), Stream.of(par.numeric().known(1))).collect(
-            Collectors.toList());
-        return DRes.of(c);
-      });
-    }
-
-  }
-
 }
@@ -0,0 +1,68 @@
+package dk.alexandra.fresco.stat.descriptive;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.helpers.SPDMatrix;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compute the matrix of Pearson's correlation coefficients for all pairs of variables in a data set
+ * where the rows are observations and the columns are variables. The sums of products of
+ * deviations are computed once for all pairs, and the correlations are derived from these using
+ * one inverse square root per variable instead of one per pair.
+ */
+public class CorrelationMatrix implements Computation<Matrix<DRes<SFixed>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SFixed>> data;
+
+  public CorrelationMatrix(Matrix<DRes<SFixed>> data) {
+    if (data.getHeight() < 2) {
+      throw new IllegalArgumentException("At least two observations are needed");
+    }
+    this.data = data;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric root) {
+    int p = data.getWidth();
+    return root.seq(new SPDMatrix(data)).par((par, spd) -> {
+
+      // s_i = 1 / sqrt(SSD_i) for all variables in parallel
+      List<DRes<SFixed>> inverseRoots = IntStream.range(0, p).mapToObj(i -> par.seq(seq -> {
+        AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(seq);
+        return advancedFixedNumeric.reciprocal(advancedFixedNumeric.sqrt(spd.getRow(i).get(i)));
+      })).collect(Collectors.toList());
+      return Pair.lazy(spd, inverseRoots);
+
+    }).par((par, spdAndInverseRoots) -> {
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      List<DRes<SFixed>> s = spdAndInverseRoots.getSecond();
+      Matrix<DRes<SFixed>> scaled = MatrixUtils.buildMatrix(p, p,
+          (i, j) -> i < j ? fixedNumeric.mult(spdAndInverseRoots.getFirst().getRow(i).get(j),
+              s.get(i)) : null);
+      return Pair.lazy(scaled, s);
+
+    }).par((par, scaledAndInverseRoots) -> {
+      // r_ij = SPD_ij s_i s_j
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      Matrix<DRes<SFixed>> scaled = scaledAndInverseRoots.getFirst();
+      List<DRes<SFixed>> s = scaledAndInverseRoots.getSecond();
+      List<List<DRes<SFixed>>> upper = IntStream.range(0, p)
+          .mapToObj(i -> IntStream.range(i + 1, p)
+              .mapToObj(j -> fixedNumeric.mult(scaled.getRow(i).get(j), s.get(j)))
+              .collect(Collectors.toList())).collect(Collectors.toList());
+      DRes<SFixed> one = fixedNumeric.known(1);
+      return DRes.of(MatrixUtils.buildMatrix(p, p, (i, j) -> i == j ? one
+          : i < j ? upper.get(i).get(j - i - 1) : upper.get(j).get(i - j - 1)));
+    });
+  }
+}
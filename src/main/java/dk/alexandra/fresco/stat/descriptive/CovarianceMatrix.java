@@ -0,0 +1,45 @@
+package dk.alexandra.fresco.stat.descriptive;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.helpers.SPDMatrix;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compute the sample covariance matrix of a data set where the rows are observations and the
+ * columns are variables.
+ */
+public class CovarianceMatrix implements Computation<Matrix<DRes<SFixed>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SFixed>> data;
+
+  public CovarianceMatrix(Matrix<DRes<SFixed>> data) {
+    if (data.getHeight() < 2) {
+      throw new IllegalArgumentException("At least two observations are needed");
+    }
+    this.data = data;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric root) {
+    int n = data.getHeight();
+    int p = data.getWidth();
+    return root.seq(new SPDMatrix(data)).par((par, spd) -> {
+      // The matrix is symmetric, so only the upper triangle is divided and then mirrored
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      List<List<DRes<SFixed>>> upper = IntStream.range(0, p)
+          .mapToObj(i -> IntStream.range(i, p)
+              .mapToObj(j -> fixedNumeric.div(spd.getRow(i).get(j), n - 1))
+              .collect(Collectors.toList())).collect(Collectors.toList());
+      return DRes.of(MatrixUtils.buildMatrix(p, p,
+          (i, j) -> i <= j ? upper.get(i).get(j - i) : upper.get(j).get(i - j)));
+    });
+  }
+}
@@ -0,0 +1,116 @@
+package dk.alexandra.fresco.stat.descriptive;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
+import dk.alexandra.fresco.stat.utils.BitDecomposedColumn;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compute a 1-dimensional histogram for a data set where the buckets have the same public width
+ * which is a power of two. This gives the same result as {@link Histogram} with upper bounds
+ * <i>b, b + 2<sup>w</sup>, ..., b + (k-1) 2<sup>w</sup></i>, but instead of comparing each sample
+ * to all upper bounds, the index of the bucket is found by truncating the sample, and the
+ * histogram is computed from a one-hot encoding of the index.
+ */
+public class EqualWidthHistogram implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final BigInteger lowestBound;
+  private final int log2Width;
+  private final int buckets;
+  private final List<DRes<SInt>> data;
+
+  /**
+   * Compute a histogram with <i>k + 1</i> buckets. The first bucket contains all samples smaller
+   * than or equal to the lowest bound <i>b</i>, the next <i>k - 1</i> buckets contain the samples
+   * in <i>(b + (i-1) 2<sup>w</sup>, b + i 2<sup>w</sup>]</i>, and the last bucket contains all
+   * samples larger than <i>b + (k-1) 2<sup>w</sup></i>.
+   *
+   * @param lowestBound The upper bound of the first bucket.
+   * @param log2Width   The base 2 logarithm of the width of the buckets.
+   * @param buckets     The number of upper bounds, <i>k</i>.
+   * @param data        List of samples
+   */
+  public EqualWidthHistogram(BigInteger lowestBound, int log2Width, int buckets,
+      List<DRes<SInt>> data) {
+    if (buckets < 1) {
+      throw new IllegalArgumentException("There must be at least one bucket");
+    }
+    if (log2Width < 0) {
+      throw new IllegalArgumentException("Width must be at least 1");
+    }
+    this.lowestBound = lowestBound;
+    this.log2Width = log2Width;
+    this.buckets = buckets;
+    this.data = data;
+  }
+
+  /**
+   * If the given upper bounds have the same width which is a power of two, return the base 2
+   * logarithm of the width. Otherwise, return -1.
+   */
+  public static int log2Width(List<BigInteger> upperBounds) {
+    if (upperBounds.size() < 2) {
+      return -1;
+    }
+    BigInteger width = upperBounds.get(1).subtract(upperBounds.get(0));
+    if (width.signum() <= 0 || width.bitCount() != 1) {
+      return -1;
+    }
+    for (int i = 2; i < upperBounds.size(); i++) {
+      if (!upperBounds.get(i).subtract(upperBounds.get(i - 1)).equals(width)) {
+        return -1;
+      }
+    }
+    return width.getLowestSetBit();
+  }
+
+  @Override
+  public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    return builder.par(par -> {
+
+      // Sample x is in bucket i > 0 iff floor((x - b - 1) / 2^w) = i - 1
+      BigInteger offset = lowestBound.add(BigInteger.ONE);
+      List<DRes<SInt>> shifted = data.stream().map(x -> par.numeric().sub(x, offset))
+          .collect(Collectors.toList());
+      return par.seq(BitDecomposedColumn.decompose(shifted));
+
+    }).par((par, column) -> {
+      BitDecomposedColumn truncated = column.shiftRight(log2Width);
+      List<BigInteger> indices = IntStream.range(-1, buckets - 1).mapToObj(BigInteger::valueOf)
+          .collect(Collectors.toList());
+
+      // The first entry is [x <= b] and the rest is a one-hot encoding of the following buckets
+      List<DRes<List<DRes<SInt>>>> indicators = IntStream.range(0, data.size())
+          .mapToObj(j -> par.seq(seq -> seq.par(sub -> Pair.lazy(
+              sub.seq(truncated.leq(j, indices.subList(0, 1))),
+              sub.seq(truncated.equalTo(j, indices.subList(1, buckets)))))
+          .seq((sub, parts) -> {
+            List<DRes<SInt>> row = new ArrayList<>(parts.getFirst().out());
+            row.addAll(parts.getSecond().out());
+            return DRes.of(row);
+          }))).collect(Collectors.toList());
+      return DRes.of(indicators);
+
+    }).par((par, indicators) -> {
+      List<DRes<SInt>> counts = IntStream.range(0, buckets).mapToObj(
+          i -> AdvancedNumeric.using(par).sum(indicators.stream().map(row -> row.out().get(i))
+              .collect(Collectors.toList()))).collect(Collectors.toCollection(ArrayList::new));
+      return DRes.of(counts);
+
+    }).seq((seq, counts) -> {
+      // The last bucket contains the remaining samples
+      counts.add(seq.numeric()
+          .sub(data.size(), AdvancedNumeric.using(seq).sum(new ArrayList<>(counts))));
+      return DRes.of(counts);
+    });
+  }
+
+}
@@ -0,0 +1,342 @@
+package dk.alexandra.fresco.stat.descriptive;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.common.compare.Comparison;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.GroupBy.GroupByResult;
+import dk.alexandra.fresco.stat.descriptive.sort.SecretPermutation;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import dk.alexandra.fresco.stat.utils.Shuffle;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compute aggregates of a list of values grouped by a secret key, eg. the mean income per education
+ * level, without revealing the keys or the sizes of the groups.
+ * <p>
+ * The rows are sorted by key using a {@link SecretPermutation}, so rows with the same key are
+ * adjacent, and a row is marked as the first of its group if its key differs from the key of the
+ * previous row. The sums and counts of each group are then computed using a segmented prefix sum
+ * with <i>&lceil;log<sub>2</sub> n&rceil;</i> rounds where each round costs one multiplication per
+ * row and aggregated column, so all aggregates are computed from a single sort using <i>O(n log
+ * n)</i> multiplications regardless of the number of distinct keys.
+ * <p>
+ * The rows are then shuffled and the indicators of the last row of each group are opened, which
+ * reveals only the number of groups. This allows the mean and variance, which require secret
+ * divisions, to be computed only for the last row of each group. The output is given per row in
+ * random order (see {@link GroupByResult}).
+ */
+public class GroupBy implements Computation<GroupByResult, ProtocolBuilderNumeric> {
+
+  private final List<DRes<SInt>> keys;
+  private final List<DRes<SFixed>> values;
+  private final Set<Aggregate> aggregates;
+
+  /**
+   * Group the values by the given keys and compute the given aggregates for each group. See {@link
+   * SecretPermutation#sorting(List)} for the range of the keys.
+   *
+   * @param keys       The keys.
+   * @param values     The values to aggregate.
+   * @param aggregates The aggregates to compute.
+   */
+  public GroupBy(List<DRes<SInt>> keys, List<DRes<SFixed>> values, Aggregate... aggregates) {
+    if (keys.size() != values.size()) {
+      throw new IllegalArgumentException("There must be exactly one key per value");
+    }
+    if (keys.isEmpty()) {
+      throw new IllegalArgumentException("At least one value is needed");
+    }
+    if (aggregates.length == 0) {
+      throw new IllegalArgumentException("At least one aggregate is needed");
+    }
+    this.keys = keys;
+    this.values = values;
+    this.aggregates = EnumSet.copyOf(Arrays.asList(aggregates));
+  }
+
+  @Override
+  public DRes<GroupByResult> buildComputation(ProtocolBuilderNumeric builder) {
+    int n = keys.size();
+    boolean sums = aggregates.contains(Aggregate.SUM) || aggregates.contains(Aggregate.MEAN)
+        || aggregates.contains(Aggregate.VARIANCE);
+    boolean counts = aggregates.contains(Aggregate.COUNT) || aggregates.contains(Aggregate.MEAN)
+        || aggregates.contains(Aggregate.VARIANCE);
+    boolean squares = aggregates.contains(Aggregate.VARIANCE);
+
+    return builder.seq(SecretPermutation.sorting(keys)).seq((seq, permutation) -> seq.seq(
+        permutation.apply(MatrixUtils.buildMatrix(n, 2,
+            (i, j) -> j == 0 ? keys.get(i) : values.get(i).out().getSInt()))))
+        .par((par, sorted) -> {
+
+          // The first row of each group is the one where the key differs from the previous key
+          List<DRes<SInt>> first = new ArrayList<>();
+          first.add(par.numeric().known(1));
+          for (int i = 1; i < n; i++) {
+            int finalI = i;
+            first.add(par.seq(seq -> seq.numeric().sub(1, Comparison.using(seq)
+                .equals(sorted.getRow(finalI).get(0), sorted.getRow(finalI - 1).get(0)))));
+          }
+
+          // The columns to compute prefix sums of as fixed point numbers
+          List<List<DRes<SInt>>> columns = new ArrayList<>();
+          if (sums) {
+            columns.add(sorted.getColumn(1));
+          }
+          if (counts) {
+            BigInteger one = BigInteger.ONE
+                .shiftLeft(par.getBasicNumericContext().getDefaultFixedPointPrecision());
+            columns.add(VectorUtils.listBuilder(n, i -> par.numeric().known(one)));
+          }
+          if (squares) {
+            columns.add(VectorUtils.listBuilder(n, i -> par.seq(seq -> {
+              DRes<SFixed> x = new SFixed(sorted.getRow(i).get(1));
+              return FixedNumeric.using(seq).mult(x, x);
+            }).seq((seq, square) -> square.getSInt())));
+          }
+          return Pair.lazy(sorted.getColumn(0), new Pair<>(first, columns));
+
+        }).seq((seq, sortedAndColumns) -> {
+          List<DRes<SInt>> first = sortedAndColumns.getSecond().getFirst();
+          List<List<DRes<SInt>>> columns = sortedAndColumns.getSecond().getSecond();
+          DRes<Pair<List<DRes<SInt>>, List<List<DRes<SInt>>>>> prefixSums =
+              segmentedPrefixSums(seq, first, columns);
+          return Pair.lazy(sortedAndColumns.getFirst(), new Pair<>(first, prefixSums));
+
+        }).seq((seq, state) -> {
+          List<DRes<SInt>> sortedKeys = state.getFirst();
+          List<DRes<SInt>> first = state.getSecond().getFirst();
+          List<List<DRes<SInt>>> prefixSums = state.getSecond().getSecond().out().getSecond();
+
+          // A row is the last of its group if the next row is the first of another group. The rows
+          // are shuffled so the indicators may be opened revealing only the number of groups.
+          List<List<DRes<SInt>>> columns = new ArrayList<>();
+          columns.add(sortedKeys);
+          columns.add(VectorUtils.listBuilder(n,
+              i -> i < n - 1 ? first.get(i + 1) : seq.numeric().known(1)));
+          columns.add(first);
+          columns.addAll(prefixSums);
+          return seq.seq(new Shuffle(MatrixUtils.buildMatrix(n, columns.size(),
+              (i, j) -> columns.get(j).get(i))));
+
+        }).seq((seq, shuffled) -> {
+          DRes<List<DRes<BigInteger>>> last = DRes.of(VectorUtils.open(shuffled.getColumn(1),
+              seq));
+          return Pair.lazy(shuffled, last);
+
+        }).par((par, shuffledAndLast) -> {
+          Matrix<DRes<SInt>> shuffled = shuffledAndLast.getFirst();
+          List<Boolean> last = shuffledAndLast.getSecond().out().stream()
+              .map(x -> x.out().equals(BigInteger.ONE)).collect(Collectors.toList());
+          List<DRes<SInt>> first = shuffled.getColumn(2);
+          GroupByResult result = new GroupByResult(shuffled.getColumn(0));
+          for (int i = 0; i < n; i++) {
+            result.last.add(par.numeric().known(last.get(i) ? 1 : 0));
+          }
+
+          int column = 3;
+          List<DRes<SFixed>> sum = null;
+          List<DRes<SFixed>> count = null;
+          List<DRes<SFixed>> sumOfSquares = null;
+          if (sums) {
+            sum = toFixed(shuffled.getColumn(column++));
+          }
+          if (counts) {
+            count = toFixed(shuffled.getColumn(column++));
+          }
+          if (squares) {
+            sumOfSquares = toFixed(shuffled.getColumn(column));
+          }
+
+          if (aggregates.contains(Aggregate.SUM)) {
+            result.aggregates.put(Aggregate.SUM, sum);
+          }
+          if (aggregates.contains(Aggregate.COUNT)) {
+            result.aggregates.put(Aggregate.COUNT, count);
+          }
+          if (aggregates.contains(Aggregate.MEAN) || aggregates.contains(Aggregate.VARIANCE)) {
+            List<DRes<SFixed>> finalSum = sum;
+            List<DRes<SFixed>> finalCount = count;
+            List<DRes<SFixed>> finalSumOfSquares = sumOfSquares;
+            List<DRes<SFixed>> mean = new ArrayList<>();
+            List<DRes<SFixed>> variance = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+
+              // Only the last row of each group is valid, so the other rows are set to zero to
+              // avoid the divisions
+              if (!last.get(i)) {
+                DRes<SFixed> zero = FixedNumeric.using(par).known(0);
+                mean.add(zero);
+                variance.add(zero);
+                continue;
+              }
+
+              int finalI = i;
+              DRes<Pair<DRes<SFixed>, DRes<SFixed>>> meanAndVariance = par.seq(seq -> {
+                FixedNumeric fixedNumeric = FixedNumeric.using(seq);
+                DRes<SFixed> m = fixedNumeric.div(finalSum.get(finalI), finalCount.get(finalI));
+                if (finalSumOfSquares == null) {
+                  return Pair.lazy(m, null);
+                }
+
+                // The count is one exactly in the first row of a group, so adding the indicator
+                // avoids dividing by zero for groups of size one, which get variance zero.
+                DRes<SFixed> denominator = fixedNumeric.add(
+                    fixedNumeric.sub(finalCount.get(finalI), 1),
+                    new SFixed(seq.numeric().mult(BigInteger.ONE.shiftLeft(
+                        seq.getBasicNumericContext().getDefaultFixedPointPrecision()),
+                        first.get(finalI))));
+                DRes<SFixed> ssd = fixedNumeric.sub(finalSumOfSquares.get(finalI),
+                    fixedNumeric.mult(finalSum.get(finalI), m));
+                return Pair.lazy(m, fixedNumeric.div(ssd, denominator));
+              });
+              mean.add(() -> meanAndVariance.out().getFirst().out());
+              variance.add(() -> meanAndVariance.out().getSecond().out());
+            }
+            if (aggregates.contains(Aggregate.MEAN)) {
+              result.aggregates.put(Aggregate.MEAN, mean);
+            }
+            if (aggregates.contains(Aggregate.VARIANCE)) {
+              result.aggregates.put(Aggregate.VARIANCE, variance);
+            }
+          }
+          return DRes.of(result);
+        });
+  }
+
+  private static List<DRes<SFixed>> toFixed(List<DRes<SInt>> values) {
+    return VectorUtils.listBuilder(values.size(), i -> new SFixed(values.get(i)));
+  }
+
+  /**
+   * Compute the prefix sums of the columns restarting at each row where <i>first</i> is one. Each
+   * round <i>d</i> adds the partial sum <i>2<sup>d</sup></i> rows above to each row unless a
+   * segment starts in between, which is tracked by or'ing the indicators.
+   */
+  private static DRes<Pair<List<DRes<SInt>>, List<List<DRes<SInt>>>>> segmentedPrefixSums(
+      ProtocolBuilderNumeric builder, List<DRes<SInt>> first, List<List<DRes<SInt>>> columns) {
+    int n = first.size();
+    return builder.seq(seq -> {
+      DRes<Pair<List<DRes<SInt>>, List<List<DRes<SInt>>>>> state =
+          DRes.of(new Pair<>(first, columns));
+      for (int d = 1; d < n; d *= 2) {
+        int distance = d;
+        DRes<Pair<List<DRes<SInt>>, List<List<DRes<SInt>>>>> previous = state;
+        state = seq.par(par -> {
+          List<DRes<SInt>> flags = previous.out().getFirst();
+          List<List<DRes<SInt>>> sums = previous.out().getSecond();
+
+          // Products of the flags with the entries from the rows above
+          List<DRes<SInt>> flagProducts = new ArrayList<>();
+          List<List<DRes<SInt>>> products = new ArrayList<>();
+          for (int i = distance; i < n; i++) {
+            flagProducts.add(par.numeric().mult(flags.get(i), flags.get(i - distance)));
+          }
+          for (List<DRes<SInt>> column : sums) {
+            List<DRes<SInt>> columnProducts = new ArrayList<>();
+            for (int i = distance; i < n; i++) {
+              columnProducts.add(par.numeric().mult(flags.get(i), column.get(i - distance)));
+            }
+            products.add(columnProducts);
+          }
+          return Pair.lazy(flagProducts, products);
+        }).par((par, products) -> {
+          List<DRes<SInt>> flags = previous.out().getFirst();
+          List<List<DRes<SInt>>> sums = previous.out().getSecond();
+
+          // f[i] = f[i] or f[i - d] and s[i] = s[i] + (1 - f[i]) s[i - d]
+          List<DRes<SInt>> newFlags = new ArrayList<>(flags.subList(0, distance));
+          for (int i = distance; i < n; i++) {
+            newFlags.add(par.numeric().sub(
+                par.numeric().add(flags.get(i), flags.get(i - distance)),
+                products.getFirst().get(i - distance)));
+          }
+          List<List<DRes<SInt>>> newSums = new ArrayList<>();
+          for (int j = 0; j < sums.size(); j++) {
+            List<DRes<SInt>> column = sums.get(j);
+            List<DRes<SInt>> newColumn = new ArrayList<>(column.subList(0, distance));
+            for (int i = distance; i < n; i++) {
+              newColumn.add(par.numeric().sub(
+                  par.numeric().add(column.get(i), column.get(i - distance)),
+                  products.getSecond().get(j).get(i - distance)));
+            }
+            newSums.add(newColumn);
+          }
+          return DRes.of(new Pair<>(newFlags, newSums));
+        });
+      }
+      return state;
+    });
+  }
+
+  /** The aggregates which may be computed for each group. */
+  public enum Aggregate {
+    /** The sum of the values in a group. */
+    SUM,
+    /** The number of values in a group. */
+    COUNT,
+    /** The mean of the values in a group. */
+    MEAN,
+    /** The sample variance (with denominator <i>n - 1</i>) of the values in a group. */
+    VARIANCE
+  }
+
+  /**
+   * The result of a {@link GroupBy}. All lists have one entry per row of the input in random order.
+   * The aggregates of a group are found in the row which is the last of its group as indicated by
+   * {@link #getLast()}, and the other rows hold partial aggregates which should be discarded.
+   * <p>
+   * The indicators are public, so the aggregates of all groups may be revealed by opening only the
+   * rows where {@link #getLast()} is one.
+   */
+  public static class GroupByResult {
+
+    private final List<DRes<SInt>> keys;
+    private final List<DRes<SInt>> last;
+    private final Map<Aggregate, List<DRes<SFixed>>> aggregates;
+
+    private GroupByResult(List<DRes<SInt>> keys) {
+      this.keys = keys;
+      this.last = new ArrayList<>();
+      this.aggregates = new EnumMap<>(Aggregate.class);
+    }
+
+    /** The keys of each row. */
+    public List<DRes<SInt>> getKeys() {
+      return keys;
+    }
+
+    /**
+     * Indicators which are one for the last row of each group and zero otherwise. These are known
+     * to all parties.
+     */
+    public List<DRes<SInt>> getLast() {
+      return last;
+    }
+
+    /**
+     * The given aggregate of each group. This is only valid in rows where {@link #getLast()} is
+     * one.
+     */
+    public List<DRes<SFixed>> get(Aggregate aggregate) {
+      if (!aggregates.containsKey(aggregate)) {
+        throw new IllegalArgumentException(aggregate + " was not computed");
+      }
+      return aggregates.get(aggregate);
+    }
+  }
+}
@@ -3,13 +3,16 @@ package dk.alexandra.fresco.stat.descriptive;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
-import dk.alexandra.fresco.lib.common.collections.Matrix;
-import dk.alexandra.fresco.lib.common.compare.Comparison;
 import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
+import dk.alexandra.fresco.stat.utils.BitDecomposedColumn;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Compute a 1-dimensional histogram for a data set.
@@ -17,6 +20,7 @@ import java.util.stream.Collectors;
 public class Histogram implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
 
   private final List<DRes<SInt>> buckets;
+  private final List<BigInteger> knownBuckets;
   private final List<DRes<SInt>> data;
 
   /**
@@ -28,21 +32,53 @@ public class Histogram implements Computation<List<DRes<SInt>>, ProtocolBuilderN
    * @param data    List of samples
    */
   public Histogram(List<DRes<SInt>> buckets, List<DRes<SInt>> data) {
+    this(buckets, null, data);
+  }
+
+  private Histogram(List<DRes<SInt>> buckets, List<BigInteger> knownBuckets,
+      List<DRes<SInt>> data) {
     this.buckets = buckets;
+    this.knownBuckets = knownBuckets;
     this.data = data;
   }
 
+  /**
+   * Compute a histogram where the upper bounds of the buckets are public.
+   *
+   * @param buckets Soft upper bounds for buckets
+   * @param data    List of samples
+   */
+  public static Histogram withKnownBuckets(List<BigInteger> buckets, List<DRes<SInt>> data) {
+    return new Histogram(null, buckets, data);
+  }
+
   @Override
   public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    int numberOfBuckets = Objects.nonNull(knownBuckets) ? knownBuckets.size() : buckets.size();
+
     return builder.par(par -> {
-      Matrix<DRes<SInt>> c = new Matrix<>(buckets.size(), data.size(),
-          i -> data.stream().map(x -> Comparison.using(par).compareLEQ(x, buckets.get(i)))
-              .collect(Collectors.toCollection(ArrayList::new)));
+
+      // Decompose the data and the buckets once instead of once per comparison
+      DRes<BitDecomposedColumn> dataColumn = par.seq(BitDecomposedColumn.decompose(data));
+      DRes<BitDecomposedColumn> bucketColumn = Objects.nonNull(knownBuckets) ? null
+          : par.seq(BitDecomposedColumn.decompose(buckets));
+      return Pair.lazy(dataColumn, bucketColumn);
+
+    }).par((par, columns) -> {
+      BitDecomposedColumn dataColumn = columns.getFirst().out();
+
+      // Indicators [x_j <= b_i] for all samples x_j and buckets b_i
+      List<DRes<List<DRes<SInt>>>> c = IntStream.range(0, data.size()).mapToObj(
+          j -> par.seq(Objects.nonNull(knownBuckets) ? dataColumn.leq(j, knownBuckets)
+              : dataColumn.leq(j, columns.getSecond().out())))
+          .collect(Collectors.toList());
       return DRes.of(c);
+
     }).par((par, c) -> {
-      List<DRes<SInt>> counts =
-          c.getRows().stream().map(r -> AdvancedNumeric.using(par).sum(r))
-              .collect(Collectors.toList());
+      List<DRes<SInt>> counts = IntStream.range(0, numberOfBuckets).mapToObj(
+          i -> AdvancedNumeric.using(par)
+              .sum(c.stream().map(row -> row.out().get(i)).collect(Collectors.toList())))
+          .collect(Collectors.toCollection(ArrayList::new));
       counts.add(par.numeric().known(data.size()));
       return DRes.of(counts);
     }).seq((seq, counts) -> {
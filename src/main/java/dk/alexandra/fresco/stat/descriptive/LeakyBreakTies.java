@@ -4,7 +4,7 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.value.SInt;
-import dk.alexandra.fresco.lib.mimc.MiMCEncryption;
+import dk.alexandra.fresco.stat.utils.DeterministicEncryptionCache;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,30 +16,25 @@ import java.util.List;
 public class LeakyBreakTies implements Computation<List<Double>, ProtocolBuilderNumeric> {
 
   private final List<DRes<SInt>> data;
+  private final DeterministicEncryptionCache cache;
 
   public LeakyBreakTies(List<DRes<SInt>> sortedData) {
+    this(sortedData, new DeterministicEncryptionCache());
+  }
+
+  /**
+   * Compute the ranks using the given cache of encryptions, so values which have already been
+   * encrypted using the cache are not encrypted again.
+   */
+  public LeakyBreakTies(List<DRes<SInt>> sortedData, DeterministicEncryptionCache cache) {
     this.data = sortedData;
+    this.cache = cache;
   }
 
   @Override
   public DRes<List<Double>> buildComputation(ProtocolBuilderNumeric builder) {
 
-    // generate encryption key
-    DRes<SInt> mimcKey = builder.numeric().randomElement();
-
-    return builder.par(par -> {
-      List<DRes<BigInteger>> ciphers = new ArrayList<>(data.size());
-      for (final DRes<SInt> entry : data) {
-        DRes<BigInteger> openedCipher =
-            par.seq(
-                (seq -> {
-                  DRes<SInt> cipherText = seq.seq(new MiMCEncryption(entry, mimcKey));
-                  return seq.numeric().open(cipherText);
-                }));
-        ciphers.add(openedCipher);
-      }
-      return DRes.of(ciphers);
-    }).seq((seq, ciphers) -> {
+    return builder.seq(cache.encryptAndOpen(data)).seq((seq, ciphers) -> {
 
       List<Double> ranks = new ArrayList<>();
 
@@ -48,7 +43,7 @@ public class LeakyBreakTies implements Computation<List<Double>, ProtocolBuilder
 
         int k;
         for (k = 1; k < ciphers.size() - i + 1; k++) {
-          if (!ciphers.get(i + k - 1).out().equals(ciphers.get(i - 1).out())) {
+          if (!ciphers.get(i + k - 1).equals(ciphers.get(i - 1))) {
             break;
           }
         }
@@ -5,11 +5,10 @@ import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
-import dk.alexandra.fresco.lib.mimc.MiMCDecryption;
-import dk.alexandra.fresco.lib.mimc.MiMCEncryption;
+import dk.alexandra.fresco.stat.utils.DeterministicEncryptionCache;
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -23,45 +22,37 @@ public class LeakyFrequencyTable implements
     Computation<List<Pair<DRes<SInt>, Integer>>, ProtocolBuilderNumeric> {
 
   private final List<DRes<SInt>> data;
+  private final DeterministicEncryptionCache cache;
 
   public LeakyFrequencyTable(List<DRes<SInt>> data) {
+    this(data, new DeterministicEncryptionCache());
+  }
+
+  /**
+   * Compute the frequencies using the given cache of encryptions, so values which have already
+   * been encrypted using the cache are not encrypted again.
+   */
+  public LeakyFrequencyTable(List<DRes<SInt>> data, DeterministicEncryptionCache cache) {
     this.data = data;
+    this.cache = cache;
   }
 
   @Override
   public DRes<List<Pair<DRes<SInt>, Integer>>> buildComputation(
       ProtocolBuilderNumeric builder) {
     // We assume the data is obliviously shuffled before running this computation
-    //DRes<List<DRes<SInt>>> shuffled = Collections.using(builder).shuffle().shuffle(data);
-
-    // Generate encryption key
-    DRes<SInt> mimcKey = builder.numeric().randomElement();
-
-    return builder.par(par -> {
-      List<DRes<BigInteger>> ciphers = new ArrayList<>(data.size());
-      for (final DRes<SInt> entry : data) {
-        DRes<BigInteger> openedCipher =
-            par.seq(
-                (seq -> {
-                  DRes<SInt> cipherText = new MiMCEncryption(entry, mimcKey).buildComputation(seq);
-                  return seq.numeric().open(cipherText);
-                }));
-        ciphers.add(openedCipher);
-      }
-      return DRes.of(ciphers);
-    }).par((par, ciphers) -> {
-      // use cipher texts to perform aggregation "in-the-clear"
-      Map<BigInteger, Integer> groupedByCipher = new HashMap<>();
 
-      for (DRes<BigInteger> cipher : ciphers) {
-        BigInteger cipherOut = cipher.out();
-        groupedByCipher.putIfAbsent(cipherOut, 0);
-        groupedByCipher.computeIfPresent(cipherOut, (k, v) -> v + 1);
+    return builder.seq(cache.encryptAndOpen(data)).seq((seq, ciphers) -> {
+      // Use cipher texts to perform aggregation "in-the-clear". Each group is represented by the
+      // first value in the group, so the cipher texts do not have to be decrypted.
+      Map<BigInteger, Integer> groupedByCipher = new LinkedHashMap<>();
+      Map<BigInteger, DRes<SInt>> representatives = new HashMap<>();
+      for (int i = 0; i < ciphers.size(); i++) {
+        groupedByCipher.merge(ciphers.get(i), 1, Integer::sum);
+        representatives.putIfAbsent(ciphers.get(i), data.get(i));
       }
       List<Pair<DRes<SInt>, Integer>> frequencies = groupedByCipher.keySet().stream()
-          .map(v -> new Pair<>(
-              new MiMCDecryption(par.numeric().known(v), mimcKey).buildComputation(par),
-              groupedByCipher.get(v)))
+          .map(v -> new Pair<>(representatives.get(v), groupedByCipher.get(v)))
           .collect(Collectors.toList());
       return DRes.of(frequencies);
     });
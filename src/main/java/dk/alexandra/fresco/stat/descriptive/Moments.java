@@ -0,0 +1,162 @@
+package dk.alexandra.fresco.stat.descriptive;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.Moments.MomentsResult;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compute the sample moments of a list of observations up to a given order (at most 4). The mean is
+ * computed first, and the central power sums <i>&Sigma;(x - mean)<sup>k</sup></i> are then
+ * computed in a single parallel pass over the deviations from the mean where each sum is truncated
+ * only once. Working on the deviations avoids the cancellation which occurs when central moments
+ * are derived from raw power sums for data with a large mean (see {@link MomentsResult}).
+ */
+public class Moments implements Computation<MomentsResult, ProtocolBuilderNumeric> {
+
+  private final List<DRes<SFixed>> observed;
+  private final int order;
+
+  /**
+   * Compute the moments up to the given order.
+   *
+   * @param observed The observations.
+   * @param order    The highest moment to compute. Must be between 1 and 4.
+   */
+  public Moments(List<DRes<SFixed>> observed, int order) {
+    if (order < 1 || order > 4) {
+      throw new IllegalArgumentException("Order must be between 1 and 4 but was " + order);
+    }
+    if (order > 1 && observed.size() < 2) {
+      throw new IllegalArgumentException("At least two observations are needed");
+    }
+    this.observed = observed;
+    this.order = order;
+  }
+
+  @Override
+  public DRes<MomentsResult> buildComputation(ProtocolBuilderNumeric root) {
+    int n = observed.size();
+    MomentsResult result = new MomentsResult();
+    return root.seq(seq -> {
+      result.mean = new SampleMean(observed).buildComputation(seq);
+      return result.mean;
+
+    }).par((par, mean) -> {
+      if (order == 1) {
+        return DRes.of(new ArrayList<DRes<SFixed>>());
+      }
+      // Deviations from the mean
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      return DRes.of(VectorUtils.listBuilder(n, i -> fixedNumeric.sub(observed.get(i),
+          result.mean)));
+
+    }).par((par, deviations) -> {
+
+      // Squares are only needed entrywise when computing the third and fourth power sums
+      List<DRes<SFixed>> squares = new ArrayList<>();
+      if (order > 2) {
+        FixedNumeric fixedNumeric = FixedNumeric.using(par);
+        squares.addAll(VectorUtils.listBuilder(n, i -> fixedNumeric.mult(deviations.get(i),
+            deviations.get(i))));
+      }
+      return Pair.lazy(deviations, squares);
+
+    }).par((par, deviationsAndSquares) -> {
+      AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(par);
+      List<DRes<SFixed>> deviations = deviationsAndSquares.getFirst();
+      List<DRes<SFixed>> squares = deviationsAndSquares.getSecond();
+      List<DRes<SFixed>> sums = new ArrayList<>();
+      if (order > 2) {
+        sums.add(advancedFixedNumeric.sum(squares));
+        sums.add(advancedFixedNumeric.innerProduct(squares, deviations));
+      } else if (order > 1) {
+        sums.add(advancedFixedNumeric.innerProduct(deviations, deviations));
+      }
+      if (order > 3) {
+        sums.add(advancedFixedNumeric.innerProduct(squares, squares));
+      }
+      return DRes.of(sums);
+
+    }).par((par, sums) -> {
+      // Central moments m2, m3, m4
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      List<DRes<SFixed>> central = VectorUtils.listBuilder(sums.size(),
+          i -> fixedNumeric.div(sums.get(i), n));
+      if (order > 1) {
+        result.variance = fixedNumeric.div(sums.get(0), n - 1);
+      }
+      return DRes.of(central);
+
+    }).seq((seq, central) -> {
+      if (order == 1) {
+        return DRes.of(result);
+      }
+      FixedNumeric fixedNumeric = FixedNumeric.using(seq);
+      result.standardDeviation = AdvancedFixedNumeric.using(seq).sqrt(result.variance);
+      if (order == 2) {
+        return DRes.of(result);
+      }
+
+      DRes<SFixed> m2 = central.get(0);
+      DRes<SFixed> m2Sqrt = AdvancedFixedNumeric.using(seq).sqrt(m2);
+      result.skewness = fixedNumeric.div(central.get(1), fixedNumeric.mult(m2, m2Sqrt));
+      if (order == 3) {
+        return DRes.of(result);
+      }
+
+      result.kurtosis = fixedNumeric.sub(fixedNumeric.div(central.get(2),
+          fixedNumeric.mult(m2, m2)), 3);
+      return DRes.of(result);
+    });
+  }
+
+  /**
+   * The moments of a sample. Moments of higher order than requested are <code>null</code>.
+   */
+  public static class MomentsResult {
+
+    private DRes<SFixed> mean;
+    private DRes<SFixed> variance;
+    private DRes<SFixed> standardDeviation;
+    private DRes<SFixed> skewness;
+    private DRes<SFixed> kurtosis;
+
+    private MomentsResult() {
+
+    }
+
+    /** The sample mean */
+    public DRes<SFixed> getMean() {
+      return mean;
+    }
+
+    /** The sample variance (with denominator <i>n - 1</i>) */
+    public DRes<SFixed> getVariance() {
+      return variance;
+    }
+
+    /** The sample standard deviation */
+    public DRes<SFixed> getStandardDeviation() {
+      return standardDeviation;
+    }
+
+    /** The moment coefficient of skewness, <i>m<sub>3</sub> / m<sub>2</sub><sup>3/2</sup></i> */
+    public DRes<SFixed> getSkewness() {
+      return skewness;
+    }
+
+    /** The excess kurtosis, <i>m<sub>4</sub> / m<sub>2</sub><sup>2</sup> - 3</i> */
+    public DRes<SFixed> getKurtosis() {
+      return kurtosis;
+    }
+
+  }
+}
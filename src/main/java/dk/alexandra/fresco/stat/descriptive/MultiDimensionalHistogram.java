@@ -5,16 +5,13 @@ import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
-import dk.alexandra.fresco.lib.common.compare.Comparison;
 import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
+import dk.alexandra.fresco.stat.descriptive.helpers.BucketIndicators;
+import dk.alexandra.fresco.stat.utils.BitDecomposedColumn;
 import dk.alexandra.fresco.stat.utils.MatrixUtils;
 import dk.alexandra.fresco.stat.utils.MultiDimensionalArray;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /** Compute a multi-dimensiona histogram on a dataset */
 public class MultiDimensionalHistogram
@@ -22,150 +19,97 @@ public class MultiDimensionalHistogram
 
   private final List<List<DRes<SInt>>> buckets;
   private final Matrix<DRes<SInt>> data;
-  private final int dimensions;
+  private final int chunkSize;
 
   /**
-   * @param buckets A list of soft lower bounds for the buckets of the histogram.
+   * @param buckets A list of soft upper bounds for the buckets of the histogram.
    * @param data The dataset. Rows are enterpreted as entries.
    */
   public MultiDimensionalHistogram(List<List<DRes<SInt>>> buckets,
       Matrix<DRes<SInt>> data) {
+    this(buckets, data, data.getHeight());
+  }
+
+  /**
+   * Compute the histogram processing at most <code>chunkSize</code> rows at a time. The indicators
+   * of which cells the rows of a chunk belongs to are discarded once the counts for the chunk have
+   * been added to the histogram, so the memory used is bounded by the size of the histogram plus
+   * the size of a chunk. The chunks are processed sequentially, so this uses more rounds than
+   * processing all rows at once.
+   *
+   * @param buckets   A list of soft upper bounds for the buckets of the histogram.
+   * @param data      The dataset. Rows are enterpreted as entries.
+   * @param chunkSize The maximum number of rows to process at a time.
+   */
+  public MultiDimensionalHistogram(List<List<DRes<SInt>>> buckets,
+      Matrix<DRes<SInt>> data, int chunkSize) {
     if (data.getWidth() != buckets.size()) {
       throw new IllegalArgumentException("There should be a list of buckets per dimension");
     }
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive");
+    }
     this.buckets = buckets;
-    this.dimensions = buckets.size();
     this.data = data;
+    this.chunkSize = chunkSize;
   }
 
-  /**
-   * Return all subsets of a list
-   */
-  private static <E> Stream<List<E>> subsets(List<E> set) {
-    return subsets(set.size()).map(subset -> sublist(set, subset));
-  }
-
-  /**
-   * Return a list containing the given indices from the input list in the same order.
-   */
-  private static <E> List<E> sublist(List<E> list, int[] indices) {
-    return Arrays.stream(indices).mapToObj(list::get).collect(Collectors.toList());
-  }
-
-  /**
-   * Return all subsets of {0,1,2,...,r-1} lexicographical order.
-   */
-  private static Stream<int[]> subsets(int r) {
+  @Override
+  public DRes<MultiDimensionalArray<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    if (chunkSize >= data.getHeight()) {
+      return builder.seq(new BucketIndicators(buckets, data)).par((par, indicators) -> {
 
-    Stream<int[]> stream = Stream.of(new int[0]);
-    if (r == 0) {
-      return stream;
+        // Count the number of data points in each cell
+        AdvancedNumeric advancedNumeric = AdvancedNumeric.using(par);
+        return DRes.of(indicators.map(advancedNumeric::sum));
+      });
     }
 
-    return Stream.concat(stream,
-        IntStream.range(0, r).boxed().flatMap(
-            i -> subsets(r - i - 1).map(set -> Arrays.stream(set).map(x -> x + i + 1).toArray())
-                .map(s -> prepend(i, s))));
-  }
-
-  /**
-   * Return a new array from prepending <i>a</i> to the given list.
-   */
-  private static int[] prepend(int a, int[] list) {
-    int[] out = new int[list.length + 1];
-    out[0] = a;
-    System.arraycopy(list, 0, out, 1, list.length);
-    return out;
-  }
-
-  @Override
-  public DRes<MultiDimensionalArray<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
     return builder.par(par -> {
 
-      // Perform all necessary comparisons (one per value per bucket) in parallel
-      Matrix<DRes<List<DRes<SInt>>>> indicators = MatrixUtils.buildMatrix(data.getHeight(),
-          data.getWidth(),
-          (i, j) -> new MultiLEQ(data.getRow(i).get(j), buckets.get(j)).buildComputation(par));
-      return DRes.of(indicators);
-
-    }).par((par, indicators) -> {
-
-      // Compute the histogram x the dataset -- a 1 indicates the data point is in the
-      // corresponding cumulative histogram.
-      List<Integer> widths = Stream
-          .concat(buckets.stream().mapToInt(bucket -> bucket.size() + 1).boxed(),
-              Stream.of(data.getHeight())).collect(Collectors.toList());
-
-      Matrix<List<DRes<SInt>>> indicatorsOut = MatrixUtils.map(indicators, DRes::out);
-      MultiDimensionalArray<DRes<SInt>> indicatorHistogram = MultiDimensionalArray
-          .build(widths, i -> {
-            int row = i.get(i.size() - 1);
-            List<DRes<SInt>> factors = IntStream.range(0, dimensions).mapToObj(d ->
-                indicatorsOut.getRow(row).get(d).get(i.get(d))).collect(
-                Collectors.toList());
-            return AdvancedNumeric.using(par).product(factors);
+      // The buckets are decomposed once and reused for all chunks
+      List<DRes<BitDecomposedColumn>> bucketColumns = buckets.stream()
+          .map(bucket -> par.seq(BitDecomposedColumn.decompose(bucket)))
+          .collect(Collectors.toList());
+      return DRes.of(bucketColumns);
+
+    }).seq((seq, bucketColumns) -> {
+      List<BitDecomposedColumn> decomposed = bucketColumns.stream().map(DRes::out)
+          .collect(Collectors.toList());
+      List<Integer> shape = buckets.stream().map(bucket -> bucket.size() + 1)
+          .collect(Collectors.toList());
+      MultiDimensionalArray<DRes<SInt>> empty = MultiDimensionalArray
+          .build(shape, i -> seq.numeric().known(0));
+      return DRes.of(new State(0, empty, decomposed));
+
+    }).whileLoop(state -> state.row < data.getHeight(), (seq, state) -> {
+      int end = Math.min(state.row + chunkSize, data.getHeight());
+      Matrix<DRes<SInt>> chunk = MatrixUtils.subMatrix(data, state.row, end, 0, data.getWidth());
+      return seq.seq(BucketIndicators.withDecomposedBuckets(state.buckets, chunk))
+          .par((par, indicators) -> {
+
+            // Add the number of data points from this chunk in each cell to the counts
+            MultiDimensionalArray<DRes<SInt>> counts = MultiDimensionalArray
+                .build(indicators.getShape(), i -> par.seq(sub -> sub.numeric()
+                    .add(state.counts.get(i), AdvancedNumeric.using(sub).sum(indicators.get(i)))));
+            return DRes.of(new State(end, counts, state.buckets));
           });
-      return DRes.of(indicatorHistogram);
-
-    }).par((par, indicatorHistogram) -> {
-
-      // Add all indicators per datapoint to compute the cumulative histogram.
-      AdvancedNumeric advancedNumeric = AdvancedNumeric.using(par);
-      MultiDimensionalArray<DRes<SInt>> cumulativeHistogram = indicatorHistogram
-          .project(advancedNumeric::sum);
-      return DRes.of(cumulativeHistogram);
-
-    }).par((par, cumulativeHistogram) -> {
-
-      // Correct the cumulative histogram to the actual histogram
-      MultiDimensionalArray<DRes<SInt>> histogram = MultiDimensionalArray
-          .build(cumulativeHistogram.getShape(), i -> par.seq(seq -> {
-            AtomicReference<DRes<SInt>> value = new AtomicReference<>(cumulativeHistogram.get(i));
-
-            List<Integer> nonZeroIndices = IntStream.range(0, dimensions).filter(d -> i.get(d) > 0)
-                .boxed()
-                .collect(
-                    Collectors.toList());
-            if (!nonZeroIndices.isEmpty()) {
-              subsets(nonZeroIndices).filter(subset -> !subset.isEmpty()).forEach(subset -> {
-                List<Integer> x = IntStream.range(0, dimensions)
-                    .map(d -> subset.contains(d) ? i.get(d) - 1 : i.get(d))
-                    .boxed().collect(Collectors.toList());
-
-                if (Math.floorMod(subset.size(), 2) == 1) {
-                  value.set(seq.numeric().sub(value.get(), cumulativeHistogram.get(x)));
-                } else {
-                  value.set(seq.numeric().add(value.get(), cumulativeHistogram.get(x)));
-                }
-              });
-            }
-            return value.get();
-          }));
-      return DRes.of(histogram);
-    });
-  }
 
-  private static class MultiLEQ implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+    }).seq((seq, state) -> DRes.of(state.counts));
+  }
 
-    private final DRes<SInt> lhs;
-    private final List<DRes<SInt>> rhs;
+  private static class State {
 
-    private MultiLEQ(DRes<SInt> lhs, List<DRes<SInt>> rhs) {
-      this.lhs = lhs;
-      this.rhs = rhs;
-    }
+    private final int row;
+    private final MultiDimensionalArray<DRes<SInt>> counts;
+    private final List<BitDecomposedColumn> buckets;
 
-    @Override
-    public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
-      return builder.par(par -> {
-        Comparison comparison = Comparison.using(par);
-        List<DRes<SInt>> c = Stream.concat(rhs.stream()
-            .map(x -> comparison.compareLEQ(lhs, x)), Stream.of(par.numeric().known(1))).collect(
-            Collectors.toList());
-        return DRes.of(c);
-      });
+    private State(int row, MultiDimensionalArray<DRes<SInt>> counts,
+        List<BitDecomposedColumn> buckets) {
+      this.row = row;
+      this.counts = counts;
+      this.buckets = buckets;
     }
-
   }
 
 }
@@ -0,0 +1,103 @@
+package dk.alexandra.fresco.stat.descriptive;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Collections;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.sort.LeakyQuickSort;
+import dk.alexandra.fresco.stat.descriptive.sort.QuickSelect;
+import dk.alexandra.fresco.stat.descriptive.sort.SortedColumn;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compute the order statistics with the given ranks (0-indexed, counted from the smallest element)
+ * of a sample using the given {@link OrderStatisticsStrategy}.
+ */
+public class OrderStatistics implements Computation<List<DRes<SFixed>>, ProtocolBuilderNumeric> {
+
+  private final List<DRes<SFixed>> data;
+  private final SortedColumn sorted;
+  private final int[] ranks;
+  private final OrderStatisticsStrategy strategy;
+  private final SortingAlgorithm algorithm;
+
+  /**
+   * Find the order statistics using the given strategy and algorithm. The strategy {@link
+   * OrderStatisticsStrategy#SELECTION} may only be used with {@link
+   * SortingAlgorithm#SHUFFLE_AND_COMPARE}.
+   */
+  public OrderStatistics(List<DRes<SFixed>> data, int[] ranks, OrderStatisticsStrategy strategy,
+      SortingAlgorithm algorithm) {
+    this(data, null, ranks, strategy, algorithm);
+    validate(strategy, algorithm);
+  }
+
+  /**
+   * Find the order statistics in a column which has already been sorted. This does not require
+   * any interaction.
+   */
+  public OrderStatistics(SortedColumn sorted, int[] ranks) {
+    this(null, sorted, ranks, null, null);
+  }
+
+  private OrderStatistics(List<DRes<SFixed>> data, SortedColumn sorted, int[] ranks,
+      OrderStatisticsStrategy strategy, SortingAlgorithm algorithm) {
+    this.data = data;
+    this.sorted = sorted;
+    this.ranks = ranks;
+    this.strategy = strategy;
+    this.algorithm = algorithm;
+  }
+
+  /**
+   * Check that the given strategy may be used with the given sorting algorithm.
+   */
+  static void validate(OrderStatisticsStrategy strategy, SortingAlgorithm algorithm) {
+    if (strategy == null || algorithm == null) {
+      throw new IllegalArgumentException("Strategy and algorithm must be given");
+    }
+    if (strategy == OrderStatisticsStrategy.SELECTION
+        && algorithm != SortingAlgorithm.SHUFFLE_AND_COMPARE) {
+      throw new IllegalArgumentException(
+          "Selection can only be used with " + SortingAlgorithm.SHUFFLE_AND_COMPARE);
+    }
+  }
+
+  @Override
+  public DRes<List<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric builder) {
+    if (sorted != null) {
+      return DRes.of(Arrays.stream(ranks).mapToObj(sorted::getFixed)
+          .collect(Collectors.toList()));
+    }
+    return builder.seq(seq -> {
+      List<DRes<SInt>> values = data.stream().map(x -> x.out().getSInt())
+          .collect(Collectors.toList());
+      if (strategy == OrderStatisticsStrategy.SELECTION) {
+        return new QuickSelect(values, ranks).buildComputation(seq);
+      } else if (strategy == OrderStatisticsStrategy.SORT
+          && algorithm == SortingAlgorithm.SHUFFLE_AND_COMPARE) {
+        // Only the sorted values are needed, so the sorting permutation is not computed
+        return seq.seq(LeakyQuickSort.sort(values))
+            .seq((sub, sortedValues) -> DRes.of(Arrays.stream(ranks)
+                .mapToObj(sortedValues::get).collect(Collectors.toList())));
+      } else if (strategy == OrderStatisticsStrategy.SORT) {
+        List<DRes<SInt>> empty = List.of();
+        return seq.seq(sub -> Collections.using(sub).sort(
+            values.stream().map(x -> new Pair<>(x, empty)).collect(Collectors.toList())))
+            // The sorted list is in descending order
+            .seq((sub, sorted) -> DRes.of(Arrays.stream(ranks)
+                .mapToObj(rank -> sorted.get(sorted.size() - 1 - rank).getFirst())
+                .collect(Collectors.toList())));
+      } else {
+        throw new IllegalArgumentException("Unknown strategy " + strategy);
+      }
+    }).seq((seq, selected) -> DRes.of(selected.stream().<DRes<SFixed>>map(SFixed::new)
+        .collect(Collectors.toList())));
+  }
+}
@@ -0,0 +1,24 @@
+package dk.alexandra.fresco.stat.descriptive;
+
+import dk.alexandra.fresco.stat.descriptive.sort.QuickSelect;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
+
+/**
+ * Strategies for computing order statistics such as the median and quantiles of a sample.
+ */
+public enum OrderStatisticsStrategy {
+
+  /**
+   * Sort the entire sample using any {@link SortingAlgorithm}.
+   */
+  SORT,
+
+  /**
+   * Select only the needed elements using {@link QuickSelect} on a shuffled copy of the sample.
+   * This requires an expected linear number of comparisons for each order statistic. The
+   * comparisons are opened as in {@link SortingAlgorithm#SHUFFLE_AND_COMPARE}, which is the only
+   * algorithm this strategy may be used with.
+   */
+  SELECTION
+
+}
@@ -5,10 +5,13 @@ import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.sort.SortedColumn;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,46 +22,75 @@ public class Ranks implements
     Computation<Pair<List<DRes<SFixed>>, Double>, ProtocolBuilderNumeric> {
 
   private final List<List<DRes<SInt>>> samples;
+  private final SortedColumn sorted;
+  private final List<Integer> sampleSizes;
+  private final SortingAlgorithm algorithm;
 
   public Ranks(List<List<DRes<SInt>>> samples) {
+    this(samples, SortingAlgorithm.SORTING_NETWORK);
+  }
+
+  /** Compute the ranks by sorting the samples using the given algorithm. */
+  public Ranks(List<List<DRes<SInt>>> samples, SortingAlgorithm algorithm) {
+    this(samples, null, samples.stream().map(List::size).collect(Collectors.toList()),
+        algorithm);
+  }
+
+  /**
+   * Compute the ranks from a column which has already been sorted. The column must be the
+   * concatenation of the samples whose sizes are given.
+   */
+  public Ranks(SortedColumn sorted, List<Integer> sampleSizes) {
+    this(null, sorted, sampleSizes, null);
+    if (sampleSizes.stream().mapToInt(Integer::intValue).sum() != sorted.size()) {
+      throw new IllegalArgumentException("The sample sizes must sum to the size of the column");
+    }
+  }
+
+  private Ranks(List<List<DRes<SInt>>> samples, SortedColumn sorted,
+      List<Integer> sampleSizes, SortingAlgorithm algorithm) {
     this.samples = samples;
+    this.sorted = sorted;
+    this.sampleSizes = sampleSizes;
+    this.algorithm = algorithm;
   }
 
   @Override
   public DRes<Pair<List<DRes<SFixed>>, Double>> buildComputation(
       ProtocolBuilderNumeric builder) {
 
-    List<Pair<DRes<SInt>, List<DRes<SInt>>>> valuesWithClassIndicators = new ArrayList<>();
-
-    // For each data point we add a vector indicating what group it belongs to
-    int n = 0;
-    for (int i = 0; i < samples.size(); i++) {
-      List<DRes<SInt>> sample = samples.get(i);
-      List<DRes<SInt>> indicators = new ArrayList<>();
-      for (int j = 0; j < samples.size(); j++) {
-        indicators.add(builder.numeric().known(i == j ? 1 : 0));
-      }
-      for (DRes<SInt> dataPoint : sample) {
-        valuesWithClassIndicators.add(new Pair<>(dataPoint, indicators));
-        n++;
+    List<Integer> classes = new ArrayList<>();
+    for (int i = 0; i < sampleSizes.size(); i++) {
+      for (int j = 0; j < sampleSizes.get(i); j++) {
+        classes.add(i);
       }
     }
+    int finalN = classes.size();
+    int groups = sampleSizes.size();
 
-    int finalN = n;
-    return builder.seq(seq ->
-        // Sort data points
-        dk.alexandra.fresco.lib.common.collections.Collections.using(seq)
-            .sort(valuesWithClassIndicators)
-    ).seq((seq, sorted) -> {
-
-      Collections.reverse(sorted);
-
-      Pair<List<Pair<DRes<SInt>, List<DRes<SInt>>>>, DRes<List<Double>>> out;
+    return builder.seq(seq -> {
+      if (sorted != null) {
+        return DRes.of(sorted);
+      }
+      List<DRes<SInt>> values = new ArrayList<>();
+      samples.forEach(values::addAll);
+      return seq.seq(SortedColumn.sort(values, algorithm));
+    }).seq((seq, sortedColumn) -> {
+      // The values are already sorted, so we only need to apply the sorting permutation to a vector
+      // for each data point indicating what group it belongs to
+      Matrix<DRes<SInt>> classIndicators = MatrixUtils.buildMatrix(finalN, groups,
+          (i, j) -> seq.numeric().known(classes.get(i) == j ? 1 : 0));
+      DRes<Matrix<DRes<SInt>>> sortedIndicators = seq
+          .seq(sortedColumn.getPermutation().apply(classIndicators));
+      return Pair.lazy(sortedColumn, sortedIndicators);
+    }).seq((seq, sortedAndIndicators) -> {
+
+      Pair<List<List<DRes<SInt>>>, DRes<List<Double>>> out;
 
       // Break ties by opening encrypted values. Note that this leaks the ranks of elements that are equal
-      DRes<List<Double>> r1 = new LeakyBreakTies(
-          sorted.stream().map(Pair::getFirst).collect(Collectors.toList())).buildComputation(seq);
-      out = new Pair<>(sorted, r1);
+      DRes<List<Double>> r1 = new LeakyBreakTies(sortedAndIndicators.getFirst().getSorted())
+          .buildComputation(seq);
+      out = new Pair<>(new ArrayList<>(sortedAndIndicators.getSecond().out().getRows()), r1);
       return DRes.of(out);
     }).par((par, dataAndRanks) -> {
 
@@ -92,10 +124,10 @@ public class Ranks implements
 
       // Sum of ranks for each group
       List<DRes<SFixed>> totals = new ArrayList<>();
-      for (int j = 0; j < samples.size(); j++) {
+      for (int j = 0; j < groups; j++) {
         List<DRes<SInt>> column = new ArrayList<>();
-        for (Pair<DRes<SInt>, List<DRes<SInt>>> row : dataAndRanks.getFirst()) {
-          column.add(row.getSecond().get(j));
+        for (List<DRes<SInt>> row : dataAndRanks.getFirst()) {
+          column.add(row.get(j));
         }
         totals.add(VectorUtils.innerProductWithBitvectorPublic(column, ranks, par));
       }
@@ -3,9 +3,13 @@ package dk.alexandra.fresco.stat.descriptive;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
 import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
 import java.util.List;
 
 /**
@@ -14,13 +18,37 @@ import java.util.List;
 public class SampleMean implements Computation<SFixed, ProtocolBuilderNumeric> {
 
   private final List<DRes<SFixed>> observed;
+  private final List<DRes<SInt>> indicator;
 
   public SampleMean(List<DRes<SFixed>> observed) {
     this.observed = observed;
+    this.indicator = null;
+  }
+
+  /**
+   * Compute the mean of the observations where the indicator is one, eg. as computed by a {@link
+   * dk.alexandra.fresco.stat.filter.Filter}. The indicator is folded into the sum which needs no
+   * truncation, and the number of selected observations is kept secret.
+   */
+  public SampleMean(List<DRes<SFixed>> observed, List<DRes<SInt>> indicator) {
+    if (observed.size() != indicator.size()) {
+      throw new IllegalArgumentException("There must be exactly one indicator per observation");
+    }
+    this.observed = observed;
+    this.indicator = indicator;
   }
 
   @Override
   public DRes<SFixed> buildComputation(ProtocolBuilderNumeric builder) {
+    if (indicator != null) {
+      return builder.par(par -> {
+        DRes<SFixed> sum = VectorUtils.innerProductWithBitvector(indicator, observed, par);
+        DRes<SFixed> count = par.seq(seq -> FixedNumeric.using(seq)
+            .fromSInt(AdvancedNumeric.using(seq).sum(indicator)));
+        return Pair.lazy(sum, count);
+      }).seq((seq, sumAndCount) -> FixedNumeric.using(seq)
+          .div(sumAndCount.getFirst(), sumAndCount.getSecond()));
+    }
     return builder.seq(seq -> {
       DRes<SFixed> sum = AdvancedFixedNumeric.using(seq).sum(observed);
       return FixedNumeric.using(seq).div(sum, observed.size());
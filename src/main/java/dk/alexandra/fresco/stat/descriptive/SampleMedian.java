@@ -3,39 +3,59 @@ package dk.alexandra.fresco.stat.descriptive;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
-import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
-import dk.alexandra.fresco.lib.common.collections.Collections;
-import dk.alexandra.fresco.lib.common.collections.sort.OddEvenMerge;
-import dk.alexandra.fresco.lib.common.math.AdvancedBinary;
 import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
-import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
-import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
-import dk.alexandra.fresco.stat.AdvancedLinearAlgebra;
+import dk.alexandra.fresco.stat.descriptive.sort.SortedColumn;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /** Compute the sample median of a sample */
 public class SampleMedian implements Computation<SFixed, ProtocolBuilderNumeric> {
 
   private final List<DRes<SFixed>> data;
+  private final SortedColumn sorted;
+  private final OrderStatisticsStrategy strategy;
+  private final SortingAlgorithm algorithm;
 
   public SampleMedian(List<DRes<SFixed>> data) {
+    this(data, OrderStatisticsStrategy.SORT, SortingAlgorithm.SORTING_NETWORK);
+  }
+
+  /**
+   * Compute the median using the given strategy and algorithm (see {@link OrderStatistics}).
+   */
+  public SampleMedian(List<DRes<SFixed>> data, OrderStatisticsStrategy strategy,
+      SortingAlgorithm algorithm) {
+    this(data, null, strategy, algorithm);
+    OrderStatistics.validate(strategy, algorithm);
+  }
+
+  /** Compute the median of a column which has already been sorted. */
+  public SampleMedian(SortedColumn sorted) {
+    this(null, sorted, null, null);
+  }
+
+  private SampleMedian(List<DRes<SFixed>> data, SortedColumn sorted,
+      OrderStatisticsStrategy strategy, SortingAlgorithm algorithm) {
     this.data = data;
+    this.sorted = sorted;
+    this.strategy = strategy;
+    this.algorithm = algorithm;
   }
 
   @Override
   public DRes<SFixed> buildComputation(ProtocolBuilderNumeric builder) {
-    return builder.seq(seq -> {
-      List<DRes<SInt>> empty = List.of();
-      return Collections.using(seq).sort(data.stream().map(x -> new Pair<>(x.out().getSInt(), empty)).collect(Collectors.toList()));
-    }).seq((seq, sorted) -> {
-      if (Math.floorMod(sorted.size(), 2) == 1) {
-        return new SFixed(sorted.get(sorted.size() / 2).getFirst());
+    int n = sorted != null ? sorted.size() : data.size();
+    int[] ranks = Math.floorMod(n, 2) == 1 ? new int[]{n / 2} : new int[]{n / 2 - 1, n / 2};
+    OrderStatistics orderStatistics = sorted != null ? new OrderStatistics(sorted, ranks)
+        : new OrderStatistics(data, ranks, strategy, algorithm);
+    return builder.seq(orderStatistics).seq((seq, selected) -> {
+      if (selected.size() == 1) {
+        return selected.get(0);
       } else {
-        DRes<SInt> sum = seq.numeric().add(sorted.get(sorted.size() / 2).getFirst(),
-            sorted.get(sorted.size() / 2 - 1).getFirst());
+        DRes<SInt> sum = seq.numeric().add(selected.get(0).out().getSInt(),
+            selected.get(1).out().getSInt());
         return new SFixed(AdvancedNumeric.using(seq).truncate(sum, 1));
       }
     });
@@ -3,48 +3,87 @@ package dk.alexandra.fresco.stat.descriptive;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
-import dk.alexandra.fresco.framework.util.Pair;
-import dk.alexandra.fresco.framework.value.SInt;
-import dk.alexandra.fresco.lib.common.collections.Collections;
-import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.sort.SortedColumn;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
 
 /** Compute some quantiles for a sample */
 public class SampleQuantiles implements Computation<List<DRes<SFixed>>, ProtocolBuilderNumeric> {
 
   private final List<DRes<SFixed>> data;
+  private final SortedColumn sorted;
   private final double[] quantiles;
+  private final OrderStatisticsStrategy strategy;
+  private final SortingAlgorithm algorithm;
 
   public SampleQuantiles(List<DRes<SFixed>> data, double[] quantiles) {
+    this(data, quantiles, OrderStatisticsStrategy.SORT, SortingAlgorithm.SORTING_NETWORK);
+  }
+
+  /**
+   * Compute quantiles using the given strategy and algorithm (see {@link OrderStatistics}).
+   */
+  public SampleQuantiles(List<DRes<SFixed>> data, double[] quantiles,
+      OrderStatisticsStrategy strategy, SortingAlgorithm algorithm) {
+    this(data, null, quantiles, strategy, algorithm);
+    OrderStatistics.validate(strategy, algorithm);
+  }
+
+  /** Compute quantiles of a column which has already been sorted. */
+  public SampleQuantiles(SortedColumn sorted, double[] quantiles) {
+    this(null, sorted, quantiles, null, null);
+  }
+
+  private SampleQuantiles(List<DRes<SFixed>> data, SortedColumn sorted, double[] quantiles,
+      OrderStatisticsStrategy strategy, SortingAlgorithm algorithm) {
     this.data = data;
+    this.sorted = sorted;
     this.quantiles = quantiles;
+    this.strategy = strategy;
+    this.algorithm = algorithm;
   }
 
   @Override
   public DRes<List<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric builder) {
-    return builder.seq(seq -> {
-      List<DRes<SInt>> empty = List.of();
-      return Collections.using(seq).sort(data.stream().map(x -> new Pair<>(x.out().getSInt(), empty)).collect(Collectors.toList()));
-    }).seq((seq, sorted) -> {
-      java.util.Collections.reverse(sorted);
+    int n = sorted != null ? sorted.size() : data.size();
+
+    // Find the order statistics needed to compute the quantiles
+    TreeSet<Integer> needed = new TreeSet<>();
+    for (double quantile : quantiles) {
+      double pos = quantile * (n + 1);
+      if (pos < 1) {
+        needed.add(0);
+      } else if (pos >= n) {
+        needed.add(n - 1);
+      } else {
+        int i = (int) Math.floor(pos);
+        needed.add(i - 1);
+        needed.add(i);
+      }
+    }
+    int[] ranks = needed.stream().mapToInt(Integer::intValue).toArray();
+
+    OrderStatistics orderStatistics = sorted != null ? new OrderStatistics(sorted, ranks)
+        : new OrderStatistics(data, ranks, strategy, algorithm);
+    return builder.seq(orderStatistics).seq((seq, selected) -> {
+      List<Integer> indices = new ArrayList<>(needed);
       FixedNumeric fixedNumeric = FixedNumeric.using(seq);
       List<DRes<SFixed>> percentiles = new ArrayList<>();
       for (double quantile : quantiles) {
-        double pos = quantile * (sorted.size() + 1);
+        double pos = quantile * (n + 1);
         if (pos < 1) {
-          percentiles.add(new SFixed(sorted.get(0).getFirst()));
-        } else if (pos >= sorted.size()) {
-          percentiles.add(new SFixed(sorted.get(sorted.size() - 1).getFirst()));
+          percentiles.add(selected.get(indices.indexOf(0)));
+        } else if (pos >= n) {
+          percentiles.add(selected.get(indices.indexOf(n - 1)));
         } else {
           double d = pos - Math.floor(pos);
           int i = (int) Math.floor(pos);
-          DRes<SFixed> lower = new SFixed(sorted.get(i - 1).getFirst());
-          DRes<SFixed> upper = new SFixed(sorted.get(i).getFirst());
+          DRes<SFixed> lower = selected.get(indices.indexOf(i - 1));
+          DRes<SFixed> upper = selected.get(indices.indexOf(i));
           percentiles.add(fixedNumeric.add(lower, fixedNumeric.mult(d, fixedNumeric.sub(upper, lower))));
         }
       }
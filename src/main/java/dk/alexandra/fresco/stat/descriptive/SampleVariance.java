@@ -3,6 +3,9 @@ package dk.alexandra.fresco.stat.descriptive;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.descriptive.helpers.SSD;
@@ -15,6 +18,7 @@ public class SampleVariance implements Computation<SFixed, ProtocolBuilderNumeri
 
   private final List<DRes<SFixed>> observed;
   private final DRes<SFixed> mean;
+  private final List<DRes<SInt>> indicator;
 
   /**
    * Create a new computation with a given computed sample mean. Use {@link SampleMean} to compute
@@ -23,10 +27,35 @@ public class SampleVariance implements Computation<SFixed, ProtocolBuilderNumeri
   public SampleVariance(List<DRes<SFixed>> observed, DRes<SFixed> mean) {
     this.observed = observed;
     this.mean = mean;
+    this.indicator = null;
+  }
+
+  /**
+   * Create a new computation of the sample variance of the observations where the indicator is
+   * one with a given computed mean of these observations. Use {@link SampleMean#SampleMean(List,
+   * List)} to compute the mean.
+   */
+  public SampleVariance(List<DRes<SFixed>> observed, DRes<SFixed> mean,
+      List<DRes<SInt>> indicator) {
+    if (observed.size() != indicator.size()) {
+      throw new IllegalArgumentException("There must be exactly one indicator per observation");
+    }
+    this.observed = observed;
+    this.mean = mean;
+    this.indicator = indicator;
   }
 
   @Override
   public DRes<SFixed> buildComputation(ProtocolBuilderNumeric root) {
+    if (indicator != null) {
+      return root.par(par -> {
+        DRes<SFixed> sum = par.seq(new SSD(observed, mean, indicator));
+        DRes<SFixed> count = par.seq(seq -> FixedNumeric.using(seq)
+            .fromSInt(AdvancedNumeric.using(seq).sum(indicator)));
+        return Pair.lazy(sum, count);
+      }).seq((seq, sumAndCount) -> FixedNumeric.using(seq).div(sumAndCount.getFirst(),
+          FixedNumeric.using(seq).sub(sumAndCount.getSecond(), 1)));
+    }
     return root.seq(builder -> {
       DRes<SFixed> sum = new SSD(observed, mean).buildComputation(builder);
       return FixedNumeric.using(builder).div(sum, observed.size() - 1);
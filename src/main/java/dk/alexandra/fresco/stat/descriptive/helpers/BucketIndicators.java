@@ -0,0 +1,141 @@
+package dk.alexandra.fresco.stat.descriptive.helpers;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.stat.utils.BitDecomposedColumn;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import dk.alexandra.fresco.stat.utils.MultiDimensionalArray;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compute which cell of a multi-dimensional histogram each row of a data set belongs to. The output
+ * has an entry for each cell, which is a list with a 1 at index <i>i</i> if the <i>i</i>'th row of
+ * the data set is in the cell and 0 otherwise.
+ * <p>
+ * For each dimension, the comparisons of a value with the upper bounds of the buckets give
+ * cumulative indicators, which are turned into a one-hot encoding of the bucket using only linear
+ * operations. The indicators of the cells are then computed as the outer product of the one-hot
+ * encodings, one dimension at a time, so each cell costs a single multiplication per row.
+ */
+public class BucketIndicators implements
+    Computation<MultiDimensionalArray<List<DRes<SInt>>>, ProtocolBuilderNumeric> {
+
+  private final List<List<DRes<SInt>>> buckets;
+  private final List<BitDecomposedColumn> decomposedBuckets;
+  private final Matrix<DRes<SInt>> data;
+  private final int dimensions;
+
+  /**
+   * @param buckets A list of soft upper bounds for the buckets for each dimension.
+   * @param data    The dataset. Rows are interpreted as entries.
+   */
+  public BucketIndicators(List<List<DRes<SInt>>> buckets, Matrix<DRes<SInt>> data) {
+    this(buckets, null, data);
+  }
+
+  private BucketIndicators(List<List<DRes<SInt>>> buckets,
+      List<BitDecomposedColumn> decomposedBuckets, Matrix<DRes<SInt>> data) {
+    this.dimensions = buckets != null ? buckets.size() : decomposedBuckets.size();
+    if (data.getWidth() != dimensions) {
+      throw new IllegalArgumentException("There should be a list of buckets per dimension");
+    }
+    this.buckets = buckets;
+    this.decomposedBuckets = decomposedBuckets;
+    this.data = data;
+  }
+
+  /**
+   * Compute the bucket indicators where the upper bounds of the buckets have already been bit
+   * decomposed using the maximum bit length. This avoids decomposing the buckets again when the
+   * indicators are computed for multiple parts of a data set.
+   *
+   * @param buckets The soft upper bounds for the buckets for each dimension.
+   * @param data    The dataset. Rows are interpreted as entries.
+   */
+  public static BucketIndicators withDecomposedBuckets(List<BitDecomposedColumn> buckets,
+      Matrix<DRes<SInt>> data) {
+    return new BucketIndicators(null, buckets, data);
+  }
+
+  @Override
+  public DRes<MultiDimensionalArray<List<DRes<SInt>>>> buildComputation(
+      ProtocolBuilderNumeric builder) {
+    List<Integer> shape = IntStream.range(0, dimensions).map(j -> (buckets != null
+        ? buckets.get(j).size() : decomposedBuckets.get(j).size()) + 1).boxed()
+        .collect(Collectors.toList());
+
+    return builder.par(par -> {
+
+      // Bit decompose each column of the data and the buckets for each dimension once
+      List<DRes<BitDecomposedColumn>> columns = IntStream.range(0, dimensions)
+          .mapToObj(j -> par.seq(BitDecomposedColumn.decompose(data.getColumn(j))))
+          .collect(Collectors.toList());
+      List<DRes<BitDecomposedColumn>> bucketColumns = IntStream.range(0, dimensions)
+          .mapToObj(j -> buckets != null ? par.seq(BitDecomposedColumn.decompose(buckets.get(j)))
+              : DRes.of(decomposedBuckets.get(j)))
+          .collect(Collectors.toList());
+      return Pair.lazy(columns, bucketColumns);
+
+    }).par((par, columns) -> {
+
+      // Perform all necessary comparisons (one per value per bucket) in parallel
+      Matrix<DRes<List<DRes<SInt>>>> cumulative = MatrixUtils.buildMatrix(data.getHeight(),
+          dimensions, (i, j) -> par.seq(columns.getFirst().get(j).out()
+              .leq(i, columns.getSecond().get(j).out())));
+      return DRes.of(cumulative);
+
+    }).par((par, cumulative) -> {
+
+      // For each row, compute the indicators of all cells as a flat list in lexicographical order
+      List<DRes<List<DRes<SInt>>>> cells = IntStream.range(0, data.getHeight())
+          .mapToObj(i -> par.seq(seq -> {
+            DRes<List<DRes<SInt>>> product = DRes.of(oneHot(cumulative.getRow(i).get(0).out(),
+                seq));
+            for (int j = 1; j < dimensions; j++) {
+              DRes<List<DRes<SInt>>> previous = product;
+              List<DRes<SInt>> next = oneHot(cumulative.getRow(i).get(j).out(), seq);
+              product = seq.par(sub -> DRes.of(previous.out().stream()
+                  .flatMap(p -> next.stream().map(q -> sub.numeric().mult(p, q)))
+                  .collect(Collectors.toList())));
+            }
+            return product;
+          })).collect(Collectors.toList());
+      return DRes.of(cells);
+
+    }).seq((seq, cells) -> DRes.of(MultiDimensionalArray.build(shape, index -> {
+      int flat = 0;
+      for (int j = 0; j < dimensions; j++) {
+        flat = flat * shape.get(j) + index.get(j);
+      }
+      int cell = flat;
+      return cells.stream().map(row -> row.out().get(cell)).collect(Collectors.toList());
+    })));
+  }
+
+  /**
+   * Given the indicators <i>[x &le; b<sub>i</sub>]</i> for increasing upper bounds
+   * <i>b<sub>0</sub>, ..., b<sub>k-1</sub></i>, compute a one-hot encoding of the bucket of
+   * <i>x</i> of length <i>k + 1</i>.
+   */
+  private static List<DRes<SInt>> oneHot(List<DRes<SInt>> cumulative,
+      ProtocolBuilderNumeric builder) {
+    List<DRes<SInt>> result = new ArrayList<>(cumulative.size() + 1);
+    if (cumulative.isEmpty()) {
+      result.add(builder.numeric().known(1));
+      return result;
+    }
+    result.add(cumulative.get(0));
+    for (int i = 1; i < cumulative.size(); i++) {
+      result.add(builder.numeric().sub(cumulative.get(i), cumulative.get(i - 1)));
+    }
+    result.add(builder.numeric().sub(1, cumulative.get(cumulative.size() - 1)));
+    return result;
+  }
+}
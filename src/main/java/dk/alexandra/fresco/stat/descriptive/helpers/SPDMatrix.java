@@ -0,0 +1,63 @@
+package dk.alexandra.fresco.stat.descriptive.helpers;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compute the matrix of sums of products of deviations for all pairs of columns in a data set, eg.
+ * the centered Gram matrix <i>(X - &mu;)<sup>T</sup>(X - &mu;)</i>. Each entry is computed as an
+ * inner product which is only truncated once, and each pair of columns is only handled once since
+ * the matrix is symmetric.
+ */
+public class SPDMatrix implements Computation<Matrix<DRes<SFixed>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SFixed>> data;
+
+  /**
+   * @param data The data set. Rows are interpreted as observations and columns as variables.
+   */
+  public SPDMatrix(Matrix<DRes<SFixed>> data) {
+    this.data = data;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric root) {
+    int n = data.getHeight();
+    int p = data.getWidth();
+    return root.par(par -> {
+      AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(par);
+      List<DRes<SFixed>> sums = IntStream.range(0, p)
+          .mapToObj(j -> advancedFixedNumeric.sum(data.getColumn(j)))
+          .collect(Collectors.toList());
+      return DRes.of(sums);
+    }).par((par, sums) -> {
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      List<DRes<SFixed>> means = sums.stream().map(sum -> fixedNumeric.div(sum, n))
+          .collect(Collectors.toList());
+      return DRes.of(means);
+    }).par((par, means) -> {
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      Matrix<DRes<SFixed>> centered = MatrixUtils.buildMatrix(n, p,
+          (i, j) -> fixedNumeric.sub(data.getRow(i).get(j), means.get(j)));
+      return DRes.of(centered);
+    }).par((par, centered) -> {
+      AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(par);
+      List<List<DRes<SFixed>>> upper = IntStream.range(0, p)
+          .mapToObj(i -> IntStream.range(i, p).mapToObj(j -> advancedFixedNumeric
+              .innerProduct(centered.getColumn(i), centered.getColumn(j)))
+              .collect(Collectors.toList())).collect(Collectors.toList());
+      Matrix<DRes<SFixed>> products = MatrixUtils.buildMatrix(p, p,
+          (i, j) -> i <= j ? upper.get(i).get(j - i) : upper.get(j).get(i - j));
+      return DRes.of(products);
+    });
+  }
+}
@@ -3,9 +3,11 @@ package dk.alexandra.fresco.stat.descriptive.helpers;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,10 +18,21 @@ public class SSD implements Computation<SFixed, ProtocolBuilderNumeric> {
 
   private final List<DRes<SFixed>> data;
   private final DRes<SFixed> mean;
+  private final List<DRes<SInt>> indicator;
 
   public SSD(List<DRes<SFixed>> data, DRes<SFixed> mean) {
+    this(data, mean, null);
+  }
+
+  /**
+   * Compute the sum of squared deviations of the entries where the indicator is one. The
+   * deviations are multiplied by the indicator without truncation, so the sum is truncated only
+   * once.
+   */
+  public SSD(List<DRes<SFixed>> data, DRes<SFixed> mean, List<DRes<SInt>> indicator) {
     this.data = data;
     this.mean = mean;
+    this.indicator = indicator;
   }
 
   @Override
@@ -29,7 +42,16 @@ public class SSD implements Computation<SFixed, ProtocolBuilderNumeric> {
       List<DRes<SFixed>> terms = data.stream().map(x -> fixedNumeric.sub(x, mean))
           .collect(Collectors.toList());
       return DRes.of(terms);
-    }).seq((seq, terms) -> seq.seq(new USS(terms)));
+    }).seq((seq, terms) -> {
+      if (indicator == null) {
+        return seq.seq(new USS(terms));
+      }
+      return seq.par(par -> {
+        List<DRes<SFixed>> selected = VectorUtils.listBuilder(terms.size(), i -> new SFixed(
+            par.numeric().mult(indicator.get(i), terms.get(i).out().getSInt())));
+        return DRes.of(selected);
+      }).seq((sub, selected) -> AdvancedFixedNumeric.using(sub).innerProduct(terms, selected));
+    });
   }
 
 }
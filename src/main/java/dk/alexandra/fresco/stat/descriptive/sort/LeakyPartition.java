@@ -0,0 +1,98 @@
+package dk.alexandra.fresco.stat.descriptive.sort;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.common.compare.Comparison;
+import dk.alexandra.fresco.stat.utils.Shuffle;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Partition a number of segments around their first element, which is used as pivot, by comparing
+ * all other elements with the pivot and opening the results. All segments are partitioned in
+ * parallel. This is the partition step shared by {@link LeakyQuickSort} and {@link QuickSelect}.
+ * <p>
+ * The opened comparisons leak the order of the keys, so the keys must be distinct and shuffled
+ * obliviously before partitioning.
+ */
+class LeakyPartition {
+
+  /**
+   * Make the given values distinct by appending their index as the least significant bits and
+   * shuffle them obliviously, so the result may be partitioned without leaking anything about the
+   * values. The output is a list of pairs of values and distinct keys. All values must be smaller
+   * than <i>2<sup>l - b - 2</sup></i> in absolute value where <i>l</i> is the maximum bit length
+   * and <i>b</i> is the bit length of the number of values.
+   */
+  static Computation<List<Pair<DRes<SInt>, DRes<SInt>>>, ProtocolBuilderNumeric> shuffle(
+      List<DRes<SInt>> values) {
+    int n = values.size();
+    int indexBits = Integer.SIZE - Integer.numberOfLeadingZeros(n - 1);
+    return builder -> builder.par(par -> {
+      ArrayList<ArrayList<DRes<SInt>>> rows = new ArrayList<>();
+      for (int i = 0; i < n; i++) {
+        DRes<SInt> key = par.numeric()
+            .add(i, par.numeric().mult(BigInteger.ONE.shiftLeft(indexBits), values.get(i)));
+        rows.add(new ArrayList<>(List.of(values.get(i), key)));
+      }
+      return DRes.of(new Matrix<>(n, 2, rows));
+    }).seq((seq, matrix) -> seq.seq(new Shuffle(matrix)))
+        .seq((seq, shuffled) -> DRes.of(shuffled.getRows().stream()
+            .map(row -> new Pair<>(row.get(0), row.get(1))).collect(Collectors.toList())));
+  }
+
+  /**
+   * Partition the given segments. For each segment, the output holds the elements which are at
+   * most the pivot and the elements which are larger than the pivot, both in their original order
+   * and excluding the pivot itself. Segments of size at most one are not partitioned and both
+   * parts are empty.
+   *
+   * @param segments The segments to partition.
+   * @param key      The function giving the secret key of an element.
+   * @param <T>      The type of the elements.
+   * @return The smaller and larger elements of each segment.
+   */
+  static <T> Computation<List<Pair<List<T>, List<T>>>, ProtocolBuilderNumeric> partition(
+      List<List<T>> segments, Function<T, DRes<SInt>> key) {
+    return builder -> builder.par(par -> {
+      List<List<DRes<BigInteger>>> comparisons = new ArrayList<>();
+      for (List<T> segment : segments) {
+        List<DRes<BigInteger>> segmentComparisons = new ArrayList<>();
+        if (segment.size() > 1) {
+          DRes<SInt> pivot = key.apply(segment.get(0));
+          for (int i = 1; i < segment.size(); i++) {
+            DRes<SInt> element = key.apply(segment.get(i));
+            segmentComparisons.add(par.seq(sub -> sub.numeric()
+                .open(Comparison.using(sub).compareLEQ(element, pivot))));
+          }
+        }
+        comparisons.add(segmentComparisons);
+      }
+      return DRes.of(comparisons);
+
+    }).seq((seq, comparisons) -> {
+      List<Pair<List<T>, List<T>>> partitions = new ArrayList<>();
+      for (int j = 0; j < segments.size(); j++) {
+        List<T> segment = segments.get(j);
+        List<T> smaller = new ArrayList<>();
+        List<T> larger = new ArrayList<>();
+        for (int i = 1; i < segment.size(); i++) {
+          if (comparisons.get(j).get(i - 1).out().equals(BigInteger.ONE)) {
+            smaller.add(segment.get(i));
+          } else {
+            larger.add(segment.get(i));
+          }
+        }
+        partitions.add(new Pair<>(smaller, larger));
+      }
+      return DRes.of(partitions);
+    });
+  }
+}
@@ -0,0 +1,83 @@
+package dk.alexandra.fresco.stat.descriptive.sort;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compute the indices of a list of secret keys in ascending order using quicksort, where the
+ * results of the comparisons with the pivots are opened. All segments are partitioned in parallel,
+ * so the expected number of rounds is logarithmic in the size of the input.
+ * <p>
+ * The opened comparisons leak the order of the keys, so the keys must be distinct and the list must
+ * be obliviously shuffled before this computation, in which case nothing but a uniformly random
+ * permutation is revealed.
+ */
+public class LeakyQuickSort implements Computation<List<Integer>, ProtocolBuilderNumeric> {
+
+  private final List<DRes<SInt>> keys;
+
+  public LeakyQuickSort(List<DRes<SInt>> keys) {
+    this.keys = keys;
+  }
+
+  /**
+   * Sort a list of secret values in ascending order. The values are made distinct and shuffled
+   * together with their keys once, after which they are sorted using leaky quicksort on the keys.
+   * This is cheaper than computing the sorting {@link SecretPermutation} and applying it to the
+   * values, which requires a second shuffle, so it should be used when only the sorted values are
+   * needed. See {@link QuickSelect} for the range of the values.
+   */
+  public static Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> sort(
+      List<DRes<SInt>> values) {
+    return builder -> {
+      if (values.size() < 2) {
+        return DRes.of(values);
+      }
+      return builder.seq(LeakyPartition.shuffle(values)).seq((seq, rows) -> seq.seq(
+          new LeakyQuickSort(rows.stream().map(Pair::getSecond).collect(Collectors.toList())))
+          .seq((sub, order) -> DRes.of(order.stream().map(i -> rows.get(i).getFirst())
+              .collect(Collectors.toList()))));
+    };
+  }
+
+  @Override
+  public DRes<List<Integer>> buildComputation(ProtocolBuilderNumeric builder) {
+
+    // The state is a list of consecutive segments of the sorted list. Segments of size at most one
+    // are sorted.
+    List<List<Integer>> initial = new ArrayList<>();
+    initial.add(IntStream.range(0, keys.size()).boxed().collect(Collectors.toList()));
+
+    return builder.seq(seq -> DRes.of(initial))
+        .whileLoop(segments -> segments.stream().anyMatch(segment -> segment.size() > 1),
+            (seq, segments) -> seq.seq(LeakyPartition.partition(segments, keys::get))
+                .seq((sub, partitions) -> {
+                  List<List<Integer>> next = new ArrayList<>();
+                  for (int j = 0; j < segments.size(); j++) {
+                    List<Integer> segment = segments.get(j);
+                    if (segment.size() <= 1) {
+                      next.add(segment);
+                      continue;
+                    }
+                    addIfNotEmpty(next, partitions.get(j).getFirst());
+                    next.add(List.of(segment.get(0)));
+                    addIfNotEmpty(next, partitions.get(j).getSecond());
+                  }
+                  return DRes.of(next);
+                })).seq((seq, segments) -> DRes.of(segments.stream().flatMap(List::stream)
+            .collect(Collectors.toList())));
+  }
+
+  private static void addIfNotEmpty(List<List<Integer>> segments, List<Integer> segment) {
+    if (!segment.isEmpty()) {
+      segments.add(segment);
+    }
+  }
+}
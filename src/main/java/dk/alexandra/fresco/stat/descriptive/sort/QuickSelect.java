@@ -0,0 +1,117 @@
+package dk.alexandra.fresco.stat.descriptive.sort;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Select the elements with the given ranks (0-indexed, counted from the smallest element) from a
+ * list of secret integers without sorting the entire list.
+ * <p>
+ * The list is shuffled obliviously and the elements are made distinct by appending their original
+ * index as the least significant bits. A quickselect is then run on the shuffled list where the
+ * results of the comparisons with the pivots are opened (see {@link LeakyPartition}). Since the
+ * keys are distinct and the order of the shuffled list is uniformly random, the opened comparisons
+ * reveal nothing about the data. The expected number of comparisons is linear in the size of the
+ * input for each requested rank as opposed to <i>O(n log<sup>2</sup> n)</i> for a sorting
+ * network.
+ * <p>
+ * All inputs must be smaller than <i>2<sup>l - b - 2</sup></i> in absolute value where <i>l</i> is
+ * the maximum bit length and <i>b</i> is the bit length of the input size.
+ */
+public class QuickSelect implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final List<DRes<SInt>> data;
+  private final int[] ranks;
+
+  /**
+   * Select the elements with the given ranks.
+   *
+   * @param data  The data to select from.
+   * @param ranks The ranks of the elements to select. The smallest element has rank 0.
+   */
+  public QuickSelect(List<DRes<SInt>> data, int[] ranks) {
+    if (Arrays.stream(ranks).anyMatch(r -> r < 0 || r >= data.size())) {
+      throw new IllegalArgumentException("Ranks must be between 0 and " + (data.size() - 1));
+    }
+    this.data = data;
+    this.ranks = ranks;
+  }
+
+  @Override
+  public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+
+    return builder.seq(LeakyPartition.shuffle(data))
+        .seq((seq, rows) -> DRes.of(new State(List.of(new Segment(rows, 0))))).whileLoop(state -> !state.segments.isEmpty(), (seq, state) -> seq.seq(
+            LeakyPartition.partition(state.segments.stream().map(segment -> segment.rows)
+                .collect(Collectors.toList()), Pair::getSecond)).seq((sub, partitions) -> {
+          State next = new State(new ArrayList<>());
+          next.selected.putAll(state.selected);
+          for (int j = 0; j < state.segments.size(); j++) {
+            Segment segment = state.segments.get(j);
+            List<Pair<DRes<SInt>, DRes<SInt>>> smaller = partitions.get(j).getFirst();
+            List<Pair<DRes<SInt>, DRes<SInt>>> larger = partitions.get(j).getSecond();
+            int pivotRank = segment.offset + smaller.size();
+            next.addSegment(new Segment(smaller, segment.offset));
+            next.addSegment(new Segment(List.of(segment.rows.get(0)), pivotRank));
+            next.addSegment(new Segment(larger, pivotRank + 1));
+          }
+          return DRes.of(next);
+
+        })).seq((seq, state) -> DRes.of(Arrays.stream(ranks).mapToObj(state.selected::get)
+            .collect(Collectors.toList())));
+  }
+
+  private class State {
+
+    private final List<Segment> segments;
+    private final Map<Integer, DRes<SInt>> selected;
+
+    private State(List<Segment> segments) {
+      this.segments = new ArrayList<>(segments);
+      this.selected = new HashMap<>();
+    }
+
+    /**
+     * Add a segment to this state. Segments of size one are selected if the rank is requested, and
+     * larger segments are only kept if they contain any of the requested ranks.
+     */
+    private void addSegment(Segment segment) {
+      if (Arrays.stream(ranks).noneMatch(segment::contains)) {
+        return;
+      }
+      if (segment.rows.size() == 1) {
+        selected.put(segment.offset, segment.rows.get(0).getFirst());
+      } else {
+        segments.add(segment);
+      }
+    }
+  }
+
+  /**
+   * A consecutive part of the sorted list. The rows are pairs of values and distinct keys, and the
+   * offset is the rank of the smallest element in the segment.
+   */
+  private static class Segment {
+
+    private final List<Pair<DRes<SInt>, DRes<SInt>>> rows;
+    private final int offset;
+
+    private Segment(List<Pair<DRes<SInt>, DRes<SInt>>> rows, int offset) {
+      this.rows = rows;
+      this.offset = offset;
+    }
+
+    private boolean contains(int rank) {
+      return rank >= offset && rank < offset + rows.size();
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package dk.alexandra.fresco.stat.descriptive.sort;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Collections;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import dk.alexandra.fresco.stat.utils.Shuffle;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A permutation of a list which is not known to any party. A permutation is represented as an
+ * oblivious {@link Shuffle}, where each party permutes the list with a random permutation known only to
+ * them, followed by a public permutation.
+ * <p>
+ * The permutation which sorts a list of keys may be computed using {@link #sorting(List)}, and it
+ * may then be applied to any number of columns of the same size. This is cheaper than sorting with
+ * the columns as payload, since each sorting network compare-and-swap has to swap all payload
+ * columns, whereas applying the permutation to a column only costs one permutation network per
+ * party. The order of the shuffled keys may be computed using any {@link SortingAlgorithm}.
+ */
+public class SecretPermutation {
+
+  private final int size;
+  private final int[] localPermutation;
+  private final int[] publicPermutation;
+
+  private SecretPermutation(int size, int[] localPermutation, int[] publicPermutation) {
+    this.size = size;
+    this.localPermutation = localPermutation;
+    this.publicPermutation = publicPermutation;
+  }
+
+  /**
+   * Compute the permutation which sorts the given keys in ascending order using a sorting network.
+   * The sorting is stable, so equal keys keep their relative order.
+   *
+   * @see #sorting(List, SortingAlgorithm)
+   */
+  public static Computation<SecretPermutation, ProtocolBuilderNumeric> sorting(
+      List<DRes<SInt>> keys) {
+    return sorting(keys, SortingAlgorithm.SORTING_NETWORK);
+  }
+
+  /**
+   * Compute the permutation which sorts the given keys in ascending order using the given
+   * algorithm. The sorting is stable, so equal keys keep their relative order.
+   * <p>
+   * The keys are made distinct by appending their index as the least significant bits and shuffled
+   * obliviously, after which the order of the shuffled keys is computed. Since the keys are distinct
+   * and the shuffle is uniformly random, this order can be made public without leaking anything
+   * about the keys. All keys must be smaller than <i>2<sup>l - b - 2</sup></i> in absolute value
+   * where <i>l</i> is the maximum bit length and <i>b</i> is the bit length of the number of keys.
+   */
+  public static Computation<SecretPermutation, ProtocolBuilderNumeric> sorting(
+      List<DRes<SInt>> keys, SortingAlgorithm algorithm) {
+    return builder -> {
+      int n = keys.size();
+      if (n < 2) {
+        return DRes.of(new SecretPermutation(n, null, IntStream.range(0, n).toArray()));
+      }
+
+      int indexBits = Integer.SIZE - Integer.numberOfLeadingZeros(n - 1);
+      int[] localPermutation = Shuffle.randomPermutation(n);
+
+      return builder.par(par -> {
+        List<DRes<SInt>> distinctKeys = IntStream.range(0, n).mapToObj(i -> par.numeric()
+            .add(i, par.numeric().mult(BigInteger.ONE.shiftLeft(indexBits), keys.get(i))))
+            .collect(Collectors.toList());
+        return DRes.of(distinctKeys);
+      }).seq((seq, distinctKeys) -> seq.seq(new Shuffle(
+          MatrixUtils.buildMatrix(n, 1, (i, j) -> distinctKeys.get(i)), localPermutation)))
+          .seq((seq, shuffled) -> seq.seq(ascendingOrder(shuffled.getColumn(0), algorithm)))
+          .seq((seq, order) -> DRes.of(new SecretPermutation(n, localPermutation,
+              order.stream().mapToInt(Integer::intValue).toArray())));
+    };
+  }
+
+  /**
+   * Compute the indices of a list of distinct and shuffled keys in ascending order. The result is
+   * public.
+   */
+  private static Computation<List<Integer>, ProtocolBuilderNumeric> ascendingOrder(
+      List<DRes<SInt>> keys, SortingAlgorithm algorithm) {
+    if (algorithm == SortingAlgorithm.SHUFFLE_AND_COMPARE) {
+      return new LeakyQuickSort(keys);
+    } else if (algorithm == SortingAlgorithm.SORTING_NETWORK) {
+      // Sort with the index in the shuffled list as payload and open the sorted payload
+      return builder -> builder.seq(seq -> {
+        List<Pair<DRes<SInt>, List<DRes<SInt>>>> rows = IntStream.range(0, keys.size())
+            .mapToObj(i -> new Pair<>(keys.get(i), List.of(seq.numeric().known(i))))
+            .collect(Collectors.toList());
+        return Collections.using(seq).sort(rows);
+      }).par((par, sorted) -> DRes.of(VectorUtils.open(sorted.stream()
+          .map(row -> row.getSecond().get(0)).collect(Collectors.toList()), par)))
+          .seq((seq, indices) -> {
+            // The sorting network sorts in descending order
+            List<Integer> order = new ArrayList<>();
+            for (int k = indices.size() - 1; k >= 0; k--) {
+              order.add(indices.get(k).out().intValueExact());
+            }
+            return DRes.of(order);
+          });
+    } else {
+      throw new IllegalArgumentException("Unknown sorting algorithm " + algorithm);
+    }
+  }
+
+  /** The size of the lists this permutation may be applied to. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Return the permutation which permutes a list as this one and then reverses it. This is free.
+   */
+  public SecretPermutation reverse() {
+    int[] reversed = IntStream.range(0, size).map(k -> publicPermutation[size - 1 - k])
+        .toArray();
+    return new SecretPermutation(size, localPermutation, reversed);
+  }
+
+  /**
+   * Apply this permutation to a list of values.
+   */
+  public Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> apply(List<DRes<SInt>> values) {
+    return builder -> builder
+        .seq(apply(MatrixUtils.buildMatrix(values.size(), 1, (i, j) -> values.get(i))))
+        .seq((seq, permuted) -> DRes.of(permuted.getColumn(0)));
+  }
+
+  /**
+   * Apply this permutation to the rows of a matrix. All columns are permuted together, so this is
+   * cheaper than applying the permutation to each column separately.
+   */
+  public Computation<Matrix<DRes<SInt>>, ProtocolBuilderNumeric> apply(
+      Matrix<DRes<SInt>> values) {
+    if (values.getHeight() != size) {
+      throw new IllegalArgumentException(
+          "Expected " + size + " rows but got " + values.getHeight());
+    }
+    return builder -> {
+      if (size < 2) {
+        return DRes.of(values);
+      }
+      int width = values.getWidth();
+      return builder.seq(new Shuffle(values, localPermutation))
+          .seq((seq, shuffled) -> DRes.of(MatrixUtils.buildMatrix(size, width,
+              (i, j) -> shuffled.getRow(publicPermutation[i]).get(j))));
+    };
+  }
+}
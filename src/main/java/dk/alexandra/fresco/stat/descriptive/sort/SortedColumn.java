@@ -0,0 +1,88 @@
+package dk.alexandra.fresco.stat.descriptive.sort;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A column of secret values which has been sorted once, so the sorted values can be reused by
+ * several computations, eg. the median, quantiles and ranks of the same column. The permutation
+ * which sorts the column is also kept, so it may be applied to other columns of the same size.
+ */
+public class SortedColumn {
+
+  private final List<DRes<SInt>> sorted;
+  private final SecretPermutation permutation;
+
+  private SortedColumn(List<DRes<SInt>> sorted, SecretPermutation permutation) {
+    this.sorted = sorted;
+    this.permutation = permutation;
+  }
+
+  /**
+   * Sort a column of integers in ascending order using a sorting network. See {@link
+   * SecretPermutation#sorting(List, SortingAlgorithm)} for the range of the values.
+   */
+  public static Computation<SortedColumn, ProtocolBuilderNumeric> sort(List<DRes<SInt>> values) {
+    return sort(values, SortingAlgorithm.SORTING_NETWORK);
+  }
+
+  /**
+   * Sort a column of integers in ascending order using the given algorithm. See {@link
+   * SecretPermutation#sorting(List, SortingAlgorithm)} for the range of the values.
+   */
+  public static Computation<SortedColumn, ProtocolBuilderNumeric> sort(List<DRes<SInt>> values,
+      SortingAlgorithm algorithm) {
+    return builder -> builder.seq(SecretPermutation.sorting(values, algorithm))
+        .seq((seq, permutation) -> {
+          DRes<List<DRes<SInt>>> sorted = seq.seq(permutation.apply(values));
+          return () -> new SortedColumn(sorted.out(), permutation);
+        });
+  }
+
+  /**
+   * Sort a column of fixed point numbers in ascending order using a sorting network.
+   */
+  public static Computation<SortedColumn, ProtocolBuilderNumeric> sortFixed(
+      List<DRes<SFixed>> values) {
+    return sortFixed(values, SortingAlgorithm.SORTING_NETWORK);
+  }
+
+  /**
+   * Sort a column of fixed point numbers in ascending order using the given algorithm.
+   */
+  public static Computation<SortedColumn, ProtocolBuilderNumeric> sortFixed(
+      List<DRes<SFixed>> values, SortingAlgorithm algorithm) {
+    return builder -> builder.seq(seq -> sort(values.stream().map(x -> x.out().getSInt())
+        .collect(Collectors.toList()), algorithm).buildComputation(seq));
+  }
+
+  /** The number of values in this column. */
+  public int size() {
+    return sorted.size();
+  }
+
+  /** The value with the given rank. The smallest value has rank 0. */
+  public DRes<SInt> get(int rank) {
+    return sorted.get(rank);
+  }
+
+  /** The value with the given rank as a fixed point number. The smallest value has rank 0. */
+  public DRes<SFixed> getFixed(int rank) {
+    return new SFixed(sorted.get(rank));
+  }
+
+  /** The values of this column in ascending order. */
+  public List<DRes<SInt>> getSorted() {
+    return sorted;
+  }
+
+  /** The permutation which sorts this column. */
+  public SecretPermutation getPermutation() {
+    return permutation;
+  }
+}
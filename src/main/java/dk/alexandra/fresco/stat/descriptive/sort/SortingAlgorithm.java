@@ -0,0 +1,22 @@
+package dk.alexandra.fresco.stat.descriptive.sort;
+
+/**
+ * Algorithms for computing the permutation which sorts a list of secret values.
+ */
+public enum SortingAlgorithm {
+
+  /**
+   * Sort using the odd-even merge sorting network from FRESCO. This requires <i>O(n
+   * log<sup>2</sup> n)</i> comparisons in <i>O(log<sup>2</sup> n)</i> rounds.
+   */
+  SORTING_NETWORK,
+
+  /**
+   * Shuffle the list obliviously and sort it using {@link LeakyQuickSort}, which opens the results
+   * of the comparisons. This requires an expected <i>O(n log n)</i> comparisons in <i>O(log n)</i>
+   * rounds, and since the shuffled order is uniformly random, the opened comparisons reveal nothing
+   * about the data.
+   */
+  SHUFFLE_AND_COMPARE
+
+}
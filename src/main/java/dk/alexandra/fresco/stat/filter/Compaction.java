@@ -0,0 +1,114 @@
+package dk.alexandra.fresco.stat.filter;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import dk.alexandra.fresco.stat.utils.Shuffle;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Obliviously move the rows of a table selected by a secret indicator, eg. as computed by a {@link
+ * Filter}, to the front and keep only the first <i>m</i> rows for a public bound <i>m</i>, so
+ * later computations only have to process <i>m</i> rather than all <i>n</i> rows.
+ * <p>
+ * The destination of each row is computed from the prefix sums of the indicator such that the
+ * selected rows keep their relative order and are followed by the unselected rows. This costs one
+ * multiplication per row. The rows are then shuffled together with their destinations, and since
+ * the destinations are a permutation of <i>0, ..., n-1</i> and the shuffle is uniformly random,
+ * the shuffled destinations can be opened and used to place the rows without leaking anything. In
+ * total this costs one {@link Shuffle} of the table and no comparisons, which is much cheaper than
+ * sorting by the indicator.
+ * <p>
+ * The output is the compacted table with <i>m</i> rows along with an indicator of which of these
+ * rows were selected. If more than <i>m</i> rows are selected, only the first <i>m</i> selected
+ * rows are kept.
+ */
+public class Compaction implements
+    Computation<Pair<Matrix<DRes<SInt>>, List<DRes<SInt>>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SInt>> data;
+  private final List<DRes<SInt>> indicator;
+  private final int bound;
+
+  /**
+   * Compact a table.
+   *
+   * @param data      The table.
+   * @param indicator A secret 0-1-vector indicating which rows are selected.
+   * @param bound     The public number of rows of the output.
+   */
+  public Compaction(Matrix<DRes<SInt>> data, List<DRes<SInt>> indicator, int bound) {
+    if (data.getHeight() != indicator.size()) {
+      throw new IllegalArgumentException("There must be exactly one indicator per row");
+    }
+    if (data.getHeight() == 0) {
+      throw new IllegalArgumentException("At least one row is needed");
+    }
+    if (bound < 0 || bound > data.getHeight()) {
+      throw new IllegalArgumentException(
+          "The bound must be between 0 and " + data.getHeight() + " but was " + bound);
+    }
+    this.data = data;
+    this.indicator = indicator;
+    this.bound = bound;
+  }
+
+  @Override
+  public DRes<Pair<Matrix<DRes<SInt>>, List<DRes<SInt>>>> buildComputation(
+      ProtocolBuilderNumeric builder) {
+    int n = data.getHeight();
+    int width = data.getWidth();
+
+    return builder.seq(seq -> {
+
+      // Number of selected rows up to and including each row
+      List<DRes<SInt>> selectedBefore = new ArrayList<>();
+      selectedBefore.add(indicator.get(0));
+      for (int i = 1; i < n; i++) {
+        selectedBefore.add(seq.numeric().add(selectedBefore.get(i - 1), indicator.get(i)));
+      }
+      return DRes.of(selectedBefore);
+
+    }).par((par, selectedBefore) -> {
+
+      // A selected row i goes to position P[i] - 1 and an unselected row goes to position
+      // C + i - P[i] where P are the prefix sums and C is the number of selected rows
+      DRes<SInt> count = selectedBefore.get(n - 1);
+      List<DRes<SInt>> destinations = VectorUtils.listBuilder(n, i -> par.seq(seq -> {
+        DRes<SInt> unselected = seq.numeric()
+            .sub(seq.numeric().add(i, count), selectedBefore.get(i));
+        DRes<SInt> selected = seq.numeric().sub(selectedBefore.get(i), BigInteger.ONE);
+        return seq.numeric().add(unselected, seq.numeric()
+            .mult(indicator.get(i), seq.numeric().sub(selected, unselected)));
+      }));
+      return DRes.of(destinations);
+
+    }).seq((seq, destinations) -> seq.seq(new Shuffle(MatrixUtils.buildMatrix(n, width + 2,
+        (i, j) -> j < width ? data.getRow(i).get(j)
+            : j == width ? indicator.get(i) : destinations.get(i)))))
+        .par((par, shuffled) -> {
+          List<DRes<BigInteger>> destinations = VectorUtils.open(shuffled.getColumn(width + 1),
+              par);
+          return Pair.lazy(shuffled, destinations);
+        }).seq((seq, shuffledAndDestinations) -> {
+          Matrix<DRes<SInt>> shuffled = shuffledAndDestinations.getFirst();
+          List<DRes<BigInteger>> destinations = shuffledAndDestinations.getSecond();
+          int[] source = new int[n];
+          for (int i = 0; i < n; i++) {
+            source[destinations.get(i).out().intValueExact()] = i;
+          }
+          Matrix<DRes<SInt>> compacted = MatrixUtils.buildMatrix(bound, width,
+              (i, j) -> shuffled.getRow(source[i]).get(j));
+          List<DRes<SInt>> selected = VectorUtils.listBuilder(bound,
+              i -> shuffled.getRow(source[i]).get(width));
+          return DRes.of(new Pair<>(compacted, selected));
+        });
+  }
+}
@@ -0,0 +1,116 @@
+package dk.alexandra.fresco.stat.filter;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.compare.Comparison;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A secret predicate on the rows of a dataset, eg. "age &gt; 40 and sex = 1". Evaluating a filter
+ * gives an indicator column which is one for the rows satisfying the predicate and zero otherwise,
+ * so neither the predicate values nor the number of selected rows are revealed.
+ * <p>
+ * Filters are built from comparisons of a column with a public value and combined using {@link
+ * #and}, {@link #or} and {@link #not}, so several predicates are fused into a single indicator
+ * column which may then be passed to the filtered statistics, eg. {@link
+ * dk.alexandra.fresco.stat.Statistics#sampleMean(List, List)}. The comparisons of the combined
+ * predicates are evaluated in parallel.
+ */
+public class Filter implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final int size;
+  private final Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> indicator;
+
+  private Filter(int size, Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> indicator) {
+    this.size = size;
+    this.indicator = indicator;
+  }
+
+  /** A filter selecting the rows where the given indicator column is one. */
+  public static Filter of(List<DRes<SInt>> indicator) {
+    return new Filter(indicator.size(), builder -> DRes.of(indicator));
+  }
+
+  /** A filter selecting the rows where the value of the column is equal to the given value. */
+  public static Filter equalTo(List<DRes<SInt>> column, int value) {
+    return new Filter(column.size(), builder -> builder.par(par -> {
+      List<DRes<SInt>> result = VectorUtils.listBuilder(column.size(), i -> par.seq(seq ->
+          Comparison.using(seq).equals(column.get(i), seq.numeric().known(value))));
+      return DRes.of(result);
+    }));
+  }
+
+  /**
+   * A filter selecting the rows where the value of the column is smaller than or equal to the given
+   * value.
+   */
+  public static Filter lessThanOrEqual(List<DRes<SFixed>> column, double value) {
+    return new Filter(column.size(), builder -> builder.par(par -> {
+      List<DRes<SInt>> result = VectorUtils.listBuilder(column.size(), i -> par.seq(seq -> {
+        FixedNumeric fixedNumeric = FixedNumeric.using(seq);
+        return fixedNumeric.leq(column.get(i), fixedNumeric.known(value));
+      }));
+      return DRes.of(result);
+    }));
+  }
+
+  /** A filter selecting the rows where the value of the column is greater than the given value. */
+  public static Filter greaterThan(List<DRes<SFixed>> column, double value) {
+    return lessThanOrEqual(column, value).not();
+  }
+
+  /** A filter selecting the rows selected by both this and the other filter. */
+  public Filter and(Filter other) {
+    return combine(other, (a, b, builder) -> builder.numeric().mult(a, b));
+  }
+
+  /** A filter selecting the rows selected by this or the other filter. */
+  public Filter or(Filter other) {
+    return combine(other, (a, b, builder) -> builder.seq(seq -> seq.numeric()
+        .sub(seq.numeric().add(a, b), seq.numeric().mult(a, b))));
+  }
+
+  /** A filter selecting the rows not selected by this filter. */
+  public Filter not() {
+    return new Filter(size, builder -> builder.seq(indicator)
+        .par((par, selected) -> DRes.of(VectorUtils.negate(selected, par))));
+  }
+
+  /** The number of rows this filter applies to. */
+  public int size() {
+    return size;
+  }
+
+  private Filter combine(Filter other,
+      VectorUtils.EntrywiseBinaryOp<DRes<SInt>, DRes<SInt>, DRes<SInt>> op) {
+    if (other.size != size) {
+      throw new IllegalArgumentException(
+          "Filters must have the same size but were " + size + " and " + other.size);
+    }
+    return new Filter(size, builder -> builder.par(par -> {
+      DRes<List<DRes<SInt>>> first = par.seq(indicator);
+      DRes<List<DRes<SInt>>> second = par.seq(other.indicator);
+      return Pair.lazy(first, second);
+    }).par((par, indicators) -> {
+      List<DRes<SInt>> first = indicators.getFirst().out();
+      List<DRes<SInt>> second = indicators.getSecond().out();
+      List<DRes<SInt>> result = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        result.add(op.apply(first.get(i), second.get(i), par));
+      }
+      return DRes.of(result);
+    }));
+  }
+
+  @Override
+  public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    return builder.seq(indicator);
+  }
+}
@@ -3,12 +3,16 @@ package dk.alexandra.fresco.stat.linearalgebra;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
-import dk.alexandra.fresco.lib.fixed.FixedLinearAlgebra;
-import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.mlp.Layer;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /** Apply an affine map to a vector */
 public class AffineMap implements
@@ -30,17 +34,24 @@ public class AffineMap implements
 
   @Override
   public DRes<ArrayList<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric root) {
-    return root.seq(seq -> {
-      FixedLinearAlgebra linearAlgebra = FixedLinearAlgebra.using(seq);
-      return linearAlgebra.vectorMult(DRes.of(weights), DRes.of(input));
-    }).par((par, activated) -> {
-      ArrayList<DRes<SFixed>> output = new ArrayList<>();
-      FixedNumeric fixedNumeric = FixedNumeric.using(par);
-      for (int i = 0; i < activated.size(); i++) {
-        output.add(fixedNumeric.add(activated.get(i), bias.get(i)));
-      }
-      return DRes.of(output);
+    return root.par(par -> {
+      List<DRes<SInt>> x = unscaled(input);
+      return DRes.of(VectorUtils.listBuilder(weights.getHeight(), i -> par.seq(seq -> {
+        // The inner product has twice the precision, so the bias is scaled up and added before
+        // the result is truncated
+        int precision = seq.getBasicNumericContext().getDefaultFixedPointPrecision();
+        AdvancedNumeric advancedNumeric = AdvancedNumeric.using(seq);
+        DRes<SInt> innerProduct = seq.numeric().add(
+            advancedNumeric.innerProduct(unscaled(weights.getRow(i)), x),
+            seq.numeric().mult(BigInteger.ONE.shiftLeft(precision),
+                bias.get(i).out().getSInt()));
+        return new SFixed(advancedNumeric.truncate(innerProduct, precision));
+      })));
     });
   }
 
+  private static List<DRes<SInt>> unscaled(List<DRes<SFixed>> vector) {
+    return vector.stream().map(x -> x.out().getSInt()).collect(Collectors.toList());
+  }
+
 }
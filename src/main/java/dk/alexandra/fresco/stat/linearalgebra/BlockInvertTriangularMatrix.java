@@ -0,0 +1,84 @@
+package dk.alexandra.fresco.stat.linearalgebra;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.AdvancedLinearAlgebra;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+
+/**
+ * Invert a lower triangular matrix with positive diagonal using recursive block inversion.
+ * <p>
+ * Writing <i>L</i> as a 2x2 block matrix with diagonal blocks <i>A</i> and <i>D</i> and lower left
+ * block <i>C</i>, the inverse has diagonal blocks <i>A<sup>-1</sup></i> and <i>D<sup>-1</sup></i>
+ * and lower left block <i>-D<sup>-1</sup>CA<sup>-1</sup></i>. The diagonal blocks are inverted
+ * recursively in parallel, so the round complexity is logarithmic in the size of the matrix
+ * compared to linear for {@link InvertTriangularMatrix}, at the cost of more multiplications.
+ */
+public class BlockInvertTriangularMatrix implements
+    Computation<Matrix<DRes<SFixed>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SFixed>> l;
+
+  public BlockInvertTriangularMatrix(Matrix<DRes<SFixed>> l) {
+    assert (l.getHeight() == l.getWidth());
+    assert (l.getHeight() >= 1);
+    this.l = l;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric builder) {
+    int n = l.getHeight();
+
+    if (n == 1) {
+      return builder.seq(seq -> {
+        DRes<SFixed> inverse = AdvancedFixedNumeric.using(seq).reciprocal(l.getRow(0).get(0));
+        return DRes.of(MatrixUtils.buildMatrix(1, 1, (i, j) -> inverse));
+      });
+    }
+
+    int h = n / 2;
+    Matrix<DRes<SFixed>> a = MatrixUtils.subMatrix(l, 0, h, 0, h);
+    Matrix<DRes<SFixed>> c = MatrixUtils.subMatrix(l, h, n, 0, h);
+    Matrix<DRes<SFixed>> d = MatrixUtils.subMatrix(l, h, n, h, n);
+
+    return builder.par(par -> {
+      State state = new State();
+      state.aInverse = new BlockInvertTriangularMatrix(a).buildComputation(par);
+      state.dInverse = new BlockInvertTriangularMatrix(d).buildComputation(par);
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      state.product = AdvancedLinearAlgebra.using(seq).mult(c, state.aInverse.out());
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      state.product = AdvancedLinearAlgebra.using(seq)
+          .mult(state.dInverse.out(), state.product.out());
+      return DRes.of(state);
+    }).par((par, state) -> {
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      Matrix<DRes<SFixed>> aInverse = state.aInverse.out();
+      Matrix<DRes<SFixed>> dInverse = state.dInverse.out();
+      Matrix<DRes<SFixed>> product = state.product.out();
+      return DRes.of(MatrixUtils.buildMatrix(n, n, (i, j) -> {
+        if (i < h) {
+          return j < h ? aInverse.getRow(i).get(j) : fixedNumeric.known(0);
+        } else {
+          return j < h ? fixedNumeric.sub(0, product.getRow(i - h).get(j))
+              : dInverse.getRow(i - h).get(j - h);
+        }
+      }));
+    });
+  }
+
+  /**
+   * Data class to keep values used through out the computations
+   */
+  private static class State {
+
+    private DRes<Matrix<DRes<SFixed>>> aInverse, dInverse, product;
+  }
+}
@@ -0,0 +1,91 @@
+package dk.alexandra.fresco.stat.linearalgebra;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compute the Cholesky decomposition of a symmetric positive definite <i>nxn</i>-matrix A, eg. a
+ * lower triangular matrix <i>L</i> with positive diagonal such that <i>A = LL<sup>T</sup></i>.
+ * <p>
+ * The columns of <i>L</i> are computed one at a time. Each column requires a square root and a
+ * reciprocal of the diagonal entry while the remaining entries of the column are computed in
+ * parallel.
+ */
+public class CholeskyDecomposition implements
+    Computation<Matrix<DRes<SFixed>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SFixed>> a;
+
+  public CholeskyDecomposition(Matrix<DRes<SFixed>> a) {
+    assert (a.getHeight() == a.getWidth());
+    this.a = a;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric builder) {
+    int n = a.getHeight();
+
+    // The j'th column contains the entries of L on or below the diagonal, eg. L[j..n-1][j]
+    return builder.seq(seq -> DRes.of(new ArrayList<List<DRes<SFixed>>>()))
+        .whileLoop(columns -> columns.size() < n, (seq, columns) -> {
+
+          // We add one column per step, so the iteration count is the number of columns so far
+          int j = columns.size();
+
+          return seq.par(par -> {
+            // The entries of row i of L computed so far, eg. L[i][0..j-1]
+            List<List<DRes<SFixed>>> rows = VectorUtils.listBuilder(n - j,
+                i -> VectorUtils.listBuilder(j, k -> columns.get(k).get(i + j - k)));
+
+            DRes<Pair<DRes<SFixed>, DRes<SFixed>>> diagonal = par.seq(sub -> {
+              DRes<SFixed> d = reduce(a.getRow(j).get(j), rows.get(0), rows.get(0), sub);
+              return AdvancedFixedNumeric.using(sub).sqrt(d);
+            }).seq((sub, l) -> {
+              DRes<SFixed> reciprocal = AdvancedFixedNumeric.using(sub).reciprocal(l);
+              return Pair.lazy(l, reciprocal);
+            });
+
+            List<DRes<SFixed>> numerators = VectorUtils.listBuilder(n - j - 1, i -> par.seq(
+                sub -> reduce(a.getRow(i + j + 1).get(j), rows.get(i + 1), rows.get(0), sub)));
+
+            return Pair.lazy(diagonal, numerators);
+          }).par((par, diagonalAndNumerators) -> {
+            Pair<DRes<SFixed>, DRes<SFixed>> diagonal = diagonalAndNumerators.getFirst().out();
+            FixedNumeric fixedNumeric = FixedNumeric.using(par);
+            List<DRes<SFixed>> column = new ArrayList<>();
+            column.add(diagonal.getFirst());
+            for (DRes<SFixed> numerator : diagonalAndNumerators.getSecond()) {
+              column.add(fixedNumeric.mult(numerator, diagonal.getSecond()));
+            }
+
+            ArrayList<List<DRes<SFixed>>> newColumns = new ArrayList<>(columns);
+            newColumns.add(column);
+            return DRes.of(newColumns);
+          });
+        }).par((par, columns) -> {
+          FixedNumeric fixedNumeric = FixedNumeric.using(par);
+          return DRes.of(MatrixUtils.buildMatrix(n, n,
+              (i, j) -> i < j ? fixedNumeric.known(0) : columns.get(j).get(i - j)));
+        });
+  }
+
+  /** Compute <i>x - &lt;u, v&gt;</i>. */
+  private static DRes<SFixed> reduce(DRes<SFixed> x, List<DRes<SFixed>> u,
+      List<DRes<SFixed>> v, ProtocolBuilderNumeric builder) {
+    if (u.isEmpty()) {
+      return x;
+    }
+    return FixedNumeric.using(builder)
+        .sub(x, AdvancedFixedNumeric.using(builder).innerProduct(u, v));
+  }
+}
@@ -4,13 +4,14 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
-import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
-/** Compute the discrete convolution of two vectors */
+/**
+ * Compute the discrete convolution of two vectors. Each entry is computed as a single inner product
+ * which is truncated only once.
+ */
 public class Convolution implements Computation<ArrayList<DRes<SFixed>>, ProtocolBuilderNumeric> {
 
   private final ArrayList<DRes<SFixed>> a, b;
@@ -27,19 +28,18 @@ public class Convolution implements Computation<ArrayList<DRes<SFixed>>, Protoco
     int n = b.size();
 
     return root.par(par -> {
-      FixedNumeric fixedNumeric = FixedNumeric.using(par);
-      List<List<DRes<SFixed>>> products = new ArrayList<>();
+      AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(par);
+      ArrayList<DRes<SFixed>> result = new ArrayList<>();
       for (int k = 1; k < m + n; k++) {
-        List<DRes<SFixed>> pk = new ArrayList<>();
+        List<DRes<SFixed>> ak = new ArrayList<>();
+        List<DRes<SFixed>> bk = new ArrayList<>();
         for (int u = Math.max(0, k - n); u < Math.min(k, m); u++) {
-          pk.add(fixedNumeric.mult(a.get(u), b.get(k - u - 1)));
+          ak.add(a.get(u));
+          bk.add(b.get(k - u - 1));
         }
-        products.add(pk);
+        result.add(advancedFixedNumeric.innerProduct(ak, bk));
       }
-      return DRes.of(products);
-    }).par((par, products) -> {
-      AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(par);
-      return DRes.of(products.stream().map(advancedFixedNumeric::sum).collect(Collectors.toCollection(ArrayList::new)));
+      return DRes.of(result);
     });
   }
 }
@@ -0,0 +1,185 @@
+package dk.alexandra.fresco.stat.linearalgebra;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compute the QR-decomposition of an <i>mxn</i>-matrix A with <i>m &ge; n</i> and full column rank
+ * using Householder reflections. The output is as for {@link QRDecomposition}.
+ * <p>
+ * The <i>k</i>'th column is reduced by a reflection <i>H<sub>k</sub> = I - &beta;
+ * vv<sup>T</sup></i> which requires a square root followed by a reciprocal, and the reflection is
+ * then applied to all remaining columns in a single parallel layer. <i>Q</i> is accumulated
+ * afterwards by applying the reflections in reverse order to the first <i>n</i> columns of the
+ * identity matrix. Finally, the signs of the rows of <i>R</i> and columns of <i>Q</i> are flipped
+ * such that <i>R</i> has a positive diagonal as expected by eg. {@link InvertTriangularMatrix}.
+ * <p>
+ * The columns of <i>Q</i> are orthogonal by construction, so this is numerically more stable than
+ * Gram-Schmidt, but the square root and reciprocal for each column are computed one after the
+ * other and <i>Q</i> is accumulated in <i>n</i> further sequential steps, so it requires about
+ * twice as many rounds as {@link QRMethod#GRAM_SCHMIDT}.
+ */
+public class HouseholderQRDecomposition implements
+    Computation<Pair<Matrix<DRes<SFixed>>, Matrix<DRes<SFixed>>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SFixed>> a;
+
+  public HouseholderQRDecomposition(Matrix<DRes<SFixed>> a) {
+    assert (a.getHeight() >= a.getWidth());
+    this.a = a;
+  }
+
+  @Override
+  public DRes<Pair<Matrix<DRes<SFixed>>, Matrix<DRes<SFixed>>>> buildComputation(
+      ProtocolBuilderNumeric builder) {
+    int m = a.getHeight();
+    int n = a.getWidth();
+
+    return builder.seq(seq -> {
+      State state = new State();
+      state.columns = VectorUtils.listBuilder(n, a::getColumn);
+      return DRes.of(state);
+    }).whileLoop(state -> state.k < n, (seq, state) -> {
+      int k = state.k;
+      List<DRes<SFixed>> x = state.columns.get(k).subList(k, m);
+
+      return seq.par(par -> {
+        // The norm of x and whether the first entry is non-positive
+        DRes<Pair<DRes<SFixed>, DRes<SFixed>>> norm = par.seq(sub -> {
+          DRes<SFixed> normSquared = AdvancedFixedNumeric.using(sub).innerProduct(x, x);
+          return Pair.lazy(normSquared, AdvancedFixedNumeric.using(sub).sqrt(normSquared));
+        });
+        DRes<SInt> nonPositive = par.seq(sub -> {
+          FixedNumeric fixedNumeric = FixedNumeric.using(sub);
+          return fixedNumeric.leq(x.get(0), fixedNumeric.known(0));
+        });
+        return Pair.lazy(norm, nonPositive);
+      }).seq((sub, normAndSign) -> {
+        // alpha = -sign(x_0) ||x|| avoids cancellation in v_0 = x_0 - alpha
+        FixedNumeric fixedNumeric = FixedNumeric.using(sub);
+        Pair<DRes<SFixed>, DRes<SFixed>> norm = normAndSign.getFirst().out();
+        DRes<SInt> sign = sub.numeric()
+            .sub(sub.numeric().mult(2, normAndSign.getSecond().out()), 1);
+        DRes<SFixed> signFixed = fixedNumeric.fromSInt(sign);
+        state.normSquared = norm.getFirst();
+        state.alpha = fixedNumeric.mult(signFixed, norm.getSecond());
+        state.norms.add(norm.getSecond());
+        state.signs.add(signFixed);
+        state.v = new ArrayList<>(x);
+        state.v.set(0, fixedNumeric.sub(x.get(0), state.alpha));
+        return DRes.of(state);
+      }).par((par, s) -> {
+        // Since alpha^2 = ||x||^2, we have beta = 2 / v^T v = 1 / (||x||^2 - alpha x_0)
+        state.beta = par.seq(sub -> {
+          FixedNumeric fixedNumeric = FixedNumeric.using(sub);
+          return AdvancedFixedNumeric.using(sub).reciprocal(
+              fixedNumeric.sub(state.normSquared, fixedNumeric.mult(state.alpha, x.get(0))));
+        });
+        state.w = VectorUtils.listBuilder(n - k - 1, j -> AdvancedFixedNumeric.using(par)
+            .innerProduct(state.v, state.columns.get(k + j + 1).subList(k, m)));
+        return DRes.of(state);
+      }).par((par, s) -> {
+        FixedNumeric fixedNumeric = FixedNumeric.using(par);
+        state.u = VectorUtils.listBuilder(m - k,
+            i -> fixedNumeric.mult(state.beta, state.v.get(i)));
+        return DRes.of(state);
+      }).par((par, s) -> {
+        // Apply the reflection to the remaining columns
+        List<List<DRes<SFixed>>> columns = new ArrayList<>(state.columns);
+        for (int j = k + 1; j < n; j++) {
+          List<DRes<SFixed>> column = new ArrayList<>(state.columns.get(j));
+          DRes<SFixed> w = state.w.get(j - k - 1);
+          for (int i = k; i < m; i++) {
+            DRes<SFixed> entry = column.get(i);
+            DRes<SFixed> ui = state.u.get(i - k);
+            column.set(i, par.seq(sub -> FixedNumeric.using(sub)
+                .sub(entry, FixedNumeric.using(sub).mult(w, ui))));
+          }
+          columns.set(j, column);
+        }
+        state.columns = columns;
+        state.reflections.add(new Pair<>(state.v, state.u));
+        state.k++;
+        return DRes.of(state);
+      });
+    }).seq((seq, state) -> {
+      // Apply the reflections in reverse order to the first n columns of the identity
+      FixedNumeric fixedNumeric = FixedNumeric.using(seq);
+      List<List<DRes<SFixed>>> q = VectorUtils.listBuilder(n, j -> VectorUtils.listBuilder(m,
+          i -> fixedNumeric.known(i == j ? 1 : 0)));
+      state.q = q;
+      state.k = n;
+      return DRes.of(state);
+    }).whileLoop(state -> state.k > 0, (seq, state) -> {
+      int k = state.k - 1;
+      List<DRes<SFixed>> v = state.reflections.get(k).getFirst();
+      List<DRes<SFixed>> u = state.reflections.get(k).getSecond();
+
+      // Columns j < k of the partial product are zero from row k and are not affected
+      return seq.par(par -> {
+        state.w = VectorUtils.listBuilder(n - k, j -> AdvancedFixedNumeric.using(par)
+            .innerProduct(v, state.q.get(k + j).subList(k, m)));
+        return DRes.of(state);
+      }).par((par, s) -> {
+        List<List<DRes<SFixed>>> q = new ArrayList<>(state.q);
+        for (int j = k; j < n; j++) {
+          List<DRes<SFixed>> column = new ArrayList<>(state.q.get(j));
+          DRes<SFixed> w = state.w.get(j - k);
+          for (int i = k; i < m; i++) {
+            DRes<SFixed> entry = column.get(i);
+            DRes<SFixed> ui = u.get(i - k);
+            column.set(i, par.seq(sub -> FixedNumeric.using(sub)
+                .sub(entry, FixedNumeric.using(sub).mult(w, ui))));
+          }
+          q.set(j, column);
+        }
+        state.q = q;
+        state.k--;
+        return DRes.of(state);
+      });
+    }).par((par, state) -> {
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      // H_k maps the k'th column to sign_k ||x|| e_k, so we multiply the k'th row of R and the
+      // k'th column of Q by sign_k to get a positive diagonal
+      Matrix<DRes<SFixed>> q = MatrixUtils.buildMatrix(m, n,
+          (i, j) -> fixedNumeric.mult(state.signs.get(j), state.q.get(j).get(i)));
+      Matrix<DRes<SFixed>> r = MatrixUtils.buildMatrix(n, n, (i, j) -> {
+        if (i > j) {
+          return fixedNumeric.known(0);
+        } else if (i == j) {
+          return state.norms.get(i);
+        } else {
+          return fixedNumeric.mult(state.signs.get(i), state.columns.get(j).get(i));
+        }
+      });
+      return Pair.lazy(q, r);
+    });
+  }
+
+  /**
+   * Data class to keep values used through out the computations
+   */
+  private static class State {
+
+    private int k;
+    private List<List<DRes<SFixed>>> columns;
+    private List<List<DRes<SFixed>>> q;
+    private final List<DRes<SFixed>> norms = new ArrayList<>();
+    private final List<DRes<SFixed>> signs = new ArrayList<>();
+    private final List<Pair<List<DRes<SFixed>>, List<DRes<SFixed>>>> reflections =
+        new ArrayList<>();
+    private DRes<SFixed> normSquared, alpha, beta;
+    private List<DRes<SFixed>> v, u, w;
+  }
+}
@@ -0,0 +1,152 @@
+package dk.alexandra.fresco.stat.linearalgebra;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compute the discrete convolution of two vectors as {@link Convolution} but using Karatsuba's
+ * algorithm.
+ * <p>
+ * Additions are free, so splitting the vectors in halves and using that the middle part of the
+ * result may be computed from the product of the sums of the halves, the convolution of two vectors
+ * of length <i>n</i> requires only <i>O(n<sup>1.58</sup>)</i> secure multiplications instead of
+ * <i>n<sup>2</sup></i>. All multiplications are independent, so they may all be computed in
+ * parallel. If the vectors have different lengths, the longer vector is split into blocks of the
+ * same length as the shorter one, so the convolution of vectors of lengths <i>m &ge; n</i> requires
+ * <i>O(mn<sup>0.58</sup>)</i> multiplications.
+ * <p>
+ * The products are computed on the underlying integer representations and each entry in the
+ * output is truncated only once.
+ */
+public class KaratsubaConvolution implements
+    Computation<ArrayList<DRes<SFixed>>, ProtocolBuilderNumeric> {
+
+  private final ArrayList<DRes<SFixed>> a, b;
+
+  public KaratsubaConvolution(ArrayList<DRes<SFixed>> a, ArrayList<DRes<SFixed>> b) {
+    if (a.isEmpty() || b.isEmpty()) {
+      throw new IllegalArgumentException("Vectors must be non-empty");
+    }
+    this.a = a;
+    this.b = b;
+  }
+
+  @Override
+  public DRes<ArrayList<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric root) {
+    List<DRes<SFixed>> longer = a.size() >= b.size() ? a : b;
+    List<DRes<SFixed>> shorter = a.size() >= b.size() ? b : a;
+    int blockSize = shorter.size();
+    int blocks = (longer.size() + blockSize - 1) / blockSize;
+    int outputSize = a.size() + b.size() - 1;
+
+    return root.seq(seq -> {
+      // Split the longer vector into blocks and pad the last one with zeros
+      DRes<SInt> zero = seq.numeric().known(0);
+      List<List<DRes<SInt>>> longerBlocks = VectorUtils.listBuilder(blocks,
+          j -> VectorUtils.listBuilder(blockSize, i -> j * blockSize + i < longer.size()
+              ? longer.get(j * blockSize + i).out().getSInt() : zero));
+      List<DRes<SInt>> shorterRaw = shorter.stream().map(x -> x.out().getSInt())
+          .collect(Collectors.toList());
+      return seq.par(par -> DRes.of(longerBlocks.stream()
+          .map(block -> karatsuba(block, shorterRaw, par)).collect(Collectors.toList())));
+    }).par((par, products) -> {
+      // Overlap-add the partial results and truncate each entry once
+      int precision = par.getBasicNumericContext().getDefaultFixedPointPrecision();
+      ArrayList<DRes<SFixed>> result = VectorUtils.listBuilder(outputSize, t -> {
+        List<DRes<SInt>> terms = new ArrayList<>();
+        for (int j = 0; j < blocks; j++) {
+          int i = t - j * blockSize;
+          if (i >= 0 && i < 2 * blockSize - 1) {
+            terms.add(products.get(j).out().get(i));
+          }
+        }
+        return new SFixed(par.seq(sub -> AdvancedNumeric.using(sub)
+            .truncate(combine(terms, List.of(), sub), precision)));
+      });
+      return DRes.of(result);
+    });
+  }
+
+  /**
+   * Compute the convolution of two vectors of the same length using Karatsuba's algorithm. The
+   * output has length <i>2n-1</i>.
+   */
+  private static DRes<List<DRes<SInt>>> karatsuba(List<DRes<SInt>> x, List<DRes<SInt>> y,
+      ProtocolBuilderNumeric builder) {
+    int n = x.size();
+    if (n == 1) {
+      return builder.par(par -> DRes.of(List.of(par.numeric().mult(x.get(0), y.get(0)))));
+    }
+
+    int h = (n + 1) / 2;
+    List<DRes<SInt>> xLow = x.subList(0, h);
+    List<DRes<SInt>> xHigh = x.subList(h, n);
+    List<DRes<SInt>> yLow = y.subList(0, h);
+    List<DRes<SInt>> yHigh = y.subList(h, n);
+
+    return builder.par(par -> {
+      List<DRes<SInt>> xSum = VectorUtils.listBuilder(h,
+          i -> i < n - h ? par.numeric().add(xLow.get(i), xHigh.get(i)) : xLow.get(i));
+      List<DRes<SInt>> ySum = VectorUtils.listBuilder(h,
+          i -> i < n - h ? par.numeric().add(yLow.get(i), yHigh.get(i)) : yLow.get(i));
+      return () -> List.of(xSum, ySum);
+    }).par((par, sums) -> {
+      List<DRes<List<DRes<SInt>>>> z = List.of(
+          karatsuba(xLow, yLow, par),
+          karatsuba(sums.get(0), sums.get(1), par),
+          karatsuba(xHigh, yHigh, par));
+      return () -> z.stream().map(DRes::out).collect(Collectors.toList());
+    }).par((par, z) -> {
+      // x * y = z0 + (z1 - z0 - z2) X^h + z2 X^2h
+      List<DRes<SInt>> z0 = z.get(0);
+      List<DRes<SInt>> z1 = z.get(1);
+      List<DRes<SInt>> z2 = z.get(2);
+      List<DRes<SInt>> result = VectorUtils.listBuilder(2 * n - 1, i -> {
+        List<DRes<SInt>> positive = new ArrayList<>();
+        List<DRes<SInt>> negative = new ArrayList<>();
+        if (i < z0.size()) {
+          positive.add(z0.get(i));
+        }
+        int j = i - h;
+        if (j >= 0 && j < z1.size()) {
+          positive.add(z1.get(j));
+          negative.add(z0.get(j));
+          if (j < z2.size()) {
+            negative.add(z2.get(j));
+          }
+        }
+        if (i - 2 * h >= 0) {
+          positive.add(z2.get(i - 2 * h));
+        }
+        return par.seq(sub -> combine(positive, negative, sub));
+      });
+      return DRes.of(result);
+    });
+  }
+
+  /**
+   * Compute the sum of the positive terms minus the sum of the negative terms. There must be at
+   * least one positive term.
+   */
+  private static DRes<SInt> combine(List<DRes<SInt>> positive, List<DRes<SInt>> negative,
+      ProtocolBuilderNumeric builder) {
+    Numeric numeric = builder.numeric();
+    DRes<SInt> result = positive.get(0);
+    for (DRes<SInt> term : positive.subList(1, positive.size())) {
+      result = numeric.add(result, term);
+    }
+    for (DRes<SInt> term : negative) {
+      result = numeric.sub(result, term);
+    }
+    return result;
+  }
+}
@@ -15,6 +15,9 @@ import java.util.ArrayList;
  * <i>mxn</i>-matrix and <i>b</i> is an <i>n</i>-dimensional vector. If a system is overdetermined
  * (m &ge; n), the computation will find the <i>x</i> minimising &#x7c;&#x7c;<i>Ax -
  * b</i>&#x7c;&#x7c;.
+ * <p>
+ * The system is solved using the method given by a {@link LinearSolver}, which is {@link
+ * LinearSolver#QR} by default.
  */
 public class LinearInverseProblem implements
     Computation<ArrayList<DRes<SFixed>>, ProtocolBuilderNumeric> {
@@ -22,15 +25,26 @@ public class LinearInverseProblem implements
   private final Matrix<DRes<SFixed>> a;
   private final ArrayList<DRes<SFixed>> b;
   private final boolean overDetermined;
+  private final LinearSolver solver;
 
   public LinearInverseProblem(Matrix<DRes<SFixed>> a, ArrayList<DRes<SFixed>> b) {
+    this(a, b, LinearSolver.QR);
+  }
+
+  public LinearInverseProblem(Matrix<DRes<SFixed>> a, ArrayList<DRes<SFixed>> b,
+      LinearSolver solver) {
     overDetermined = a.getWidth() < a.getHeight();
     this.a = a;
     this.b = b;
+    this.solver = solver;
   }
 
   @Override
   public DRes<ArrayList<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric builder) {
+    if (solver == LinearSolver.CHOLESKY) {
+      return solveNormalEquations(builder);
+    }
+
     Matrix<DRes<SFixed>> at = overDetermined ? a : MatrixUtils.transpose(a);
 
     return builder.seq(seq -> new QRDecomposition(at).buildComputation(seq))
@@ -56,4 +70,34 @@ public class LinearInverseProblem implements
           }
         });
   }
+
+  /**
+   * If the system is overdetermined, solve <i>A<sup>T</sup>Ax = A<sup>T</sup>b</i>. Otherwise
+   * solve <i>AA<sup>T</sup>y = b</i> and let <i>x = A<sup>T</sup>y</i>. In both cases the system
+   * is solved using the Cholesky decomposition <i>LL<sup>T</sup></i> of the square matrix.
+   */
+  private DRes<ArrayList<DRes<SFixed>>> solveNormalEquations(ProtocolBuilderNumeric builder) {
+    Matrix<DRes<SFixed>> at = MatrixUtils.transpose(a);
+
+    return builder.par(par -> {
+      FixedLinearAlgebra linearAlgebra = FixedLinearAlgebra.using(par);
+      DRes<Matrix<DRes<SFixed>>> gram = overDetermined
+          ? linearAlgebra.mult(DRes.of(at), DRes.of(a))
+          : linearAlgebra.mult(DRes.of(a), DRes.of(at));
+      DRes<ArrayList<DRes<SFixed>>> c = overDetermined
+          ? linearAlgebra.vectorMult(DRes.of(at), DRes.of(b))
+          : DRes.of(b);
+      return Pair.lazy(gram, c);
+    }).seq((seq, gramAndC) -> {
+      DRes<Matrix<DRes<SFixed>>> l = new CholeskyDecomposition(gramAndC.getFirst().out())
+          .buildComputation(seq);
+      return Pair.lazy(l, gramAndC.getSecond().out());
+    }).seq((seq, lAndC) -> {
+      Matrix<DRes<SFixed>> l = lAndC.getFirst().out();
+      return seq.seq(new ForwardSubstitution(l, lAndC.getSecond()))
+          .seq((sub, y) -> new BackSubstitution(MatrixUtils.transpose(l), y)
+              .buildComputation(sub));
+    }).seq((seq, y) -> overDetermined ? DRes.of(y)
+        : FixedLinearAlgebra.using(seq).vectorMult(DRes.of(at), DRes.of(y)));
+  }
 }
@@ -0,0 +1,26 @@
+package dk.alexandra.fresco.stat.linearalgebra;
+
+/**
+ * Methods for solving a linear inverse problem <i>Ax = b</i> with an <i>mxn</i>-matrix <i>A</i>
+ * (see {@link LinearInverseProblem}).
+ */
+public enum LinearSolver {
+
+  /**
+   * Use the {@link QRDecomposition} of <i>A</i> computed using Gram-Schmidt. This requires
+   * <i>n</i> sequential rounds of Gram-Schmidt on vectors of length <i>m</i> and a normalization of
+   * each of these, but is numerically more stable than solving the normal equations.
+   */
+  QR,
+
+  /**
+   * Solve the normal equations using the {@link CholeskyDecomposition} of the <i>nxn</i>-matrix
+   * <i>A<sup>T</sup>A</i> (or <i>AA<sup>T</sup></i> if the system is underdetermined) followed by
+   * forward and back substitution. The product is computed in a single batch of inner products, so
+   * this is much cheaper than {@link #QR} for tall and thin matrices, eg. when <i>m</i> is much
+   * larger than <i>n</i>, but since the condition number of <i>A</i> is squared, it is less
+   * precise for ill-conditioned matrices.
+   */
+  CHOLESKY
+
+}
@@ -3,36 +3,52 @@ package dk.alexandra.fresco.stat.linearalgebra;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
-import dk.alexandra.fresco.lib.fixed.FixedLinearAlgebra;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.AdvancedLinearAlgebra;
 import dk.alexandra.fresco.stat.utils.MatrixUtils;
 
 /**
  * Compute the Moore-Penrose pseudo inverse of a matrix <i>A</i>. Only the case where <i>A</i> have
  * either full column or row rank is covered by this function.
+ * <p>
+ * The products are computed using {@link StrassenMultiplication}, but for an <i>nxp</i>-matrix
+ * with few columns, the products of <i>pxp</i>- and <i>pxn</i>-matrices are usually too small for
+ * the recursion to save any multiplications, in which case they are computed directly.
  */
 public class MoorePenrosePseudoInverse implements
     Computation<Matrix<DRes<SFixed>>, ProtocolBuilderNumeric> {
 
   private final Matrix<DRes<SFixed>> a;
+  private final QRMethod method;
 
   public MoorePenrosePseudoInverse(Matrix<DRes<SFixed>> a) {
+    this(a, QRMethod.GRAM_SCHMIDT);
+  }
+
+  /**
+   * Compute the pseudo inverse using the given method for the QR-decomposition of <i>A</i>.
+   */
+  public MoorePenrosePseudoInverse(Matrix<DRes<SFixed>> a, QRMethod method) {
     boolean fullColumnRank = a.getHeight() >= a.getWidth();
     assert (fullColumnRank); // TODO: Only this case is currently supported
     this.a = a;
+    this.method = method;
   }
 
   @Override
   public DRes<Matrix<DRes<SFixed>>> buildComputation(
       ProtocolBuilderNumeric builder) {
-    return builder.seq(seq -> new QRDecomposition(a).buildComputation(seq)).seq(
-        (seq, qr) -> new InvertTriangularMatrix(MatrixUtils.transpose(qr.getSecond()))
+    return builder.seq(seq -> new QRDecomposition(a, method).buildComputation(seq)).seq(
+        (seq, qr) -> new BlockInvertTriangularMatrix(MatrixUtils.transpose(qr.getSecond()))
             .buildComputation(seq)).seq((seq, rtinv) -> {
-      FixedLinearAlgebra fixedLinearAlgebra = FixedLinearAlgebra.using(seq);
-      return fixedLinearAlgebra.mult(DRes.of(MatrixUtils.transpose(rtinv)),
-          fixedLinearAlgebra.mult(DRes.of(rtinv), DRes.of(MatrixUtils.transpose(a))));
-    });
+      DRes<Matrix<DRes<SFixed>>> product = AdvancedLinearAlgebra.using(seq)
+          .mult(rtinv, MatrixUtils.transpose(a));
+      return Pair.lazy(rtinv, product);
+    }).seq((seq, rtinvAndProduct) -> AdvancedLinearAlgebra.using(seq).mult(
+        MatrixUtils.transpose(rtinvAndProduct.getFirst()),
+        rtinvAndProduct.getSecond().out()));
 
   }
 }
@@ -4,8 +4,8 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.lib.common.collections.Matrix;
-import dk.alexandra.fresco.lib.fixed.FixedLinearAlgebra;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.AdvancedLinearAlgebra;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
 import java.util.List;
 
@@ -17,11 +17,20 @@ public class QRAlgorithm implements
 
   private final Matrix<DRes<SFixed>> l;
   private final int iterations;
+  private final QRMethod method;
 
   public QRAlgorithm(Matrix<DRes<SFixed>> l, int iterations) {
+    this(l, iterations, QRMethod.GRAM_SCHMIDT);
+  }
+
+  /**
+   * Approximate the eigenvalues using the given method for the QR-decomposition in each iteration.
+   */
+  public QRAlgorithm(Matrix<DRes<SFixed>> l, int iterations, QRMethod method) {
     assert (l.getHeight() == l.getWidth());
     this.l = l;
     this.iterations = iterations;
+    this.method = method;
   }
 
   @Override
@@ -30,9 +39,8 @@ public class QRAlgorithm implements
         DRes.of(new State(() -> l, 0)))
         .whileLoop(state -> state.k < iterations, (seq, state) -> {
           DRes<Matrix<DRes<SFixed>>> a = seq.seq(sub -> new QRDecomposition(
-              state.a.out()).buildComputation(sub)).seq((sub, qr) -> {
-            FixedLinearAlgebra fixedLinearAlgebra = FixedLinearAlgebra.using(sub);
-            return fixedLinearAlgebra.mult(qr::getSecond, qr::getFirst);
+              state.a.out(), method).buildComputation(sub)).seq((sub, qr) -> {
+            return AdvancedLinearAlgebra.using(sub).mult(qr.getSecond(), qr.getFirst());
           });
           return DRes.of(new State(a, state.k + 1));
         }).seq((seq, state) -> DRes.of(
@@ -20,20 +20,32 @@ import java.util.stream.Collectors;
  * The QR-decomposition is a pair of matrices <i>(Q,R)</i> with <i>A = QR</i> and where <i>Q</i> is
  * an <i>mxn</i>-matrix with orthonormal columns and <i>R</i> is an upper-triangular
  * <i>nxn</i>-matrix.
+ * <p>
+ * The decomposition is computed using the given {@link QRMethod}, which is {@link
+ * QRMethod#GRAM_SCHMIDT} by default.
  */
 public class QRDecomposition implements
     Computation<Pair<Matrix<DRes<SFixed>>, Matrix<DRes<SFixed>>>, ProtocolBuilderNumeric> {
 
   private final Matrix<DRes<SFixed>> a;
+  private final QRMethod method;
 
   public QRDecomposition(Matrix<DRes<SFixed>> a) {
+    this(a, QRMethod.GRAM_SCHMIDT);
+  }
+
+  public QRDecomposition(Matrix<DRes<SFixed>> a, QRMethod method) {
     assert (a.getHeight() >= a.getWidth());
     this.a = a;
+    this.method = method;
   }
 
   @Override
   public DRes<Pair<Matrix<DRes<SFixed>>, Matrix<DRes<SFixed>>>> buildComputation(
       ProtocolBuilderNumeric builder) {
+    if (method == QRMethod.HOUSEHOLDER) {
+      return new HouseholderQRDecomposition(a).buildComputation(builder);
+    }
     return builder.seq(seq -> {
       List<ArrayList<DRes<SFixed>>> columns = VectorUtils.listBuilder(a.getWidth(), a::getColumn);
       return new GramSchmidt(columns).buildComputation(seq);
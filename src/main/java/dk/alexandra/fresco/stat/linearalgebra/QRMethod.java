@@ -0,0 +1,23 @@
+package dk.alexandra.fresco.stat.linearalgebra;
+
+/**
+ * Methods for computing the QR-decomposition of a matrix (see {@link QRDecomposition}).
+ */
+public enum QRMethod {
+
+  /**
+   * Orthogonalize the columns using {@link GramSchmidt} and normalize them afterwards. This
+   * requires a sequential projection for each pair of columns and a square root and reciprocal for
+   * each column in the normalization.
+   */
+  GRAM_SCHMIDT,
+
+  /**
+   * Reduce the columns one at a time using Householder reflections (see {@link
+   * HouseholderQRDecomposition}). This is numerically more stable than {@link #GRAM_SCHMIDT} but
+   * requires about twice as many rounds, so it should only be preferred when precision matters more
+   * than latency.
+   */
+  HOUSEHOLDER
+
+}
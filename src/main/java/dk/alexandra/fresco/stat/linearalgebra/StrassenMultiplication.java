@@ -0,0 +1,193 @@
+package dk.alexandra.fresco.stat.linearalgebra;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compute the product of two secret matrices using Strassen's algorithm.
+ * <p>
+ * The matrices are split into 2x2 blocks and the product is computed from seven products of sums of
+ * these blocks instead of eight. Additions are local, so for <i>nxn</i>-matrices this requires
+ * <i>O(n<sup>2.81</sup>)</i> secure multiplications instead of <i>n<sup>3</sup></i>, and the
+ * recursion does not add any rounds. Matrices with odd dimensions are padded with zeros, so
+ * non-square matrices are also supported, but the padding means that a recursion step does not
+ * always save multiplications, eg. a <i>3x3</i>-product is computed using 27 multiplications
+ * directly but 49 using a recursion step. The product is therefore computed directly whenever this
+ * requires no more multiplications than recursing, or when one of the dimensions is at most the
+ * given cutoff.
+ * <p>
+ * The products are computed on the underlying integer representations and each entry in the
+ * output is truncated only once.
+ */
+public class StrassenMultiplication implements
+    Computation<Matrix<DRes<SFixed>>, ProtocolBuilderNumeric> {
+
+  /**
+   * The default cutoff. Since the additions are local, the recursion is only stopped when it no
+   * longer saves any secure multiplications, so eg. a product of <i>64x64</i>-matrices requires
+   * <i>7<sup>6</sup> = 117,649</i> multiplications. A larger cutoff may be used to trade
+   * multiplications for less local computation.
+   */
+  public static final int DEFAULT_CUTOFF = 1;
+
+  private final Matrix<DRes<SFixed>> a, b;
+  private final int cutoff;
+
+  public StrassenMultiplication(Matrix<DRes<SFixed>> a, Matrix<DRes<SFixed>> b) {
+    this(a, b, DEFAULT_CUTOFF);
+  }
+
+  /**
+   * Compute the product of <i>a</i> and <i>b</i>, computing the product directly when one of the
+   * dimensions is at most <code>cutoff</code>.
+   */
+  public StrassenMultiplication(Matrix<DRes<SFixed>> a, Matrix<DRes<SFixed>> b, int cutoff) {
+    if (a.getWidth() != b.getHeight()) {
+      throw new IllegalArgumentException(
+          "Matrix sizes must agree: " + a.getWidth() + " != " + b.getHeight());
+    }
+    if (cutoff < 1) {
+      throw new IllegalArgumentException("Cutoff must be positive");
+    }
+    this.a = a;
+    this.b = b;
+    this.cutoff = cutoff;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SFixed>>> buildComputation(ProtocolBuilderNumeric root) {
+    return root.seq(seq -> {
+      DRes<SInt> zero = seq.numeric().known(0);
+      Matrix<DRes<SInt>> aRaw = MatrixUtils.map(a, x -> x.out().getSInt());
+      Matrix<DRes<SInt>> bRaw = MatrixUtils.map(b, x -> x.out().getSInt());
+      return multiply(aRaw, bRaw, zero, cutoff, seq);
+    }).par((par, product) -> {
+      int precision = par.getBasicNumericContext().getDefaultFixedPointPrecision();
+      AdvancedNumeric advancedNumeric = AdvancedNumeric.using(par);
+      return DRes.of(
+          MatrixUtils.map(product, x -> new SFixed(advancedNumeric.truncate(x, precision))));
+    });
+  }
+
+  private static DRes<Matrix<DRes<SInt>>> multiply(Matrix<DRes<SInt>> a, Matrix<DRes<SInt>> b,
+      DRes<SInt> zero, int cutoff, ProtocolBuilderNumeric builder) {
+    int m = a.getHeight();
+    int k = a.getWidth();
+    int n = b.getWidth();
+
+    if (Math.min(m, Math.min(k, n)) <= cutoff
+        || (long) m * k * n <= multiplications(m, k, n, cutoff)) {
+      return builder.par(par -> {
+        AdvancedNumeric advancedNumeric = AdvancedNumeric.using(par);
+        return DRes.of(MatrixUtils.buildMatrix(m, n,
+            (i, j) -> advancedNumeric.innerProduct(a.getRow(i), b.getColumn(j))));
+      });
+    }
+
+    int hm = (m + 1) / 2;
+    int hk = (k + 1) / 2;
+    int hn = (n + 1) / 2;
+    Matrix<DRes<SInt>> a11 = block(a, 0, 0, hm, hk, zero);
+    Matrix<DRes<SInt>> a12 = block(a, 0, hk, hm, hk, zero);
+    Matrix<DRes<SInt>> a21 = block(a, hm, 0, hm, hk, zero);
+    Matrix<DRes<SInt>> a22 = block(a, hm, hk, hm, hk, zero);
+    Matrix<DRes<SInt>> b11 = block(b, 0, 0, hk, hn, zero);
+    Matrix<DRes<SInt>> b12 = block(b, 0, hn, hk, hn, zero);
+    Matrix<DRes<SInt>> b21 = block(b, hk, 0, hk, hn, zero);
+    Matrix<DRes<SInt>> b22 = block(b, hk, hn, hk, hn, zero);
+
+    return builder.par(par -> {
+      Numeric numeric = par.numeric();
+      List<Matrix<DRes<SInt>>> sums = List.of(
+          add(a11, a22, numeric), add(b11, b22, numeric),
+          add(a21, a22, numeric),
+          sub(b12, b22, numeric),
+          sub(b21, b11, numeric),
+          add(a11, a12, numeric),
+          sub(a21, a11, numeric), add(b11, b12, numeric),
+          sub(a12, a22, numeric), add(b21, b22, numeric));
+      return () -> sums;
+    }).par((par, sums) -> {
+      List<DRes<Matrix<DRes<SInt>>>> products = List.of(
+          multiply(sums.get(0), sums.get(1), zero, cutoff, par),
+          multiply(sums.get(2), b11, zero, cutoff, par),
+          multiply(a11, sums.get(3), zero, cutoff, par),
+          multiply(a22, sums.get(4), zero, cutoff, par),
+          multiply(sums.get(5), b22, zero, cutoff, par),
+          multiply(sums.get(6), sums.get(7), zero, cutoff, par),
+          multiply(sums.get(8), sums.get(9), zero, cutoff, par));
+      return () -> products.stream().map(DRes::out).collect(Collectors.toList());
+    }).par((par, p) -> {
+      // C11 = M1 + M4 - M5 + M7, C12 = M3 + M5, C21 = M2 + M4, C22 = M1 - M2 + M3 + M6
+      Matrix<DRes<SInt>> c = MatrixUtils.buildMatrix(m, n, (i, j) -> par.seq(seq -> {
+        Numeric numeric = seq.numeric();
+        int bi = i % hm;
+        int bj = j % hn;
+        if (i < hm && j < hn) {
+          return numeric.add(numeric.sub(numeric.add(entry(p, 0, bi, bj), entry(p, 3, bi, bj)),
+              entry(p, 4, bi, bj)), entry(p, 6, bi, bj));
+        } else if (i < hm) {
+          return numeric.add(entry(p, 2, bi, bj), entry(p, 4, bi, bj));
+        } else if (j < hn) {
+          return numeric.add(entry(p, 1, bi, bj), entry(p, 3, bi, bj));
+        } else {
+          return numeric.add(numeric.add(numeric.sub(entry(p, 0, bi, bj), entry(p, 1, bi, bj)),
+              entry(p, 2, bi, bj)), entry(p, 5, bi, bj));
+        }
+      }));
+      return DRes.of(c);
+    });
+  }
+
+  /**
+   * The number of secure multiplications needed to compute the product of an <i>mxk</i>-matrix and
+   * a <i>kxn</i>-matrix using a recursion step, where each of the seven products of half the size
+   * are computed using the cheapest of the two options.
+   */
+  private static long multiplications(int m, int k, int n, int cutoff) {
+    int hm = (m + 1) / 2;
+    int hk = (k + 1) / 2;
+    int hn = (n + 1) / 2;
+    long direct = (long) hm * hk * hn;
+    if (Math.min(hm, Math.min(hk, hn)) <= cutoff) {
+      return 7 * direct;
+    }
+    return 7 * Math.min(direct, multiplications(hm, hk, hn, cutoff));
+  }
+
+  private static DRes<SInt> entry(List<Matrix<DRes<SInt>>> products, int k, int i, int j) {
+    return products.get(k).getRow(i).get(j);
+  }
+
+  /**
+   * Return the <i>hxw</i> block of the given matrix starting at <i>(i0, j0)</i>. Entries outside
+   * the matrix are set to zero.
+   */
+  private static Matrix<DRes<SInt>> block(Matrix<DRes<SInt>> matrix, int i0, int j0, int h, int w,
+      DRes<SInt> zero) {
+    return MatrixUtils.buildMatrix(h, w,
+        (i, j) -> i0 + i < matrix.getHeight() && j0 + j < matrix.getWidth()
+            ? matrix.getRow(i0 + i).get(j0 + j) : zero);
+  }
+
+  private static Matrix<DRes<SInt>> add(Matrix<DRes<SInt>> a, Matrix<DRes<SInt>> b,
+      Numeric numeric) {
+    return MatrixUtils.buildMatrix(a.getHeight(), a.getWidth(),
+        (i, j) -> numeric.add(a.getRow(i).get(j), b.getRow(i).get(j)));
+  }
+
+  private static Matrix<DRes<SInt>> sub(Matrix<DRes<SInt>> a, Matrix<DRes<SInt>> b,
+      Numeric numeric) {
+    return MatrixUtils.buildMatrix(a.getHeight(), a.getWidth(),
+        (i, j) -> numeric.sub(a.getRow(i).get(j), b.getRow(i).get(j)));
+  }
+}
@@ -13,6 +13,8 @@ import dk.alexandra.fresco.stat.AdvancedLinearAlgebra;
 import dk.alexandra.fresco.stat.descriptive.SampleMean;
 import dk.alexandra.fresco.stat.descriptive.helpers.SSD;
 import dk.alexandra.fresco.stat.linearalgebra.LinearInverseProblem;
+import dk.alexandra.fresco.stat.linearalgebra.LinearSolver;
+import dk.alexandra.fresco.stat.linearalgebra.QRDecomposition;
 import dk.alexandra.fresco.stat.regression.linear.LinearRegression.LinearRegressionResult;
 import dk.alexandra.fresco.stat.utils.MatrixUtils;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
@@ -33,6 +35,7 @@ public class LinearRegression implements
   private final int p;
   private final ArrayList<DRes<SFixed>> y;
   private final boolean computeErrors;
+  private final LinearSolver solver;
 
   public LinearRegression(List<ArrayList<DRes<SFixed>>> observations, ArrayList<DRes<SFixed>> y) {
     this(observations, y, true);
@@ -40,6 +43,16 @@ public class LinearRegression implements
 
   public LinearRegression(List<ArrayList<DRes<SFixed>>> observations, ArrayList<DRes<SFixed>> y,
       boolean computeErrors) {
+    this(observations, y, computeErrors, LinearSolver.QR);
+  }
+
+  /**
+   * Fit a linear model using the given method to solve the least squares problem. For datasets
+   * with many more rows than columns, {@link LinearSolver#CHOLESKY} is much cheaper than the
+   * default {@link LinearSolver#QR}.
+   */
+  public LinearRegression(List<ArrayList<DRes<SFixed>>> observations, ArrayList<DRes<SFixed>> y,
+      boolean computeErrors, LinearSolver solver) {
     if (observations.stream().mapToInt(ArrayList::size).distinct().count() != 1) {
       throw new IllegalArgumentException(
           "Each observation must contain the same number of entries");
@@ -56,46 +69,222 @@ public class LinearRegression implements
     this.y = y;
 
     this.computeErrors = computeErrors;
+    this.solver = solver;
+  }
+
+  /**
+   * Fit a linear model from the sufficient statistics of a horizontally partitioned dataset, eg.
+   * where each party has computed and input the statistics of its own rows using {@link
+   * SufficientStatistics#input(List, double[], int)}. The statistics are summed and the model is
+   * fitted from the sums, so the cost is independent of the number of rows. The result is the same
+   * as when fitting the model on all rows. The sums are scaled by <i>1/n</i> before the model is
+   * fitted to keep the entries of <i>X<sup>T</sup>X</i> and its inverse within the precision of the
+   * fixed point numbers also for large datasets.
+   *
+   * @param statistics The sufficient statistics of each part of the dataset.
+   */
+  public static Computation<LinearRegressionResult, ProtocolBuilderNumeric> fromSufficientStatistics(
+      List<SufficientStatistics> statistics) {
+    if (statistics.isEmpty()) {
+      throw new IllegalArgumentException("At least one set of statistics is needed");
+    }
+    if (statistics.stream().mapToInt(SufficientStatistics::getDimension).distinct().count() != 1) {
+      throw new IllegalArgumentException("All statistics must have the same dimension");
+    }
+    int p = statistics.get(0).getDimension();
+
+    return builder -> builder.par(par -> {
+      AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(par);
+      SufficientStatisticsState state = new SufficientStatisticsState();
+      state.sum = new SufficientStatistics(
+          advancedFixedNumeric.sum(VectorUtils.listBuilder(statistics.size(),
+              k -> statistics.get(k).getN())),
+          VectorUtils.listBuilder(p, j -> advancedFixedNumeric.sum(VectorUtils.listBuilder(
+              statistics.size(), k -> statistics.get(k).getXSum().get(j)))),
+          advancedFixedNumeric.sum(VectorUtils.listBuilder(statistics.size(),
+              k -> statistics.get(k).getYSum())),
+          MatrixUtils.buildMatrix(p, p, (i, j) -> advancedFixedNumeric.sum(VectorUtils
+              .listBuilder(statistics.size(), k -> statistics.get(k).getXTX().getRow(i).get(j)))),
+          VectorUtils.listBuilder(p, j -> advancedFixedNumeric.sum(VectorUtils.listBuilder(
+              statistics.size(), k -> statistics.get(k).getXTY().get(j)))),
+          advancedFixedNumeric.sum(VectorUtils.listBuilder(statistics.size(),
+              k -> statistics.get(k).getYTY())));
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      state.nInverse = AdvancedFixedNumeric.using(seq).reciprocal(state.sum.getN());
+      return DRes.of(state);
+    }).par((par, state) -> {
+      // Scale the sums by 1/n to avoid the loss of precision when inverting X^T X for large n
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      SufficientStatistics sum = state.sum;
+      state.scaled = new SufficientStatistics(
+          fixedNumeric.known(1),
+          VectorUtils.listBuilder(p, j -> fixedNumeric.mult(state.nInverse, sum.getXSum().get(j))),
+          fixedNumeric.mult(state.nInverse, sum.getYSum()),
+          MatrixUtils.map(sum.getXTX(), x -> fixedNumeric.mult(state.nInverse, x)),
+          VectorUtils.listBuilder(p, j -> fixedNumeric.mult(state.nInverse, sum.getXTY().get(j))),
+          fixedNumeric.mult(state.nInverse, sum.getYTY()));
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      // X^T X is symmetric and positive definite, so it may be inverted using its Cholesky
+      // decomposition, (LL^T)^-1 = L^-T L^-1
+      state.inverse = AdvancedLinearAlgebra.using(seq).choleskyDecomposition(
+          state.scaled.getXTX());
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      state.inverse = AdvancedLinearAlgebra.using(seq).invertLowerTriangularMatrix(
+          state.inverse.out());
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      Matrix<DRes<SFixed>> lInverse = state.inverse.out();
+      state.inverse = AdvancedLinearAlgebra.using(seq).mult(MatrixUtils.transpose(lInverse),
+          lInverse);
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      state.beta = FixedLinearAlgebra.using(seq).vectorMult(state.inverse,
+          DRes.of(new ArrayList<>(state.scaled.getXTY())));
+      return DRes.of(state);
+    }).par((par, state) -> {
+      AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(par);
+
+      // Since X^T X beta = X^T y, the sum of squared fitted values is beta^T X^T y
+      state.betaXTY = advancedFixedNumeric.innerProduct(state.beta.out(),
+          state.scaled.getXTY());
+      state.yHatSum = advancedFixedNumeric.innerProduct(state.beta.out(),
+          state.scaled.getXSum());
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      FixedNumeric fixedNumeric = FixedNumeric.using(seq);
+
+      // All sums below are scaled by 1/n, so yBar is the scaled sum of y
+      SufficientStatistics scaled = state.scaled;
+      DRes<SFixed> yBar = scaled.getYSum();
+
+      // s^2 = (y^T y - beta^T X^T y) / (n - p)
+      DRes<SFixed> errorVariance = fixedNumeric.div(
+          fixedNumeric.sub(scaled.getYTY(), state.betaXTY),
+          fixedNumeric.mult(state.nInverse, fixedNumeric.sub(state.sum.getN(), p)));
+
+      // R^2 = sum (yHat - yBar)^2 / sum (y - yBar)^2
+      DRes<SFixed> yBarYSum = fixedNumeric.mult(yBar, scaled.getYSum());
+      DRes<SFixed> ssr = fixedNumeric.add(fixedNumeric.sub(state.betaXTY,
+          fixedNumeric.mult(2, fixedNumeric.mult(yBar, state.yHatSum))), yBarYSum);
+      DRes<SFixed> sst = fixedNumeric.sub(scaled.getYTY(), yBarYSum);
+      DRes<SFixed> rSquared = fixedNumeric.div(ssr, sst);
+
+      // The inverse is the inverse of X^T X / n, so it has to be scaled by 1/n
+      Matrix<DRes<SFixed>> inverse = state.inverse.out();
+      DRes<List<DRes<SFixed>>> errors = seq.par(par -> DRes.of(VectorUtils.listBuilder(p,
+          i -> par.seq(sub -> FixedNumeric.using(sub).mult(state.nInverse,
+              FixedNumeric.using(sub).mult(errorVariance, inverse.getRow(i).get(i)))))));
+      return () -> new LinearRegressionResult(state.beta.out(), errorVariance, errors.out(),
+          rSquared);
+    });
   }
 
   @Override
   public DRes<LinearRegressionResult> buildComputation(ProtocolBuilderNumeric builder) {
     Matrix<DRes<SFixed>> x = new Matrix<>(n, p, new ArrayList<>(observations));
-    return builder.seq(new LinearInverseProblem(x, y))
-        .seq((seq, beta) -> {
-
-      if (computeErrors) {
-        DRes<Pair<SFixed, SFixed>> sAndR = seq
-            .seq(sub ->
-                FixedLinearAlgebra.using(sub).vectorMult(DRes.of(x),
-                    DRes.of(beta)))
-            .pairInPar(
-                // Compute s^2 and R^2 in parallel
-                (sub, yHat) -> sub.seq(b -> DRes.of(VectorUtils.sub(y, yHat, b)))
-                    .seq((b, e) -> FixedNumeric.using(b)
-                        .mult(1.0 / (n - p), AdvancedFixedNumeric.using(b).innerProduct(e, e))),
-                (sub, yHat) -> sub.seq(new SampleMean(y))
-                    .pairInPar((b, yBar) -> new SSD(yHat, yBar).buildComputation(b),
-                        (b, yBar) -> new SSD(y, yBar).buildComputation(b))
-                    .seq((b, ys) -> FixedNumeric.using(b).div(ys.getFirst(), ys.getSecond())));
-
-        // Compute std errors (squared) for all estimates
-        DRes<ArrayList<DRes<SFixed>>> errors = seq.seq(sub ->
-          FixedLinearAlgebra.using(sub).mult(DRes.of(MatrixUtils.transpose(x)), DRes.of(x))).seq(
-            (sub, m) ->
-              AdvancedLinearAlgebra.using(sub).moorePenrosePseudoInverse(m)
-        ).par((sub, m) -> {
-          FixedNumeric fixedNumeric = FixedNumeric.using(sub);
-            return DRes.of(VectorUtils.listBuilder(m.getHeight(), i -> fixedNumeric.mult(sAndR.out().getFirst(), m.getRow(i).get(i))));
-          });
-
-        return () -> new LinearRegressionResult(beta, sAndR.out().getFirst(), errors.out(), sAndR.out().getSecond());
+
+    if (!computeErrors) {
+      return builder.seq(new LinearInverseProblem(x, y, solver))
+          .seq((seq, beta) -> DRes.of(new LinearRegressionResult(beta, null, null, null)));
+    }
+
+    // Both the estimates and the standard errors are computed from a single factorisation
+    // X^T X = L L^T where L is lower triangular, eg. L = R^T if X = QR or the Cholesky factor of
+    // X^T X. Given the inverse of L we have beta = L^-T L^-1 X^T y and (X^T X)^-1 = L^-T L^-1.
+    return builder.seq(seq -> {
+      RegressionState state = new RegressionState();
+      if (solver == LinearSolver.CHOLESKY) {
+        return seq.par(par -> {
+          FixedLinearAlgebra linearAlgebra = FixedLinearAlgebra.using(par);
+          DRes<Matrix<DRes<SFixed>>> xtx = linearAlgebra.mult(
+              DRes.of(MatrixUtils.transpose(x)), DRes.of(x));
+          state.xty = linearAlgebra.vectorMult(DRes.of(MatrixUtils.transpose(x)), DRes.of(y));
+          return xtx;
+        }).seq((sub, xtx) -> {
+          state.l = AdvancedLinearAlgebra.using(sub).choleskyDecomposition(xtx);
+          return DRes.of(state);
+        });
+      } else {
+        return seq.seq(new QRDecomposition(x)).seq((sub, qr) -> {
+          // Since X^T y = R^T Q^T y, we have L^-1 X^T y = Q^T y
+          Matrix<DRes<SFixed>> q = qr.getFirst();
+          state.l = DRes.of(MatrixUtils.transpose(qr.getSecond()));
+          state.lInverseXty = FixedLinearAlgebra.using(sub)
+              .vectorMult(DRes.of(MatrixUtils.transpose(q)), DRes.of(y));
+          return DRes.of(state);
+        });
+      }
+    }).seq((seq, state) -> {
+      state.lInverse = AdvancedLinearAlgebra.using(seq).invertLowerTriangularMatrix(
+          state.l.out());
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      if (state.lInverseXty == null) {
+        state.lInverseXty = FixedLinearAlgebra.using(seq).vectorMult(state.lInverse, state.xty);
       }
+      return DRes.of(state);
+    }).par((par, state) -> {
+      Matrix<DRes<SFixed>> lInverse = state.lInverse.out();
+      state.beta = FixedLinearAlgebra.using(par).vectorMult(
+          DRes.of(MatrixUtils.transpose(lInverse)), state.lInverseXty);
+
+      // The diagonal of (X^T X)^-1 = L^-T L^-1 are the squared norms of the columns of L^-1
+      AdvancedFixedNumeric advancedFixedNumeric = AdvancedFixedNumeric.using(par);
+      state.diagonal = VectorUtils.listBuilder(p,
+          i -> advancedFixedNumeric.innerProduct(lInverse.getColumn(i), lInverse.getColumn(i)));
+      return DRes.of(state);
+    }).seq((seq, state) -> {
+      ArrayList<DRes<SFixed>> beta = state.beta.out();
+
+      DRes<Pair<SFixed, SFixed>> sAndR = seq
+          .seq(sub ->
+              FixedLinearAlgebra.using(sub).vectorMult(DRes.of(x),
+                  DRes.of(beta)))
+          .pairInPar(
+              // Compute s^2 and R^2 in parallel
+              (sub, yHat) -> sub.seq(b -> DRes.of(VectorUtils.sub(y, yHat, b)))
+                  .seq((b, e) -> FixedNumeric.using(b)
+                      .mult(1.0 / (n - p), AdvancedFixedNumeric.using(b).innerProduct(e, e))),
+              (sub, yHat) -> sub.seq(new SampleMean(y))
+                  .pairInPar((b, yBar) -> new SSD(yHat, yBar).buildComputation(b),
+                      (b, yBar) -> new SSD(y, yBar).buildComputation(b))
+                  .seq((b, ys) -> FixedNumeric.using(b).div(ys.getFirst(), ys.getSecond())));
+
+      // Compute std errors (squared) for all estimates
+      DRes<List<DRes<SFixed>>> errors = seq.par(par -> {
+        FixedNumeric fixedNumeric = FixedNumeric.using(par);
+        return DRes.of(VectorUtils.listBuilder(p,
+            i -> fixedNumeric.mult(sAndR.out().getFirst(), state.diagonal.get(i))));
+      });
 
-      return DRes.of(new LinearRegressionResult(beta, null, null, null));
+      return () -> new LinearRegressionResult(beta, sAndR.out().getFirst(), errors.out(),
+          sAndR.out().getSecond());
     });
   }
 
+  private static class RegressionState {
+
+    private DRes<Matrix<DRes<SFixed>>> l;
+    private DRes<Matrix<DRes<SFixed>>> lInverse;
+    private DRes<ArrayList<DRes<SFixed>>> xty;
+    private DRes<ArrayList<DRes<SFixed>>> lInverseXty;
+    private DRes<ArrayList<DRes<SFixed>>> beta;
+    private List<DRes<SFixed>> diagonal;
+  }
+
+  private static class SufficientStatisticsState {
+
+    private SufficientStatistics sum, scaled;
+    private DRes<SFixed> nInverse;
+    private DRes<Matrix<DRes<SFixed>>> inverse;
+    private DRes<ArrayList<DRes<SFixed>>> beta;
+    private DRes<SFixed> betaXTY;
+    private DRes<SFixed> yHatSum;
+  }
+
   public static class LinearRegressionResult {
 
     private final List<DRes<SFixed>> beta;
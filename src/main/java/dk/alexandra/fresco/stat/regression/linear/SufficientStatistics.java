@@ -0,0 +1,153 @@
+package dk.alexandra.fresco.stat.regression.linear;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Secret shared sufficient statistics for a linear regression on a dataset with <i>n</i> rows
+ * <i>x<sub>i</sub></i> with <i>p</i> entries and responses <i>y<sub>i</sub></i>. These are the
+ * number of rows, the sums <i>&Sigma; x<sub>i</sub></i> and <i>&Sigma; y<sub>i</sub></i>, the
+ * matrix <i>X<sup>T</sup>X</i> and the vector <i>X<sup>T</sup>y</i> and the sum of squares
+ * <i>y<sup>T</sup>y</i>.
+ * <p>
+ * When the rows are horizontally partitioned such that each party holds complete rows, each party
+ * may compute the statistics of its own rows in the clear and input only these (see {@link
+ * #input(List, double[], int)}), and the model may then be fitted using {@link
+ * LinearRegression#fromSufficientStatistics(List)} at a cost independent of the number of rows.
+ */
+public class SufficientStatistics {
+
+  private final DRes<SFixed> n;
+  private final List<DRes<SFixed>> xSum;
+  private final DRes<SFixed> ySum;
+  private final Matrix<DRes<SFixed>> xTx;
+  private final List<DRes<SFixed>> xTy;
+  private final DRes<SFixed> yTy;
+
+  public SufficientStatistics(DRes<SFixed> n, List<DRes<SFixed>> xSum, DRes<SFixed> ySum,
+      Matrix<DRes<SFixed>> xTx, List<DRes<SFixed>> xTy, DRes<SFixed> yTy) {
+    int p = xSum.size();
+    if (xTx.getHeight() != p || xTx.getWidth() != p || xTy.size() != p) {
+      throw new IllegalArgumentException("The statistics must all have dimension " + p);
+    }
+    this.n = n;
+    this.xSum = xSum;
+    this.ySum = ySum;
+    this.xTx = xTx;
+    this.xTy = xTy;
+    this.yTy = yTy;
+  }
+
+  /**
+   * Compute the sufficient statistics of the given dataset locally and input them. This should be
+   * called by the party holding the data while the other parties call {@link #input(int, int)}.
+   *
+   * @param x     The rows of the dataset.
+   * @param y     The responses.
+   * @param party The id of the party holding the data.
+   */
+  public static Computation<SufficientStatistics, ProtocolBuilderNumeric> input(List<double[]> x,
+      double[] y, int party) {
+    if (x.size() != y.length) {
+      throw new IllegalArgumentException(
+          "There must be the same number of observations and observed response variables");
+    }
+    if (x.stream().mapToInt(row -> row.length).distinct().count() != 1) {
+      throw new IllegalArgumentException(
+          "Each observation must contain the same number of entries");
+    }
+    int p = x.get(0).length;
+    double[] xSum = new double[p];
+    double ySum = 0.0;
+    double[][] xTx = new double[p][p];
+    double[] xTy = new double[p];
+    double yTy = 0.0;
+    for (int i = 0; i < y.length; i++) {
+      double[] row = x.get(i);
+      for (int j = 0; j < p; j++) {
+        xSum[j] += row[j];
+        xTy[j] += row[j] * y[i];
+        for (int k = 0; k < p; k++) {
+          xTx[j][k] += row[j] * row[k];
+        }
+      }
+      ySum += y[i];
+      yTy += y[i] * y[i];
+    }
+    double finalYSum = ySum;
+    double finalYTy = yTy;
+    return builder -> input(p, party, y.length, xSum, finalYSum, xTx, xTy, finalYTy, builder);
+  }
+
+  /**
+   * Input sufficient statistics of dimension <i>p</i> held by another party.
+   *
+   * @param p     The number of entries in each row of the dataset.
+   * @param party The id of the party holding the data.
+   */
+  public static Computation<SufficientStatistics, ProtocolBuilderNumeric> input(int p,
+      int party) {
+    return builder -> input(p, party, null, null, null, null, null, null, builder);
+  }
+
+  private static DRes<SufficientStatistics> input(int p, int party, Integer n, double[] xSum,
+      Double ySum, double[][] xTx, double[] xTy, Double yTy, ProtocolBuilderNumeric builder) {
+    return builder.par(par -> {
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      SufficientStatistics statistics = new SufficientStatistics(
+          fixedNumeric.input(n == null ? null : BigDecimal.valueOf(n), party),
+          VectorUtils.listBuilder(p, j -> fixedNumeric.input(
+              xSum == null ? null : BigDecimal.valueOf(xSum[j]), party)),
+          fixedNumeric.input(ySum == null ? null : BigDecimal.valueOf(ySum), party),
+          MatrixUtils.buildMatrix(p, p, (j, k) -> fixedNumeric.input(
+              xTx == null ? null : BigDecimal.valueOf(xTx[j][k]), party)),
+          VectorUtils.listBuilder(p, j -> fixedNumeric.input(
+              xTy == null ? null : BigDecimal.valueOf(xTy[j]), party)),
+          fixedNumeric.input(yTy == null ? null : BigDecimal.valueOf(yTy), party));
+      return DRes.of(statistics);
+    });
+  }
+
+  /** The number of entries in each row of the dataset. */
+  public int getDimension() {
+    return xSum.size();
+  }
+
+  /** The number of rows <i>n</i>. */
+  public DRes<SFixed> getN() {
+    return n;
+  }
+
+  /** The sum of the rows <i>&Sigma; x<sub>i</sub></i>. */
+  public List<DRes<SFixed>> getXSum() {
+    return xSum;
+  }
+
+  /** The sum of the responses <i>&Sigma; y<sub>i</sub></i>. */
+  public DRes<SFixed> getYSum() {
+    return ySum;
+  }
+
+  /** The matrix <i>X<sup>T</sup>X</i>. */
+  public Matrix<DRes<SFixed>> getXTX() {
+    return xTx;
+  }
+
+  /** The vector <i>X<sup>T</sup>y</i>. */
+  public List<DRes<SFixed>> getXTY() {
+    return xTy;
+  }
+
+  /** The sum of squared responses <i>y<sup>T</sup>y</i>. */
+  public DRes<SFixed> getYTY() {
+    return yTy;
+  }
+}
@@ -8,7 +8,10 @@ import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
 import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.BitDecomposedColumn;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -57,17 +60,24 @@ public class SampleCategoricalDistribution implements Computation<SInt, Protocol
 
       if (Objects.nonNull(knownProbabilities)) {
 
+        // Since r and all c_i are in [0,1], we only need to decompose r into precision + 2 bits
+        // to compare it with all c_i
+        int precision = builder.getBasicNumericContext().getDefaultFixedPointPrecision();
+        BigDecimal scale = new BigDecimal(BigInteger.TWO.pow(precision));
         double c = knownProbabilities[0];
-        List<DRes<SInt>> terms = new ArrayList<>();
+        List<BigInteger> thresholds = new ArrayList<>();
         for (int i = 0; i < knownProbabilities.length; i++) {
           if (i > 0) {
             c += knownProbabilities[i];
           }
-          terms.add(
-              numeric
-                  .leq(numeric.known(BigDecimal.valueOf(c)), r));
+          thresholds.add(BigDecimal.valueOf(c).multiply(scale).setScale(0, RoundingMode.HALF_UP)
+              .toBigIntegerExact());
         }
-        return AdvancedNumeric.using(builder).sum(terms);
+        DRes<SFixed> finalR = r;
+        return builder.seq(seq -> seq.seq(BitDecomposedColumn.decompose(
+            List.of(finalR.out().getSInt()), precision + 2)))
+            .seq((seq, column) -> seq.seq(column.geq(0, thresholds)))
+            .seq((seq, terms) -> AdvancedNumeric.using(seq).sum(terms));
 
       } else {
 
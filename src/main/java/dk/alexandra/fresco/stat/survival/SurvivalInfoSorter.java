@@ -5,14 +5,18 @@ import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import dk.alexandra.fresco.stat.descriptive.sort.SecretPermutation;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * Convert an instance of type <code>T</code> into a {@link Pair} of a {@link DRes}&lt;{@link
- * SInt}&gt; and a {@link List}&lt;{@link DRes}&lt;{@link SInt}&gt;&gt; and back for use with {@link
- * dk.alexandra.fresco.lib.common.collections.Collections#sort(List)} to sort on the time of event
- * parameter.
+ * Sort a list of subjects on the time of event parameter in descending order. Each instance of
+ * type <code>T</code> is converted into a {@link Pair} of a {@link DRes}&lt;{@link SInt}&gt; and a
+ * {@link List}&lt;{@link DRes}&lt;{@link SInt}&gt;&gt; and back, where the first is used as the key
+ * for {@link SecretPermutation#sorting(List, SortingAlgorithm)} and the rest is permuted accordingly.
  *
  * @param <T> A subject for survival analysis.
  */
@@ -20,9 +24,15 @@ public abstract class SurvivalInfoSorter<T> implements
     Computation<List<T>, ProtocolBuilderNumeric> {
 
   protected final List<T> data;
+  private final SortingAlgorithm algorithm;
 
   public SurvivalInfoSorter(List<T> data) {
+    this(data, SortingAlgorithm.SORTING_NETWORK);
+  }
+
+  public SurvivalInfoSorter(List<T> data, SortingAlgorithm algorithm) {
     this.data = data;
+    this.algorithm = algorithm;
   }
 
   abstract Pair<DRes<SInt>, List<DRes<SInt>>> encode(T survivalInfo);
@@ -33,13 +43,23 @@ public abstract class SurvivalInfoSorter<T> implements
   public DRes<List<T>> buildComputation(
       ProtocolBuilderNumeric builder) {
 
-    return builder.seq(seq -> {
-      List<Pair<DRes<SInt>, List<DRes<SInt>>>> values =
-          data.stream().map(this::encode).collect(Collectors.toList());
-      return dk.alexandra.fresco.lib.common.collections.Collections.using(seq).sort(values);
-    }).seq((seq, sorted) -> {
-      List<T> sortedData = sorted.stream().map(this::decode).collect(Collectors.toList());
-      return DRes.of(sortedData);
-    });
+    List<Pair<DRes<SInt>, List<DRes<SInt>>>> values =
+        data.stream().map(this::encode).collect(Collectors.toList());
+
+    // The covariates are permuted along with the time of event instead of being carried through
+    // the sorting network as payload
+    return builder.seq(SecretPermutation.sorting(
+        values.stream().map(Pair::getFirst).collect(Collectors.toList()), algorithm))
+        .seq((seq, permutation) -> {
+          Matrix<DRes<SInt>> rows = MatrixUtils.buildMatrix(values.size(),
+              values.isEmpty() ? 0 : values.get(0).getSecond().size() + 1,
+              (i, j) -> j == 0 ? values.get(i).getFirst() : values.get(i).getSecond().get(j - 1));
+          // Sort descending as the survival analysis expects
+          return seq.seq(permutation.reverse().apply(rows));
+        }).seq((seq, sorted) -> {
+          List<T> sortedData = sorted.getRows().stream().map(row -> decode(
+              new Pair<>(row.get(0), row.subList(1, row.size())))).collect(Collectors.toList());
+          return DRes.of(sortedData);
+        });
   }
 }
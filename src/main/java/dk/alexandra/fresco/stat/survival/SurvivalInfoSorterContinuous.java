@@ -4,6 +4,7 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,6 +15,11 @@ public class SurvivalInfoSorterContinuous extends SurvivalInfoSorter<SurvivalInf
     super(data);
   }
 
+  public SurvivalInfoSorterContinuous(
+      List<SurvivalInfoContinuous> data, SortingAlgorithm algorithm) {
+    super(data, algorithm);
+  }
+
   @Override
   Pair<DRes<SInt>, List<DRes<SInt>>> encode(SurvivalInfoContinuous subject) {
     List<DRes<SInt>> row = new ArrayList<>();
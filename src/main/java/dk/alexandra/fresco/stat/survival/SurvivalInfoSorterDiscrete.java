@@ -3,6 +3,7 @@ package dk.alexandra.fresco.stat.survival;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,6 +14,11 @@ public class SurvivalInfoSorterDiscrete extends SurvivalInfoSorter<SurvivalInfoD
     super(data);
   }
 
+  public SurvivalInfoSorterDiscrete(
+      List<SurvivalInfoDiscrete> data, SortingAlgorithm algorithm) {
+    super(data, algorithm);
+  }
+
   @Override
   Pair<DRes<SInt>, List<DRes<SInt>>> encode(SurvivalInfoDiscrete subject) {
     ArrayList<DRes<SInt>> row = new ArrayList<>();
@@ -11,6 +11,7 @@ import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.lib.fixed.math.Exponential;
 import dk.alexandra.fresco.stat.descriptive.sort.FindTiedGroups;
 import dk.alexandra.fresco.stat.survival.SurvivalInfoContinuous;
+import dk.alexandra.fresco.stat.utils.DeterministicEncryptionCache;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -21,6 +22,7 @@ public class CoxGradientContinuous implements
 
   private final List<SurvivalInfoContinuous> data;
   private final List<DRes<SFixed>> beta;
+  private final DeterministicEncryptionCache cache;
 
   /**
    * Compute the gradient of the score function for a Cox model on the given data with coefficients
@@ -30,8 +32,23 @@ public class CoxGradientContinuous implements
    * @param beta
    */
   public CoxGradientContinuous(List<SurvivalInfoContinuous> data, List<DRes<SFixed>> beta) {
+    this(data, beta, new DeterministicEncryptionCache());
+  }
+
+  /**
+   * Compute the gradient of the score function for a Cox model where ties in the time parameter are
+   * found using the given cache of encryptions. Reusing the cache over multiple iterations avoids
+   * encrypting the time parameter in each iteration.
+   *
+   * @param data
+   * @param beta
+   * @param cache
+   */
+  public CoxGradientContinuous(List<SurvivalInfoContinuous> data, List<DRes<SFixed>> beta,
+      DeterministicEncryptionCache cache) {
     this.data = data;
     this.beta = beta;
+    this.cache = cache;
   }
 
   @Override
@@ -72,7 +89,8 @@ public class CoxGradientContinuous implements
 
       // Find ties
       DRes<List<BigInteger>> tiedGroups = new FindTiedGroups(
-          VectorUtils.listBuilder(data.size(), i -> data.get(i).getTime())).buildComputation(seq);
+          VectorUtils.listBuilder(data.size(), i -> data.get(i).getTime()), cache)
+          .buildComputation(seq);
       return Pair.lazy(tiedGroups, state);
 
     }).seq((seq, p) -> {
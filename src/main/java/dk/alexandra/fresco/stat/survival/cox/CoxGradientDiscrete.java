@@ -12,6 +12,7 @@ import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.lib.fixed.math.Exponential;
 import dk.alexandra.fresco.stat.descriptive.sort.FindTiedGroups;
 import dk.alexandra.fresco.stat.survival.SurvivalInfoDiscrete;
+import dk.alexandra.fresco.stat.utils.DeterministicEncryptionCache;
 import dk.alexandra.fresco.stat.utils.RealUtils;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
 import java.math.BigInteger;
@@ -23,6 +24,7 @@ public class CoxGradientDiscrete implements
 
   private final List<SurvivalInfoDiscrete> data;
   private final List<DRes<SFixed>> beta;
+  private final DeterministicEncryptionCache cache;
 
   /**
    * Compute the gradient of the score function for a Cox model on the given data with coefficients
@@ -32,8 +34,23 @@ public class CoxGradientDiscrete implements
    * @param beta
    */
   public CoxGradientDiscrete(List<SurvivalInfoDiscrete> data, List<DRes<SFixed>> beta) {
+    this(data, beta, new DeterministicEncryptionCache());
+  }
+
+  /**
+   * Compute the gradient of the score function for a Cox model where ties in the time parameter are
+   * found using the given cache of encryptions. Reusing the cache over multiple iterations avoids
+   * encrypting the time parameter in each iteration.
+   *
+   * @param data
+   * @param beta
+   * @param cache
+   */
+  public CoxGradientDiscrete(List<SurvivalInfoDiscrete> data, List<DRes<SFixed>> beta,
+      DeterministicEncryptionCache cache) {
     this.data = data;
     this.beta = beta;
+    this.cache = cache;
   }
 
   @Override
@@ -104,7 +121,8 @@ public class CoxGradientDiscrete implements
 
       // Find ties
       DRes<List<BigInteger>> tiedGroups = new FindTiedGroups(
-          VectorUtils.listBuilder(data.size(), i -> data.get(i).getTime())).buildComputation(seq);
+          VectorUtils.listBuilder(data.size(), i -> data.get(i).getTime()), cache)
+          .buildComputation(seq);
       return Pair.lazy(tiedGroups, state);
 
     }).seq((seq, p) -> {
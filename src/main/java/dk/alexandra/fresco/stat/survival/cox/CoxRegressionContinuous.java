@@ -2,6 +2,7 @@ package dk.alexandra.fresco.stat.survival.cox;
 
 import dk.alexandra.fresco.stat.survival.SurvivalInfoContinuous;
 import dk.alexandra.fresco.stat.survival.SurvivalInfoSorterContinuous;
+import dk.alexandra.fresco.stat.utils.DeterministicEncryptionCache;
 import java.util.List;
 
 /**
@@ -19,8 +20,14 @@ public class CoxRegressionContinuous extends CoxRegression<SurvivalInfoContinuou
    */
   public CoxRegressionContinuous(List<SurvivalInfoContinuous> data, int iterations, double alpha,
       double[] beta) {
+    this(data, iterations, alpha, beta, new DeterministicEncryptionCache());
+  }
+
+  private CoxRegressionContinuous(List<SurvivalInfoContinuous> data, int iterations, double alpha,
+      double[] beta, DeterministicEncryptionCache cache) {
+    // The time parameter is the same in all iterations, so it is only encrypted once to find ties
     super(data, iterations, alpha, beta,
-        (d, b) -> builder -> new CoxGradientContinuous(d, b).buildComputation(builder),
+        (d, b) -> builder -> new CoxGradientContinuous(d, b, cache).buildComputation(builder),
         SurvivalInfoSorterContinuous::new);
   }
 }
@@ -13,28 +13,75 @@ import java.util.Objects;
 
 /**
  * Compute the &Chi;<sup>2</sup>-test for goodness of fit of the given observatinos.
+ * <p>
+ * If the observations are distributed among the parties, each party may count the observations in
+ * each bucket locally and input only these counts. The test is then computed from the sums of the
+ * counts given as {@link PartialCounts}.
  */
 public class ChiSquareTest implements Computation<SFixed, ProtocolBuilderNumeric> {
 
   private final double[] expectedKnown;
-  private final List<DRes<SInt>> observed;
+  private final List<List<DRes<SInt>>> observed;
   private final List<DRes<SFixed>> expected;
 
   public ChiSquareTest(List<DRes<SInt>> observed, List<DRes<SFixed>> expected) {
-    this.observed = observed;
-    this.expected = expected;
-    this.expectedKnown = null;
+    this(new PartialCounts(List.of(observed)), expected, null);
   }
 
   public ChiSquareTest(List<DRes<SInt>> observed, double[] expected) {
-    this.observed = observed;
-    this.expectedKnown = expected;
-    this.expected = null;
+    this(new PartialCounts(List.of(observed)), null, expected);
+  }
+
+  /**
+   * Compute the test from bucket counts contributed by several parties.
+   *
+   * @param observed The bucket counts of each party.
+   * @param expected The expected number of observations in each bucket.
+   */
+  public ChiSquareTest(PartialCounts observed, List<DRes<SFixed>> expected) {
+    this(observed, expected, null);
+  }
+
+  /**
+   * Compute the test from bucket counts contributed by several parties.
+   *
+   * @param observed The bucket counts of each party.
+   * @param expected The expected number of observations in each bucket.
+   */
+  public ChiSquareTest(PartialCounts observed, double[] expected) {
+    this(observed, null, expected);
+  }
+
+  private ChiSquareTest(PartialCounts observed, List<DRes<SFixed>> expected,
+      double[] expectedKnown) {
+    if (Objects.isNull(observed) || Objects.isNull(expected) && Objects.isNull(expectedKnown)) {
+      throw new IllegalArgumentException("The observed and expected counts must not be null");
+    }
+    int buckets = Objects.nonNull(expectedKnown) ? expectedKnown.length : expected.size();
+    if (observed.getBuckets() != buckets) {
+      throw new IllegalArgumentException(
+          "There must be an expected number of observations for each bucket");
+    }
+    this.observed = observed.getCounts();
+    this.expected = expected;
+    this.expectedKnown = expectedKnown;
   }
 
   @Override
   public DRes<SFixed> buildComputation(ProtocolBuilderNumeric builder) {
-    return builder.par(par -> {
+    return builder.seq(seq -> {
+      if (observed.size() == 1) {
+        return DRes.of(observed.get(0));
+      }
+      // The counts are shared, so adding them is local
+      List<DRes<SInt>> totals = new ArrayList<>(observed.get(0));
+      for (List<DRes<SInt>> counts : observed.subList(1, observed.size())) {
+        for (int i = 0; i < totals.size(); i++) {
+          totals.set(i, seq.numeric().add(totals.get(i), counts.get(i)));
+        }
+      }
+      return DRes.of(totals);
+    }).par((par, observed) -> {
       List<DRes<SFixed>> terms = new ArrayList<>();
       for (int i = 0; i < observed.size(); i++) {
         if (Objects.nonNull(expectedKnown)) {
@@ -8,45 +8,87 @@ import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.descriptive.helpers.USS;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Compute the F-test for equal mean (one-way-anova) for the given data sets.
+ * <p>
+ * The test only depends on the size, sum and sum of squares of each data set, so the data sets may
+ * also be given as {@link SampleSummary}'s, eg. computed locally by the parties holding each data
+ * set (see {@link #FTest(SampleSummary...)}).
  */
 public class FTest implements Computation<SFixed, ProtocolBuilderNumeric> {
 
   private final List<List<DRes<SFixed>>> observed;
+  private final List<SampleSummary> summaries;
 
   public FTest(List<List<DRes<SFixed>>> observed) {
+    this(observed, null);
+  }
+
+  private FTest(List<List<DRes<SFixed>>> observed, List<SampleSummary> summaries) {
     this.observed = observed;
+    this.summaries = summaries;
+  }
+
+  /** Compute the F-test from summaries of the data sets. */
+  public FTest(SampleSummary... summaries) {
+    this(null, validate(summaries));
+  }
+
+  private static List<SampleSummary> validate(SampleSummary[] summaries) {
+    if (Objects.isNull(summaries) || summaries.length < 2) {
+      throw new IllegalArgumentException("At least two samples are needed");
+    }
+    if (Arrays.stream(summaries).anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("The summaries must not be null");
+    }
+    if (Arrays.stream(summaries).mapToInt(SampleSummary::getSize).sum() <= summaries.length) {
+      throw new IllegalArgumentException(
+          "The total number of observations must exceed the number of samples");
+    }
+    return List.of(summaries);
   }
 
   @Override
   public DRes<SFixed> buildComputation(ProtocolBuilderNumeric builder) {
-    int n = observed.stream().map(List::size).mapToInt(Integer::intValue).sum();
-    int f1 = n - observed.size(); // degrees of freedom
+    int[] sizes = Objects.nonNull(summaries)
+        ? summaries.stream().mapToInt(SampleSummary::getSize).toArray()
+        : observed.stream().mapToInt(List::size).toArray();
+    int k = sizes.length;
+    int n = Arrays.stream(sizes).sum();
+    int f1 = n - k; // degrees of freedom
 
     return builder.par(par -> {
 
       // Keep helper values throughout the computation
       State state = new State();
 
-      for (List<DRes<SFixed>> sample : observed) {
-        state.sums.add(AdvancedFixedNumeric.using(par).sum(sample));
-        state.uss.add(new USS(sample).buildComputation(par));
+      if (Objects.nonNull(summaries)) {
+        for (SampleSummary summary : summaries) {
+          state.sums.add(summary.getSum());
+          state.uss.add(summary.getSumOfSquares());
+        }
+      } else {
+        for (List<DRes<SFixed>> sample : observed) {
+          state.sums.add(AdvancedFixedNumeric.using(par).sum(sample));
+          state.uss.add(new USS(sample).buildComputation(par));
+        }
       }
 
       return DRes.of(state);
     }).par((par, state) -> {
 
-      for (int i = 0; i < observed.size(); i++) {
+      for (int i = 0; i < k; i++) {
         int finalI = i;
         par.seq(seq -> {
 
           FixedNumeric numeric = FixedNumeric.using(seq);
           DRes<SFixed> ratio = numeric
               .mult(state.sums.get(finalI), state.sums.get(finalI));
-          ratio = numeric.div(ratio, observed.get(finalI).size());
+          ratio = numeric.div(ratio, sizes[finalI]);
           DRes<SFixed> ssd = numeric.sub(state.uss.get(finalI), ratio);
 
           state.ssds.add(ssd);
@@ -76,7 +118,7 @@ public class FTest implements Computation<SFixed, ProtocolBuilderNumeric> {
         DRes<SFixed> ssd2 = FixedNumeric.using(seq).mult(state.sum, state.sum);
         ssd2 = FixedNumeric.using(seq).div(ssd2, n);
         ssd2 = FixedNumeric.using(seq).sub(state.sumOfRatios, ssd2);
-        return FixedNumeric.using(seq).div(ssd2, observed.size() - 1);
+        return FixedNumeric.using(seq).div(ssd2, k - 1);
       });
       state.s1 = par.seq(subSeq -> FixedNumeric.using(subSeq).div(state.ssd1, f1));
 
@@ -9,6 +9,7 @@ import dk.alexandra.fresco.lib.fixed.AdvancedFixedNumeric;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.descriptive.Ranks;
+import dk.alexandra.fresco.stat.descriptive.sort.SortedColumn;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,9 +28,30 @@ import java.util.stream.Collectors;
 public class KruskallWallisTest implements Computation<SFixed, ProtocolBuilderNumeric> {
 
   private final List<List<DRes<SInt>>> observed;
+  private final SortedColumn sorted;
+  private final List<Integer> sampleSizes;
 
   public KruskallWallisTest(List<List<DRes<SInt>>> observed) {
     this.observed = observed;
+    this.sorted = null;
+    this.sampleSizes = observed.stream().map(List::size).collect(Collectors.toList());
+  }
+
+  /**
+   * Compute the test statistic from a column which has already been sorted, eg. if the same column
+   * is also used to compute medians or quantiles. The column must be the concatenation of the
+   * samples whose sizes are given.
+   *
+   * @param sorted      The sorted concatenation of the samples.
+   * @param sampleSizes The size of each sample.
+   */
+  public KruskallWallisTest(SortedColumn sorted, List<Integer> sampleSizes) {
+    if (sampleSizes.stream().mapToInt(Integer::intValue).sum() != sorted.size()) {
+      throw new IllegalArgumentException("The sample sizes must sum to the size of the column");
+    }
+    this.observed = null;
+    this.sorted = sorted;
+    this.sampleSizes = sampleSizes;
   }
 
   /**
@@ -48,11 +70,11 @@ public class KruskallWallisTest implements Computation<SFixed, ProtocolBuilderNu
 
   @Override
   public DRes<SFixed> buildComputation(ProtocolBuilderNumeric builder) {
-    int groups = observed.size();
-    int N = observed.stream().mapToInt(List::size).sum();
+    int groups = sampleSizes.size();
+    int N = sampleSizes.stream().mapToInt(Integer::intValue).sum();
 
-    return builder.seq(seq -> new Ranks(observed)
-        .buildComputation(seq)).par((par, ranks) -> {
+    return builder.seq(seq -> (sorted != null ? new Ranks(sorted, sampleSizes)
+        : new Ranks(observed)).buildComputation(seq)).par((par, ranks) -> {
       List<DRes<SFixed>> squared = ranks.getFirst().stream()
           .map(rank -> FixedNumeric.using(par).mult(rank, rank))
           .collect(
@@ -62,7 +84,7 @@ public class KruskallWallisTest implements Computation<SFixed, ProtocolBuilderNu
       List<DRes<SFixed>> squaredAverages = new ArrayList<>();
       for (int i = 0; i < groups; i++) {
         squaredAverages
-            .add(FixedNumeric.using(par).div(squared.getFirst().get(i), observed.get(i).size()));
+            .add(FixedNumeric.using(par).div(squared.getFirst().get(i), sampleSizes.get(i)));
       }
       return Pair.lazy(squaredAverages, squared.getSecond());
     }).seq((seq, squaredAverages) -> {
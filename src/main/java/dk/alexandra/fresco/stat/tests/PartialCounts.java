@@ -0,0 +1,48 @@
+package dk.alexandra.fresco.stat.tests;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Bucket counts of observations distributed among several parties. Each party counts the
+ * observations it holds in each bucket locally and inputs only these counts. Since the counts are
+ * shared, the total count of each bucket is then computed locally as the sum of the partial counts.
+ */
+public class PartialCounts {
+
+  private final List<List<DRes<SInt>>> counts;
+
+  /**
+   * Create a new instance from the bucket counts of each party.
+   *
+   * @param counts A list of bucket counts for each party.
+   */
+  public PartialCounts(List<List<DRes<SInt>>> counts) {
+    if (Objects.isNull(counts) || counts.isEmpty()) {
+      throw new IllegalArgumentException("There must be counts from at least one party");
+    }
+    if (counts.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("The counts must not be null");
+    }
+    int buckets = counts.get(0).size();
+    if (buckets == 0) {
+      throw new IllegalArgumentException("There must be at least one bucket");
+    }
+    if (counts.stream().anyMatch(c -> c.size() != buckets)) {
+      throw new IllegalArgumentException("All parties must count the same number of buckets");
+    }
+    this.counts = counts;
+  }
+
+  /** The bucket counts of each party. */
+  public List<List<DRes<SInt>>> getCounts() {
+    return counts;
+  }
+
+  /** The number of buckets. */
+  public int getBuckets() {
+    return counts.get(0).size();
+  }
+}
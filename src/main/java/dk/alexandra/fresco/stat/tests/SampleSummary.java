@@ -0,0 +1,84 @@
+package dk.alexandra.fresco.stat.tests;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.lib.fixed.FixedNumeric;
+import dk.alexandra.fresco.lib.fixed.SFixed;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The size, sum and sum of squares of a sample. These are sufficient to compute the mean and
+ * variance of the sample, so if a sample is held entirely by one party, the party can compute the
+ * summary locally and input only this instead of every observation (see {@link #input(double[],
+ * int)}). The size of the sample is public as it is when the observations are input.
+ */
+public class SampleSummary {
+
+  private final int size;
+  private final DRes<SFixed> sum;
+  private final DRes<SFixed> sumOfSquares;
+
+  public SampleSummary(int size, DRes<SFixed> sum, DRes<SFixed> sumOfSquares) {
+    if (size < 1) {
+      throw new IllegalArgumentException("A sample must contain at least one observation");
+    }
+    if (Objects.isNull(sum) || Objects.isNull(sumOfSquares)) {
+      throw new IllegalArgumentException("The sums must not be null");
+    }
+    this.size = size;
+    this.sum = sum;
+    this.sumOfSquares = sumOfSquares;
+  }
+
+  /**
+   * Compute the summary of a sample locally and input it. This should be called by the party
+   * holding the sample while the other parties call {@link #input(int, int)}.
+   *
+   * @param sample The observations.
+   * @param party  The id of the party holding the sample.
+   */
+  public static Computation<SampleSummary, ProtocolBuilderNumeric> input(double[] sample,
+      int party) {
+    double sum = Arrays.stream(sample).sum();
+    double sumOfSquares = Arrays.stream(sample).map(x -> x * x).sum();
+    return builder -> input(sample.length, BigDecimal.valueOf(sum),
+        BigDecimal.valueOf(sumOfSquares), party, builder);
+  }
+
+  /**
+   * Input the summary of a sample of the given size held by another party.
+   *
+   * @param size  The size of the sample.
+   * @param party The id of the party holding the sample.
+   */
+  public static Computation<SampleSummary, ProtocolBuilderNumeric> input(int size, int party) {
+    return builder -> input(size, null, null, party, builder);
+  }
+
+  private static DRes<SampleSummary> input(int size, BigDecimal sum, BigDecimal sumOfSquares,
+      int party, ProtocolBuilderNumeric builder) {
+    return builder.par(par -> {
+      FixedNumeric fixedNumeric = FixedNumeric.using(par);
+      return DRes.of(new SampleSummary(size, fixedNumeric.input(sum, party),
+          fixedNumeric.input(sumOfSquares, party)));
+    });
+  }
+
+  /** The number of observations in the sample. */
+  public int getSize() {
+    return size;
+  }
+
+  /** The sum of the observations. */
+  public DRes<SFixed> getSum() {
+    return sum;
+  }
+
+  /** The sum of the squared observations. */
+  public DRes<SFixed> getSumOfSquares() {
+    return sumOfSquares;
+  }
+}
@@ -9,33 +9,71 @@ import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.Statistics;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * This implements the calculation of a t-test statistics for two samples where it can be assumed
  * that the variances are equal.
+ * <p>
+ * The samples may be given either as the observations or as {@link SampleSummary}'s, eg. computed
+ * locally by the parties holding each sample. In the latter case the means and variances are
+ * computed directly from the summaries at a cost independent of the sample sizes.
  */
 public class TwoSampleTTest implements Computation<SFixed, ProtocolBuilderNumeric> {
 
   private final List<DRes<SFixed>> data1;
   private final List<DRes<SFixed>> data2;
+  private final SampleSummary summary1;
+  private final SampleSummary summary2;
 
   public TwoSampleTTest(List<DRes<SFixed>> data1, List<DRes<SFixed>> data2) {
     this.data1 = data1;
     this.data2 = data2;
+    this.summary1 = null;
+    this.summary2 = null;
+  }
+
+  public TwoSampleTTest(SampleSummary summary1, SampleSummary summary2) {
+    if (Objects.isNull(summary1) || Objects.isNull(summary2)) {
+      throw new IllegalArgumentException("The summaries must not be null");
+    }
+    if (summary1.getSize() < 2 || summary2.getSize() < 2) {
+      throw new IllegalArgumentException("Each sample must contain at least two observations");
+    }
+    this.data1 = null;
+    this.data2 = null;
+    this.summary1 = summary1;
+    this.summary2 = summary2;
   }
 
   @Override
   public DRes<SFixed> buildComputation(ProtocolBuilderNumeric builder) {
-    return builder.par(par1 -> {
-      Statistics statistics = Statistics.using(par1);
-      DRes<SFixed> mean1 = statistics.sampleMean(data1);
-      DRes<SFixed> mean2 = statistics.sampleMean(data2);
-      return Pair.lazy(mean1, mean2);
-    }).par((par2, means) -> {
-      Statistics statistics = Statistics.using(par2);
-      DRes<SFixed> var1 = statistics.sampleVariance(data1, means.getFirst());
-      DRes<SFixed> var2 = statistics.sampleVariance(data2, means.getSecond());
-      return Pair.lazy(means, new Pair<>(var1, var2));
+    int size1 = Objects.nonNull(summary1) ? summary1.getSize() : data1.size();
+    int size2 = Objects.nonNull(summary2) ? summary2.getSize() : data2.size();
+
+    return builder.seq(seq -> {
+      if (Objects.nonNull(summary1)) {
+        return seq.par(par -> {
+          DRes<SFixed> mean1 = FixedNumeric.using(par).div(summary1.getSum(), size1);
+          DRes<SFixed> mean2 = FixedNumeric.using(par).div(summary2.getSum(), size2);
+          return Pair.lazy(mean1, mean2);
+        }).par((par, means) -> {
+          DRes<SFixed> var1 = par.seq(variance(summary1, means.getFirst()));
+          DRes<SFixed> var2 = par.seq(variance(summary2, means.getSecond()));
+          return Pair.lazy(means, new Pair<>(var1, var2));
+        });
+      }
+      return seq.par(par1 -> {
+        Statistics statistics = Statistics.using(par1);
+        DRes<SFixed> mean1 = statistics.sampleMean(data1);
+        DRes<SFixed> mean2 = statistics.sampleMean(data2);
+        return Pair.lazy(mean1, mean2);
+      }).par((par2, means) -> {
+        Statistics statistics = Statistics.using(par2);
+        DRes<SFixed> var1 = statistics.sampleVariance(data1, means.getFirst());
+        DRes<SFixed> var2 = statistics.sampleVariance(data2, means.getSecond());
+        return Pair.lazy(means, new Pair<>(var1, var2));
+      });
     }).seq((seq, des) -> {
       DRes<SFixed> mean1 = des.getFirst().getFirst();
       DRes<SFixed> mean2 = des.getFirst().getSecond();
@@ -45,21 +83,35 @@ public class TwoSampleTTest implements Computation<SFixed, ProtocolBuilderNumeri
       FixedNumeric numeric = FixedNumeric.using(seq);
       DRes<SFixed> n = numeric.sub(mean1, mean2);
       DRes<SFixed> d;
-      if (data1.size() == data2.size()) {
+      if (size1 == size2) {
         d = numeric.add(var1, var2);
         d = AdvancedFixedNumeric.using(seq).sqrt(d);
-        d = numeric.mult(1.0 / Math.sqrt(data1.size()), d);
+        d = numeric.mult(1.0 / Math.sqrt(size1), d);
       } else {
-        d = numeric.mult(data1.size() - 1, var1);
+        d = numeric.mult(size1 - 1, var1);
         d = numeric.add(d,
-            numeric.mult(data2.size() - 1, var2));
-        d = numeric.div(d, data1.size() + data2.size() - 2);
+            numeric.mult(size2 - 1, var2));
+        d = numeric.div(d, size1 + size2 - 2);
         d = AdvancedFixedNumeric.using(seq).sqrt(d);
         d = numeric
-            .mult(Math.sqrt(1.0 / data1.size() + 1.0 / data2.size()), d);
+            .mult(Math.sqrt(1.0 / size1 + 1.0 / size2), d);
       }
       return numeric.div(n, d);
     });
   }
 
+  /**
+   * The sample variance <i>(&Sigma; x<sub>i</sub><sup>2</sup> - &mu; &Sigma; x<sub>i</sub>) / (n -
+   * 1)</i> computed from a summary and the mean of the sample.
+   */
+  private static Computation<SFixed, ProtocolBuilderNumeric> variance(SampleSummary summary,
+      DRes<SFixed> mean) {
+    return builder -> {
+      FixedNumeric numeric = FixedNumeric.using(builder);
+      DRes<SFixed> ssd = numeric.sub(summary.getSumOfSquares(),
+          numeric.mult(mean, summary.getSum()));
+      return numeric.div(ssd, summary.getSize() - 1);
+    };
+  }
+
 }
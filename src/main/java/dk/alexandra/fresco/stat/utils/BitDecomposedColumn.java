@@ -0,0 +1,506 @@
+package dk.alexandra.fresco.stat.utils;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.compare.Comparison;
+import dk.alexandra.fresco.lib.common.math.AdvancedNumeric;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * A list of secret integers which have each been bit decomposed once, so each value may be
+ * compared to many public or secret thresholds using only multiplications. In comparison, each call
+ * to {@link Comparison#compareLEQ} masks and decomposes its input again. Both the decomposition and
+ * the comparisons use parallel prefix computations, so they require <i>O(log l)</i> rounds.
+ * <p>
+ * All values, and all thresholds they are compared to, must be in the range
+ * <i>[-2<sup>l-1</sup>, 2<sup>l-1</sup>)</i> where <i>l</i> is the bit length of the column. If
+ * not specified, the maximum bit length of the builder is used as for regular comparisons.
+ */
+public class BitDecomposedColumn {
+
+  /**
+   * The default statistical security parameter used when masking the values. This is the same as
+   * used for comparisons in FRESCO.
+   */
+  public static final int DEFAULT_STATISTICAL_SECURITY = 60;
+
+  private final List<List<DRes<SInt>>> bits;
+  private final int bitLength;
+
+  private BitDecomposedColumn(List<List<DRes<SInt>>> bits, int bitLength) {
+    this.bits = bits;
+    this.bitLength = bitLength;
+  }
+
+  /**
+   * Bit decompose the given values using the maximum bit length of the builder.
+   */
+  public static Computation<BitDecomposedColumn, ProtocolBuilderNumeric> decompose(
+      List<DRes<SInt>> values) {
+    return builder -> builder
+        .seq(decompose(values, builder.getBasicNumericContext().getMaxBitLength()));
+  }
+
+  /**
+   * Bit decompose the given values which must all be in the range <i>[-2<sup>l-1</sup>,
+   * 2<sup>l-1</sup>)</i> where <i>l</i> is the given bit length.
+   */
+  public static Computation<BitDecomposedColumn, ProtocolBuilderNumeric> decompose(
+      List<DRes<SInt>> values, int bitLength) {
+    return decompose(values, bitLength, DEFAULT_STATISTICAL_SECURITY);
+  }
+
+  /**
+   * Bit decompose the given values which must all be in the range <i>[-2<sup>l-1</sup>,
+   * 2<sup>l-1</sup>)</i> where <i>l</i> is the given bit length. The values are masked with
+   * random values which are <code>statisticalSecurity</code> bits longer than the values.
+   */
+  public static Computation<BitDecomposedColumn, ProtocolBuilderNumeric> decompose(
+      List<DRes<SInt>> values, int bitLength, int statisticalSecurity) {
+    return builder -> {
+      if (bitLength + statisticalSecurity >= builder.getBasicNumericContext().getModulus()
+          .bitLength()) {
+        throw new IllegalArgumentException("Bit length too large for the modulus");
+      }
+      return builder.par(par -> DRes.of(values.stream()
+          .map(value -> par.seq(new DecomposeValue(value, bitLength, statisticalSecurity)))
+          .collect(Collectors.toList())))
+          .seq((seq, decomposed) -> DRes.of(new BitDecomposedColumn(
+              decomposed.stream().map(DRes::out).collect(Collectors.toList()), bitLength)));
+    };
+  }
+
+  /** The number of values in this column. */
+  public int size() {
+    return bits.size();
+  }
+
+  public int getBitLength() {
+    return bitLength;
+  }
+
+  /**
+   * The bits of the <i>i</i>'th value offset by <i>2<sup>l-1</sup></i>, least significant bit
+   * first.
+   */
+  public List<DRes<SInt>> getBits(int i) {
+    return bits.get(i);
+  }
+
+  /**
+   * A column containing <i>&lfloor;x / 2<sup>n</sup>&rfloor;</i> for each value <i>x</i> in this
+   * column. This is free since it amounts to discarding the <i>n</i> least significant bits.
+   */
+  public BitDecomposedColumn shiftRight(int n) {
+    if (n < 0 || n >= bitLength) {
+      throw new IllegalArgumentException("Shift must be between 0 and " + (bitLength - 1));
+    }
+    return new BitDecomposedColumn(bits.stream().map(b -> b.subList(n, bitLength))
+        .collect(Collectors.toList()), bitLength - n);
+  }
+
+  /**
+   * Compare the <i>i</i>'th value <i>x</i> with each of the given public values. The result
+   * contains <i>[x = v]</i> for each value <i>v</i>, so if the values are distinct, it is a one-hot
+   * encoding of <i>x</i> if <i>x</i> is among the values and all zeros otherwise.
+   */
+  public Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> equalTo(int i,
+      List<BigInteger> values) {
+    return new EqualsKnown(bits.get(i),
+        values.stream().map(this::offset).collect(Collectors.toList()));
+  }
+
+  /**
+   * Compare the <i>i</i>'th value <i>x</i> with each of the given public thresholds. The result
+   * contains <i>[x &le; t]</i> for each threshold <i>t</i>.
+   */
+  public Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> leq(int i,
+      List<BigInteger> thresholds) {
+    // x <= t iff x < t + 1
+    return new LessThanKnown(bits.get(i), thresholds.stream().map(t -> offset(t.add(BigInteger.ONE)))
+        .collect(Collectors.toList()), false);
+  }
+
+  /**
+   * Compare the <i>i</i>'th value <i>x</i> with each of the given public thresholds. The result
+   * contains <i>[t &le; x]</i> for each threshold <i>t</i>.
+   */
+  public Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> geq(int i,
+      List<BigInteger> thresholds) {
+    // t <= x iff not x < t
+    return new LessThanKnown(bits.get(i),
+        thresholds.stream().map(this::offset).collect(Collectors.toList()), true);
+  }
+
+  /**
+   * Compare the <i>i</i>'th value <i>x</i> with each value in the given column of secret
+   * thresholds. The result contains <i>[x &le; t]</i> for each threshold <i>t</i>.
+   */
+  public Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> leq(int i,
+      BitDecomposedColumn thresholds) {
+    // x <= t iff not t < x
+    return compare(i, thresholds, true);
+  }
+
+  /**
+   * Compare the <i>i</i>'th value <i>x</i> with each value in the given column of secret
+   * thresholds. The result contains <i>[t &le; x]</i> for each threshold <i>t</i>.
+   */
+  public Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> geq(int i,
+      BitDecomposedColumn thresholds) {
+    // t <= x iff not x < t
+    return compare(i, thresholds, false);
+  }
+
+  private Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> compare(int i,
+      BitDecomposedColumn thresholds, boolean thresholdFirst) {
+    if (thresholds.bitLength != bitLength) {
+      throw new IllegalArgumentException("Columns must have the same bit length");
+    }
+    return builder -> builder.par(par -> DRes.of(thresholds.bits.stream()
+        .map(t -> thresholdFirst ? new LessThan(t, bits.get(i)) : new LessThan(bits.get(i), t))
+        .map(lessThan -> par.seq(lessThan).seq((seq, lt) -> seq.numeric().sub(1, lt)))
+        .collect(Collectors.toList())));
+  }
+
+  private BigInteger offset(BigInteger value) {
+    return value.add(BigInteger.ONE.shiftLeft(bitLength - 1));
+  }
+
+  /**
+   * Compute the bits of <i>x + 2<sup>l-1</sup></i> by opening it masked with a random value with
+   * known bit decomposition and subtracting the mask bitwise. The borrows are computed with a
+   * parallel prefix computation, so this requires <i>O(log l)</i> rounds.
+   */
+  private static class DecomposeValue implements
+      Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+    private final DRes<SInt> value;
+    private final int bitLength;
+    private final int statisticalSecurity;
+
+    private DecomposeValue(DRes<SInt> value, int bitLength, int statisticalSecurity) {
+      this.value = value;
+      this.bitLength = bitLength;
+      this.statisticalSecurity = statisticalSecurity;
+    }
+
+    @Override
+    public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+      return builder
+          .seq(seq -> AdvancedNumeric.using(seq).additiveMask(bitLength + statisticalSecurity))
+          .seq((seq, mask) -> {
+            DRes<SInt> offsetValue = seq.numeric()
+                .add(BigInteger.ONE.shiftLeft(bitLength - 1), value);
+            DRes<BigInteger> masked = seq.numeric().open(seq.numeric().add(offsetValue,
+                mask.random));
+            return Pair.lazy(masked, mask.bits);
+          }).seq((seq, maskedAndBits) -> {
+            BigInteger masked = maskedAndBits.getFirst().out();
+            List<DRes<SInt>> maskBits = maskedAndBits.getSecond().subList(0, bitLength);
+
+            // Compute masked - mask mod 2^l. Bit i generates a borrow if the masked bit is zero
+            // and the mask bit is one, and propagates a borrow if the masked bit equals one minus
+            // the mask bit. These are never both one, so the borrow out of bit i is g_i + p_i b_i.
+            List<DRes<SInt>> generate = new ArrayList<>(bitLength);
+            List<DRes<SInt>> propagate = new ArrayList<>(bitLength);
+            for (int i = 0; i < bitLength; i++) {
+              DRes<SInt> r = maskBits.get(i);
+              generate.add(masked.testBit(i) ? null : r);
+              propagate.add(masked.testBit(i) ? r : seq.numeric().sub(1, r));
+            }
+            List<DRes<SInt>> borrows = borrows(seq, generate, propagate);
+
+            return seq.par(par -> DRes.of(VectorUtils.listBuilder(bitLength, i -> {
+              DRes<SInt> r = maskBits.get(i);
+              DRes<SInt> borrow = i == 0 ? null : borrows.get(i - 1);
+              return par.seq(sub -> {
+                DRes<SInt> xor = borrow == null ? r : sub.numeric().sub(
+                    sub.numeric().add(r, borrow), sub.numeric().mult(2, sub.numeric()
+                        .mult(r, borrow)));
+                return masked.testBit(i) ? sub.numeric().sub(1, xor) : xor;
+              });
+            })));
+          });
+    }
+  }
+
+  /**
+   * Given generate and propagate bits for each position, compute the borrow out of each position
+   * using a Sklansky parallel prefix computation with <i>log l</i> layers. A <code>null</code>
+   * generate bit indicates that it is known to be zero. The lists are updated in place, and the
+   * returned list is filled when the layers added to the builder have been evaluated.
+   */
+  private static List<DRes<SInt>> borrows(ProtocolBuilderNumeric builder,
+      List<DRes<SInt>> generate, List<DRes<SInt>> propagate) {
+    int l = generate.size();
+    for (int d = 1; d < l; d *= 2) {
+      int distance = d;
+      builder.par(par -> {
+        for (int i = 0; i < l; i++) {
+          if ((i & distance) == 0) {
+            continue;
+          }
+          // Combine with the last position of the lower half of the block containing i
+          int j = (i & -distance) - 1;
+          DRes<SInt> gi = generate.get(i);
+          DRes<SInt> pi = propagate.get(i);
+          DRes<SInt> gj = generate.get(j);
+          DRes<SInt> pj = propagate.get(j);
+          if (gj != null) {
+            generate.set(i, par.seq(sub -> gi == null ? sub.numeric().mult(pi, gj)
+                : sub.numeric().add(gi, sub.numeric().mult(pi, gj))));
+          }
+          propagate.set(i, par.numeric().mult(pi, pj));
+        }
+        return null;
+      });
+    }
+    return generate;
+  }
+
+  /**
+   * Compute the products <i>&prod;<sub>i &ge; k</sub> f(i, v<sub>i</sub>)</i> for all levels
+   * <i>k</i> and all the given public values <i>v</i> in the range <i>[0, 2<sup>l</sup>)</i>,
+   * where <i>v<sub>i</sub></i> is the <i>i</i>'th bit of <i>v</i>. Values sharing a prefix share
+   * the product. The <i>k</i>'th map sends a prefix <i>v &gt;&gt; k</i> to its product, and the
+   * first level is only computed for values accepted by <code>includeFirstLevel</code>.
+   * <p>
+   * The products of aligned blocks of factors of size 1, 2, 4, ... are computed first and then
+   * combined from the most significant block and down, so this requires <i>2 log l</i> rounds. The
+   * maps are filled when the layers added to the builder have been evaluated.
+   */
+  private static List<Map<BigInteger, DRes<SInt>>> suffixProducts(ProtocolBuilderNumeric builder,
+      int l, List<BigInteger> values, Predicate<BigInteger> includeFirstLevel, Factor factor) {
+    BigInteger max = BigInteger.ONE.shiftLeft(l);
+    List<BigInteger> inRange = values.stream()
+        .filter(v -> v.signum() >= 0 && v.compareTo(max) < 0).distinct()
+        .collect(Collectors.toList());
+    int depth = 32 - Integer.numberOfLeadingZeros(l - 1);
+
+    // blocks.get(j).get(a) sends the bits of v in [a, a + 2^j) to the product of their factors
+    List<Map<Integer, Map<BigInteger, DRes<SInt>>>> blocks = new ArrayList<>();
+    for (int j = 0; j <= depth; j++) {
+      blocks.add(new HashMap<>());
+    }
+    builder.par(par -> {
+      for (BigInteger v : inRange) {
+        for (int a = 0; a < l; a++) {
+          boolean bit = v.testBit(a);
+          int position = a;
+          blocks.get(0).computeIfAbsent(a, key -> new HashMap<>())
+              .computeIfAbsent(bit ? BigInteger.ONE : BigInteger.ZERO,
+                  key -> par.seq(sub -> factor.apply(sub, position, bit)));
+        }
+      }
+      return null;
+    });
+    for (int j = 1; j <= depth; j++) {
+      int level = j;
+      int size = 1 << (j - 1);
+      builder.par(par -> {
+        for (BigInteger v : inRange) {
+          for (int a = 0; a < l; a += 2 * size) {
+            DRes<SInt> low = blocks.get(level - 1).get(a).get(bitsOf(v, a, size));
+            DRes<SInt> high = a + size < l
+                ? blocks.get(level - 1).get(a + size).get(bitsOf(v, a + size, size)) : null;
+            blocks.get(level).computeIfAbsent(a, key -> new HashMap<>())
+                .computeIfAbsent(bitsOf(v, a, 2 * size),
+                    key -> high == null ? low : par.numeric().mult(low, high));
+          }
+        }
+        return null;
+      });
+    }
+
+    List<Map<BigInteger, DRes<SInt>>> prefixes = new ArrayList<>();
+    for (int k = 0; k < l; k++) {
+      prefixes.add(new HashMap<>());
+    }
+    builder.par(par -> {
+      for (BigInteger v : inRange) {
+        if (includeFirstLevel.test(v)) {
+          prefixes.get(0).put(v, blocks.get(depth).get(0).get(v));
+        }
+      }
+      return null;
+    });
+    for (int j = depth - 1; j >= 0; j--) {
+      int level = j;
+      int size = 1 << j;
+      builder.par(par -> {
+        for (BigInteger v : inRange) {
+          // The suffix starting at an odd multiple a of the block size is the block at a times
+          // the suffix starting at a + size which has been computed in a previous layer
+          for (int a = size; a < l; a += 2 * size) {
+            DRes<SInt> block = blocks.get(level).get(a).get(bitsOf(v, a, size));
+            DRes<SInt> rest = a + size < l
+                ? prefixes.get(a + size).get(v.shiftRight(a + size)) : null;
+            prefixes.get(a).computeIfAbsent(v.shiftRight(a),
+                key -> rest == null ? block : par.numeric().mult(block, rest));
+          }
+        }
+        return null;
+      });
+    }
+    return prefixes;
+  }
+
+  /** The <code>size</code> bits of <code>v</code> starting from the <code>a</code>'th. */
+  private static BigInteger bitsOf(BigInteger v, int a, int size) {
+    return v.shiftRight(a).and(BigInteger.ONE.shiftLeft(size).subtract(BigInteger.ONE));
+  }
+
+  /**
+   * Compute the indicators <i>[x &gt;&gt; k = v &gt;&gt; k]</i> for all levels <i>k</i> and all
+   * the given public values <i>v</i> in the range <i>[0, 2<sup>l</sup>)</i>, where <i>x</i> is
+   * given by its bits (see {@link #suffixProducts}). The <i>k</i>'th map sends a prefix <i>v
+   * &gt;&gt; k</i> to its indicator, and the last level is only computed for values accepted by
+   * <code>includeLastLevel</code>.
+   */
+  private static List<Map<BigInteger, DRes<SInt>>> prefixIndicators(ProtocolBuilderNumeric builder,
+      List<DRes<SInt>> bits, List<BigInteger> values, Predicate<BigInteger> includeLastLevel) {
+    return suffixProducts(builder, bits.size(), values, includeLastLevel,
+        (sub, i, bit) -> bit ? bits.get(i) : sub.numeric().sub(1, bits.get(i)));
+  }
+
+  @FunctionalInterface
+  private interface Factor {
+
+    DRes<SInt> apply(ProtocolBuilderNumeric builder, int i, boolean bit);
+  }
+
+  /**
+   * Given the bits of a secret value <i>x</i>, compute <i>[x = v]</i> for a list of public values
+   * <i>v</i>.
+   */
+  private static class EqualsKnown implements
+      Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+    private final List<DRes<SInt>> bits;
+    private final List<BigInteger> values;
+
+    private EqualsKnown(List<DRes<SInt>> bits, List<BigInteger> values) {
+      this.bits = bits;
+      this.values = values;
+    }
+
+    @Override
+    public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+      BigInteger max = BigInteger.ONE.shiftLeft(bits.size());
+      return builder.seq(seq -> {
+        List<Map<BigInteger, DRes<SInt>>> prefixes = prefixIndicators(seq, bits, values,
+            v -> true);
+        return seq.par(par -> DRes.of(values.stream()
+            .map(v -> v.signum() < 0 || v.compareTo(max) >= 0 ? par.numeric().known(0)
+                : prefixes.get(0).get(v))
+            .collect(Collectors.toList())));
+      });
+    }
+  }
+
+  /**
+   * Given the bits of a secret value <i>x</i>, compute <i>[x &lt; t]</i> for a list of public
+   * thresholds <i>t</i>, or the negation if <code>negate</code> is true. Thresholds sharing a
+   * prefix share the computation of the indicator that <i>x</i> has the same prefix.
+   */
+  private static class LessThanKnown implements
+      Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+    private final List<DRes<SInt>> bits;
+    private final List<BigInteger> thresholds;
+    private final boolean negate;
+
+    private LessThanKnown(List<DRes<SInt>> bits, List<BigInteger> thresholds, boolean negate) {
+      this.bits = bits;
+      this.thresholds = thresholds;
+      this.negate = negate;
+    }
+
+    @Override
+    public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+      int l = bits.size();
+      BigInteger max = BigInteger.ONE.shiftLeft(l);
+      return builder.seq(seq -> {
+        List<Map<BigInteger, DRes<SInt>>> prefixes = prefixIndicators(seq, bits,
+            thresholds.stream().filter(t -> t.signum() > 0).collect(Collectors.toList()),
+            // The last prefix is only needed if the last bit is set
+            t -> t.testBit(0));
+
+        return seq.par(par -> {
+          List<DRes<SInt>> result = new ArrayList<>();
+          for (BigInteger t : thresholds) {
+            DRes<SInt> lessThan;
+            if (t.signum() <= 0) {
+              lessThan = par.numeric().known(0);
+            } else if (t.compareTo(max) >= 0) {
+              lessThan = par.numeric().known(1);
+            } else {
+              // x < t iff x and t agree on the bits above some i where t has a one and x a zero
+              lessThan = par.numeric().known(0);
+              for (int i = 0; i < l; i++) {
+                if (t.testBit(i)) {
+                  DRes<SInt> above = i == l - 1 ? par.numeric().known(1)
+                      : prefixes.get(i + 1).get(t.shiftRight(i + 1));
+                  lessThan = par.numeric().add(lessThan,
+                      par.numeric().sub(above, prefixes.get(i).get(t.shiftRight(i))));
+                }
+              }
+            }
+            result.add(negate ? par.numeric().sub(1, lessThan) : lessThan);
+          }
+          return DRes.of(result);
+        });
+      });
+    }
+  }
+
+  /**
+   * Given the bits of two secret values <i>x</i> and <i>y</i>, compute <i>[x &lt; y]</i>.
+   */
+  private static class LessThan implements Computation<SInt, ProtocolBuilderNumeric> {
+
+    private final List<DRes<SInt>> x;
+    private final List<DRes<SInt>> y;
+
+    private LessThan(List<DRes<SInt>> x, List<DRes<SInt>> y) {
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override
+    public DRes<SInt> buildComputation(ProtocolBuilderNumeric builder) {
+      int l = x.size();
+      return builder.par(par -> DRes.of(VectorUtils.mult(x, y, par))).seq((seq, products) -> {
+
+        // Indicators that x and y agree on all bits from the i'th and up, where
+        // [x_i = y_i] = 1 - x_i - y_i + 2 x_i y_i
+        List<Map<BigInteger, DRes<SInt>>> agree = suffixProducts(seq, l,
+            List.of(BigInteger.ZERO), v -> false,
+            (sub, i, bit) -> sub.numeric().add(1, sub.numeric().sub(
+                sub.numeric().mult(2, products.get(i)), sub.numeric().add(x.get(i), y.get(i)))));
+        return Pair.lazy(agree, products);
+
+      }).par((par, agreeAndProducts) -> {
+        // x < y iff they agree on the bits above some i where y has a one and x a zero. Note that
+        // y_i (1 - x_i) = y_i - x_i y_i.
+        List<Map<BigInteger, DRes<SInt>>> agree = agreeAndProducts.getFirst();
+        List<DRes<SInt>> products = agreeAndProducts.getSecond();
+        return DRes.of(VectorUtils.<DRes<SInt>>listBuilder(l, i -> par.seq(sub -> {
+          DRes<SInt> term = sub.numeric().sub(y.get(i), products.get(i));
+          return i == l - 1 ? term
+              : sub.numeric().mult(agree.get(i + 1).get(BigInteger.ZERO), term);
+        })));
+      }).seq((seq, terms) -> AdvancedNumeric.using(seq).sum(terms));
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package dk.alexandra.fresco.stat.utils;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * A keyed deterministic encoding of secret values which may be opened to find equal values in the
+ * clear: Equal values have equal encodings, and with overwhelming probability distinct values have
+ * distinct encodings. Besides this, the encodings reveal nothing about the values.
+ * <p>
+ * The key is sampled in a separate step the first time values are encoded and is reused for all
+ * values encoded by the same instance, so an instance should not be used from computations running
+ * in parallel before it has been used once.
+ */
+public interface DeterministicEncoder {
+
+  /**
+   * Encode the given values and open the encodings.
+   */
+  Computation<List<BigInteger>, ProtocolBuilderNumeric> encodeAndOpen(List<DRes<SInt>> values);
+
+}
@@ -0,0 +1,67 @@
+package dk.alexandra.fresco.stat.utils;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Opened deterministic encodings of secret values using a {@link DeterministicEncoder}. Since the
+ * encoding is deterministic, two values are equal if and only if their encodings are, so the
+ * encodings may be used to find equal values in the clear.
+ * <p>
+ * The encodings are cached by the identity of the secret values, so a column which is used by
+ * several computations, eg. the time column in each iteration of a Cox regression, is only
+ * encoded once. Since the key is shared, the equality of any two values encoded using the same
+ * cache is leaked, so a cache should only be shared between computations where this is acceptable.
+ * A cache is only valid in the session where it was created, and it should not be used from
+ * computations running in parallel.
+ */
+public class DeterministicEncryptionCache {
+
+  private final DeterministicEncoder encoder;
+  private final Map<DRes<SInt>, BigInteger> ciphertexts;
+
+  /** Create a new cache using MiMC encryption. */
+  public DeterministicEncryptionCache() {
+    this(new MiMCEncoder());
+  }
+
+  /** Create a new cache using the given encoder. */
+  public DeterministicEncryptionCache(DeterministicEncoder encoder) {
+    this.encoder = encoder;
+    this.ciphertexts = new IdentityHashMap<>();
+  }
+
+  /**
+   * Encode and open the given values. Values which have already been encoded using this cache are
+   * not encoded again.
+   */
+  public Computation<List<BigInteger>, ProtocolBuilderNumeric> encryptAndOpen(
+      List<DRes<SInt>> values) {
+    return builder -> {
+      Set<DRes<SInt>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+      List<DRes<SInt>> missing = values.stream()
+          .filter(value -> !ciphertexts.containsKey(value) && seen.add(value))
+          .collect(Collectors.toList());
+      return builder.seq(encoder.encodeAndOpen(missing)).seq((seq, encodings) -> {
+        for (int i = 0; i < missing.size(); i++) {
+          ciphertexts.put(missing.get(i), encodings.get(i));
+        }
+        return DRes.of(values.stream().map(ciphertexts::get).collect(Collectors.toList()));
+      });
+    };
+  }
+
+  /** The number of values which have been encoded using this cache. */
+  public int size() {
+    return ciphertexts.size();
+  }
+}
@@ -0,0 +1,122 @@
+package dk.alexandra.fresco.stat.utils;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Encode values using the Legendre PRF: The <i>j</i>'th bit of the encoding of <i>x</i> is the
+ * Legendre symbol of <i>x + k<sub>j</sub></i> for secret random keys <i>k<sub>j</sub></i>. Each
+ * symbol is computed by opening <i>(x + k<sub>j</sub>) r<sup>2</sup></i> for a random
+ * <i>r</i>, which has the same Legendre symbol as <i>x + k<sub>j</sub></i> but is otherwise
+ * uniformly random.
+ * <p>
+ * This requires a constant number of rounds, independent of the modulus, but one multiplication per
+ * bit of the encoding for each value. Distinct values get the same encoding with probability
+ * roughly <i>2<sup>-b</sup></i> where <i>b</i> is the number of bits.
+ * <p>
+ * The keys are sampled in a separate step the first time values are encoded and are reused
+ * afterwards. An instance should therefore not be used from computations running in parallel
+ * before it has been used once, since one of them could use keys which have not been sampled
+ * yet.
+ */
+public class LegendreEncoder implements DeterministicEncoder {
+
+  private final int bits;
+  private List<DRes<SInt>> keys;
+
+  public LegendreEncoder() {
+    this(64);
+  }
+
+  /**
+   * @param bits The number of bits in the encodings.
+   */
+  public LegendreEncoder(int bits) {
+    this.bits = bits;
+  }
+
+  @Override
+  public Computation<List<BigInteger>, ProtocolBuilderNumeric> encodeAndOpen(
+      List<DRes<SInt>> values) {
+    return builder -> {
+      BigInteger modulus = builder.getBasicNumericContext().getModulus();
+
+      return builder.seq(seq -> {
+        // The keys are sampled before any values are encoded
+        if (keys == null) {
+          keys = IntStream.range(0, bits).mapToObj(j -> seq.numeric().randomElement())
+              .collect(Collectors.toList());
+        }
+        return () -> keys;
+      }).par((par, sampled) -> {
+        // Random squares to mask the shifted values before opening
+        List<List<DRes<SInt>>> squares = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+          List<DRes<SInt>> row = new ArrayList<>();
+          for (int j = 0; j < bits; j++) {
+            row.add(par.seq(seq -> {
+              DRes<SInt> r = seq.numeric().randomElement();
+              return seq.numeric().mult(r, r);
+            }));
+          }
+          squares.add(row);
+        }
+        return DRes.of(squares);
+      }).par((par, squares) -> {
+        List<List<DRes<BigInteger>>> opened = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+          DRes<SInt> value = values.get(i);
+          List<DRes<BigInteger>> row = new ArrayList<>();
+          for (int j = 0; j < bits; j++) {
+            DRes<SInt> square = squares.get(i).get(j);
+            DRes<SInt> key = keys.get(j);
+            row.add(par.seq(seq -> seq.numeric()
+                .open(seq.numeric().mult(square, seq.numeric().add(value, key)))));
+          }
+          opened.add(row);
+        }
+        return DRes.of(opened);
+      }).seq((seq, opened) -> DRes.of(opened.stream().map(symbols -> {
+        BigInteger encoding = BigInteger.ZERO;
+        for (int j = 0; j < bits; j++) {
+          if (jacobi(symbols.get(j).out(), modulus) == 1) {
+            encoding = encoding.setBit(j);
+          }
+        }
+        return encoding;
+      }).collect(Collectors.toList())));
+    };
+  }
+
+  /**
+   * Compute the Jacobi symbol <i>(a / n)</i> for an odd positive <i>n</i>. If <i>n</i> is a prime
+   * this is equal to the Legendre symbol.
+   */
+  static int jacobi(BigInteger a, BigInteger n) {
+    a = a.mod(n);
+    int result = 1;
+    while (a.signum() != 0) {
+      int twos = a.getLowestSetBit();
+      a = a.shiftRight(twos);
+      int nMod8 = n.intValue() & 7;
+      if (twos % 2 == 1 && (nMod8 == 3 || nMod8 == 5)) {
+        result = -result;
+      }
+      BigInteger t = a;
+      a = n;
+      n = t;
+      if ((a.intValue() & 3) == 3 && (n.intValue() & 3) == 3) {
+        result = -result;
+      }
+      a = a.mod(n);
+    }
+    return n.equals(BigInteger.ONE) ? result : 0;
+  }
+}
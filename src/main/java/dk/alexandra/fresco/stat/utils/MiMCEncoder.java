@@ -0,0 +1,41 @@
+package dk.alexandra.fresco.stat.utils;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.mimc.MiMCEncryption;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Encode values using MiMC encryption. The number of rounds is linear in the bit length of the
+ * modulus, but each value only costs one multiplication per round.
+ * <p>
+ * The key is sampled in a separate step the first time values are encoded and is reused
+ * afterwards. An instance should therefore not be used from computations running in parallel
+ * before it has been used once, since one of them could use a key which has not been sampled
+ * yet.
+ */
+public class MiMCEncoder implements DeterministicEncoder {
+
+  private DRes<SInt> key;
+
+  @Override
+  public Computation<List<BigInteger>, ProtocolBuilderNumeric> encodeAndOpen(
+      List<DRes<SInt>> values) {
+    return builder -> builder.seq(seq -> {
+      // The key is sampled before any values are encoded
+      if (key == null) {
+        key = seq.numeric().randomElement();
+      }
+      return key;
+    }).par((par, sampled) -> {
+      List<DRes<BigInteger>> opened = values.stream().map(value -> par.seq(seq -> seq.numeric()
+          .open(seq.seq(new MiMCEncryption(value, key))))).collect(Collectors.toList());
+      return DRes.of(opened);
+    }).seq((seq, opened) -> DRes.of(opened.stream().map(DRes::out)
+        .collect(Collectors.toList())));
+  }
+}
@@ -0,0 +1,260 @@
+package dk.alexandra.fresco.stat.utils;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Permute the rows of a matrix by a permutation known only to one party using a Waksman network
+ * of arbitrary size. Unlike {@link dk.alexandra.fresco.lib.common.collections.Collections#permute},
+ * the height of the matrix does not have to be a two power.
+ * <p>
+ * A network of size <i>n</i> consists of a layer of <i>&lfloor;n/2&rfloor;</i> input switches, a
+ * network of size <i>&lfloor;n/2&rfloor;</i> and one of size <i>&lceil;n/2&rceil;</i> evaluated in
+ * parallel, and a layer of output switches. For even <i>n</i> the last output switch is omitted, so
+ * the network has at most <i>n log<sub>2</sub> n - n + 1</i> switches and depth <i>2
+ * log<sub>2</sub> n - 1</i>. The party knowing the permutation computes the control bits of the
+ * switches and inputs them, and each switch costs one multiplication per column.
+ */
+public class PermutationNetwork implements
+    Computation<Matrix<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SInt>> values;
+  private final int[] permutation;
+  private final int permutationProvider;
+
+  /**
+   * Permute the rows of a matrix such that row <i>i</i> is moved to row <i>permutation[i]</i>. This
+   * should be called by the party knowing the permutation.
+   */
+  public PermutationNetwork(Matrix<DRes<SInt>> values, int[] permutation) {
+    if (permutation.length != values.getHeight()) {
+      throw new IllegalArgumentException(
+          "Expected a permutation of size " + values.getHeight() + " but got " + permutation.length);
+    }
+    this.values = values;
+    this.permutation = permutation;
+    this.permutationProvider = -1;
+  }
+
+  /**
+   * Permute the rows of a matrix by a permutation known by the given party. This should be called
+   * by all other parties.
+   */
+  public PermutationNetwork(Matrix<DRes<SInt>> values, int permutationProvider) {
+    this.values = values;
+    this.permutation = null;
+    this.permutationProvider = permutationProvider;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    int n = values.getHeight();
+    int width = values.getWidth();
+    int provider = permutation != null ? builder.getBasicNumericContext().getMyId()
+        : permutationProvider;
+
+    return builder.par(par -> {
+      List<DRes<SInt>> bits;
+      if (permutation != null) {
+        boolean[] controlBits = new boolean[switches(n)];
+        route(permutation, controlBits, 0);
+        bits = IntStream.range(0, controlBits.length).mapToObj(i -> par.numeric()
+            .input(controlBits[i] ? BigInteger.ONE : BigInteger.ZERO, provider))
+            .collect(Collectors.toList());
+      } else {
+        bits = IntStream.range(0, switches(n)).mapToObj(i -> par.numeric().input(null, provider))
+            .collect(Collectors.toList());
+      }
+      return DRes.of(bits);
+    }).seq((seq, bits) -> evaluate(seq, values.getRows(), bits, 0))
+        .seq((seq, rows) -> DRes.of(MatrixUtils.buildMatrix(n, width,
+            (i, j) -> rows.get(i).get(j))));
+  }
+
+  /** The number of switches in a network of size <i>n</i>. */
+  static int switches(int n) {
+    if (n <= 1) {
+      return 0;
+    }
+    if (n == 2) {
+      return 1;
+    }
+    return n / 2 + outputSwitches(n) + switches(n / 2) + switches(n - n / 2);
+  }
+
+  private static int outputSwitches(int n) {
+    return n % 2 == 0 ? n / 2 - 1 : n / 2;
+  }
+
+  /**
+   * Compute the control bits of a network of size <i>n = permutation.length</i> such that input
+   * <i>i</i> is routed to output <i>permutation[i]</i>. The bits are stored in the order input
+   * switches, upper subnetwork, lower subnetwork and output switches starting at the given offset.
+   */
+  private static void route(int[] permutation, boolean[] bits, int offset) {
+    int n = permutation.length;
+    if (n <= 1) {
+      return;
+    }
+    if (n == 2) {
+      bits[offset] = permutation[0] == 1;
+      return;
+    }
+
+    int[] inverse = new int[n];
+    for (int i = 0; i < n; i++) {
+      inverse[permutation[i]] = i;
+    }
+
+    // Assign each input to the upper (false) or lower (true) subnetwork. The two inputs of an input
+    // switch and the two sources of an output switch must be assigned to different subnetworks. For
+    // odd n the last input and output are connected directly to the lower subnetwork, and for even
+    // n the last output is connected directly to the lower subnetwork.
+    Boolean[] lower = new Boolean[n];
+    assign(n % 2 == 1 ? n - 1 : inverse[n - 1], true, lower, permutation, inverse);
+    for (int i = 0; i < n; i++) {
+      if (lower[i] == null) {
+        assign(i, false, lower, permutation, inverse);
+      }
+    }
+
+    int half = n / 2;
+    int[] upperPermutation = new int[half];
+    int[] lowerPermutation = new int[n - half];
+    for (int i = 0; i < half; i++) {
+      boolean crossed = lower[2 * i];
+      bits[offset + i] = crossed;
+      int upper = crossed ? 2 * i + 1 : 2 * i;
+      upperPermutation[i] = permutation[upper] / 2;
+      lowerPermutation[i] = permutation[upper ^ 1] / 2;
+    }
+    if (n % 2 == 1) {
+      lowerPermutation[half] = permutation[n - 1] / 2;
+    }
+
+    int upperOffset = offset + half;
+    int lowerOffset = upperOffset + switches(half);
+    int outputOffset = lowerOffset + switches(n - half);
+    route(upperPermutation, bits, upperOffset);
+    route(lowerPermutation, bits, lowerOffset);
+    for (int j = 0; j < outputSwitches(n); j++) {
+      bits[outputOffset + j] = lower[inverse[2 * j]];
+    }
+  }
+
+  /**
+   * Assign an input to a subnetwork and propagate the constraints to all inputs connected to it
+   * through the switches.
+   */
+  private static void assign(int input, boolean isLower, Boolean[] lower, int[] permutation,
+      int[] inverse) {
+    int n = permutation.length;
+    Deque<Integer> stack = new ArrayDeque<>();
+    lower[input] = isLower;
+    stack.push(input);
+    while (!stack.isEmpty()) {
+      int i = stack.pop();
+      int inputNeighbour = i ^ 1;
+      int outputNeighbour = (permutation[i] ^ 1) < n ? inverse[permutation[i] ^ 1] : n;
+      for (int j : new int[]{inputNeighbour, outputNeighbour}) {
+        if (j < n && lower[j] == null) {
+          lower[j] = !lower[i];
+          stack.push(j);
+        }
+      }
+    }
+  }
+
+  /** Evaluate a network of size <i>rows.size()</i> with control bits starting at the offset. */
+  private static DRes<List<List<DRes<SInt>>>> evaluate(ProtocolBuilderNumeric builder,
+      List<? extends List<DRes<SInt>>> rows, List<DRes<SInt>> bits, int offset) {
+    int n = rows.size();
+    if (n <= 1) {
+      return DRes.of(new ArrayList<>(rows));
+    }
+    if (n == 2) {
+      return builder.seq(seq -> swapIf(seq, bits.get(offset), rows.get(0), rows.get(1)))
+          .seq((seq, swapped) -> DRes.of(List.of(swapped.getFirst(), swapped.getSecond())));
+    }
+
+    int half = n / 2;
+    int upperOffset = offset + half;
+    int lowerOffset = upperOffset + switches(half);
+    int outputOffset = lowerOffset + switches(n - half);
+
+    return builder.par(par -> {
+      List<DRes<Pair<List<DRes<SInt>>, List<DRes<SInt>>>>> inputSwitches = IntStream
+          .range(0, half).mapToObj(i -> par.seq(seq -> swapIf(seq, bits.get(offset + i),
+              rows.get(2 * i), rows.get(2 * i + 1)))).collect(Collectors.toList());
+      return DRes.of(inputSwitches);
+    }).par((par, inputSwitches) -> {
+      List<List<DRes<SInt>>> upper = new ArrayList<>();
+      List<List<DRes<SInt>>> lower = new ArrayList<>();
+      for (DRes<Pair<List<DRes<SInt>>, List<DRes<SInt>>>> swapped : inputSwitches) {
+        upper.add(swapped.out().getFirst());
+        lower.add(swapped.out().getSecond());
+      }
+      if (n % 2 == 1) {
+        lower.add(rows.get(n - 1));
+      }
+      DRes<List<List<DRes<SInt>>>> upperOutputs = par
+          .seq(seq -> evaluate(seq, upper, bits, upperOffset));
+      DRes<List<List<DRes<SInt>>>> lowerOutputs = par
+          .seq(seq -> evaluate(seq, lower, bits, lowerOffset));
+      return Pair.lazy(upperOutputs, lowerOutputs);
+    }).par((par, outputs) -> {
+      List<List<DRes<SInt>>> upper = outputs.getFirst().out();
+      List<List<DRes<SInt>>> lower = outputs.getSecond().out();
+      List<DRes<Pair<List<DRes<SInt>>, List<DRes<SInt>>>>> outputSwitches = IntStream
+          .range(0, outputSwitches(n)).mapToObj(j -> par.seq(seq -> swapIf(seq,
+              bits.get(outputOffset + j), upper.get(j), lower.get(j))))
+          .collect(Collectors.toList());
+      return Pair.lazy(outputSwitches, outputs);
+    }).seq((seq, outputs) -> {
+      List<List<DRes<SInt>>> upper = outputs.getSecond().getFirst().out();
+      List<List<DRes<SInt>>> lower = outputs.getSecond().getSecond().out();
+      List<List<DRes<SInt>>> result = new ArrayList<>();
+      for (DRes<Pair<List<DRes<SInt>>, List<DRes<SInt>>>> swapped : outputs.getFirst()) {
+        result.add(swapped.out().getFirst());
+        result.add(swapped.out().getSecond());
+      }
+      if (n % 2 == 0) {
+        result.add(upper.get(half - 1));
+      }
+      result.add(lower.get(lower.size() - 1));
+      return DRes.of(result);
+    });
+  }
+
+  /** Swap two rows if the condition is one. This costs one multiplication per column. */
+  private static DRes<Pair<List<DRes<SInt>>, List<DRes<SInt>>>> swapIf(
+      ProtocolBuilderNumeric builder, DRes<SInt> condition, List<DRes<SInt>> a,
+      List<DRes<SInt>> b) {
+    return builder.par(par -> {
+      List<DRes<SInt>> differences = IntStream.range(0, a.size())
+          .mapToObj(k -> par.seq(seq -> seq.numeric()
+              .mult(condition, seq.numeric().sub(b.get(k), a.get(k)))))
+          .collect(Collectors.toList());
+      return DRes.of(differences);
+    }).par((par, differences) -> {
+      List<DRes<SInt>> first = new ArrayList<>(a.size());
+      List<DRes<SInt>> second = new ArrayList<>(a.size());
+      for (int k = 0; k < a.size(); k++) {
+        first.add(par.numeric().add(a.get(k), differences.get(k)));
+        second.add(par.numeric().sub(b.get(k), differences.get(k)));
+      }
+      return Pair.lazy(first, second);
+    });
+  }
+}
@@ -0,0 +1,73 @@
+package dk.alexandra.fresco.stat.utils;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Obliviously shuffle the rows of a matrix of any height. Each party in turn permutes the rows by a
+ * random permutation known only to them using a {@link PermutationNetwork}, so the composed
+ * permutation is uniformly random and unknown to all parties as long as one of them is honest.
+ */
+public class Shuffle implements Computation<Matrix<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final Matrix<DRes<SInt>> values;
+  private final int[] localPermutation;
+
+  /** Shuffle the rows of a matrix using a fresh random permutation for this party. */
+  public Shuffle(Matrix<DRes<SInt>> values) {
+    this(values, randomPermutation(values.getHeight()));
+  }
+
+  /**
+   * Shuffle the rows of a matrix where this party permutes the rows by the given permutation. Using
+   * the same local permutations, the shuffle may be applied to multiple matrices.
+   */
+  public Shuffle(Matrix<DRes<SInt>> values, int[] localPermutation) {
+    if (localPermutation.length != values.getHeight()) {
+      throw new IllegalArgumentException("Expected a permutation of size " + values.getHeight()
+          + " but got " + localPermutation.length);
+    }
+    this.values = values;
+    this.localPermutation = localPermutation;
+  }
+
+  /** Shuffle a list of values. */
+  public static Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> shuffle(
+      List<DRes<SInt>> values) {
+    return builder -> builder
+        .seq(new Shuffle(MatrixUtils.buildMatrix(values.size(), 1, (i, j) -> values.get(i))))
+        .seq((seq, shuffled) -> DRes.of(shuffled.getColumn(0)));
+  }
+
+  /** Sample a uniformly random permutation of the given size. */
+  public static int[] randomPermutation(int n) {
+    List<Integer> permutation = IntStream.range(0, n).boxed().collect(Collectors.toList());
+    Collections.shuffle(permutation, new SecureRandom());
+    return permutation.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    return builder.seq(seq -> {
+      int myId = seq.getBasicNumericContext().getMyId();
+      int parties = seq.getBasicNumericContext().getNoOfParties();
+      DRes<Matrix<DRes<SInt>>> result = DRes.of(values);
+      for (int party = 1; party <= parties; party++) {
+        DRes<Matrix<DRes<SInt>>> previous = result;
+        int finalParty = party;
+        result = seq.seq(sub -> finalParty == myId
+            ? new PermutationNetwork(previous.out(), localPermutation).buildComputation(sub)
+            : new PermutationNetwork(previous.out(), finalParty).buildComputation(sub));
+      }
+      return result;
+    });
+  }
+}
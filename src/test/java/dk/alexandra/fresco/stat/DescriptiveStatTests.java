@@ -17,21 +17,34 @@ import dk.alexandra.fresco.lib.common.collections.Matrix;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.anonymisation.NoisyHistogram;
+import dk.alexandra.fresco.stat.descriptive.GroupBy.Aggregate;
 import dk.alexandra.fresco.stat.descriptive.LeakyBreakTies;
+import dk.alexandra.fresco.stat.descriptive.Moments.MomentsResult;
 import dk.alexandra.fresco.stat.descriptive.MultiDimensionalHistogram;
+import dk.alexandra.fresco.stat.descriptive.OrderStatisticsStrategy;
 import dk.alexandra.fresco.stat.descriptive.Ranks;
+import dk.alexandra.fresco.stat.descriptive.SampleMedian;
 import dk.alexandra.fresco.stat.descriptive.sort.FindTiedGroups;
+import dk.alexandra.fresco.stat.descriptive.sort.SecretPermutation;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
+import dk.alexandra.fresco.stat.filter.Filter;
 import dk.alexandra.fresco.stat.utils.MatrixUtils;
 import dk.alexandra.fresco.stat.utils.MultiDimensionalArray;
+import dk.alexandra.fresco.stat.utils.VectorUtils;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.stat.correlation.Covariance;
 import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 import org.apache.commons.math3.stat.descriptive.moment.StandardDeviation;
@@ -41,9 +54,16 @@ import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.apache.commons.math3.stat.ranking.NaturalRanking;
 import org.apache.commons.math3.stat.ranking.RankingAlgorithm;
 import org.junit.Assert;
+import org.junit.Test;
 
 public class DescriptiveStatTests {
 
+  @Test(expected = IllegalArgumentException.class)
+  public void selectionWithSortingNetwork() {
+    new SampleMedian(List.of(), OrderStatisticsStrategy.SELECTION,
+        SortingAlgorithm.SORTING_NETWORK);
+  }
+
   public static List<List<Integer>> ranksDataset() {
 
     // Data from Blæsild & Granfeldt
@@ -94,6 +114,61 @@ public class DescriptiveStatTests {
     }
   }
 
+  public static class TestCovarianceAndCorrelationMatrix<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final Random random = new Random(1234);
+        final int n = 20;
+        final int p = 4;
+        final double[][] x = IntStream.range(0, n).mapToObj(
+            i -> random.doubles(p).map(v -> 10.0 * v - 5.0).toArray()).toArray(double[][]::new);
+
+        @Override
+        public void test() {
+
+          // Make the last variable correlated with the first
+          for (double[] row : x) {
+            row[p - 1] = 2.0 * row[0] + row[p - 1];
+          }
+
+          Application<Pair<Matrix<BigDecimal>, Matrix<BigDecimal>>, ProtocolBuilderNumeric> testApplication = builder -> builder
+              .seq(seq -> {
+                FixedNumeric numeric = FixedNumeric.using(seq);
+                Matrix<DRes<SFixed>> data = MatrixUtils
+                    .buildMatrix(n, p, (i, j) -> numeric.input(x[i][j], 1));
+                return Pair.lazy(Statistics.using(seq).covarianceMatrix(data),
+                    Statistics.using(seq).correlationMatrix(data));
+              }).seq((seq, matrices) -> {
+                FixedNumeric numeric = FixedNumeric.using(seq);
+                Matrix<DRes<BigDecimal>> covariance = MatrixUtils
+                    .map(matrices.getFirst().out(), numeric::open);
+                Matrix<DRes<BigDecimal>> correlation = MatrixUtils
+                    .map(matrices.getSecond().out(), numeric::open);
+                return () -> new Pair<>(MatrixUtils.map(covariance, DRes::out),
+                    MatrixUtils.map(correlation, DRes::out));
+              });
+
+          RealMatrix expectedCovariance = new Covariance(x).getCovarianceMatrix();
+          RealMatrix expectedCorrelation = new PearsonsCorrelation(x).getCorrelationMatrix();
+
+          Pair<Matrix<BigDecimal>, Matrix<BigDecimal>> output = runApplication(testApplication);
+          for (int i = 0; i < p; i++) {
+            for (int j = 0; j < p; j++) {
+              assertEquals(expectedCovariance.getEntry(i, j),
+                  output.getFirst().getRow(i).get(j).doubleValue(), 0.001);
+              assertEquals(expectedCorrelation.getEntry(i, j),
+                  output.getSecond().getRow(i).get(j).doubleValue(), 0.001);
+            }
+          }
+        }
+      };
+    }
+  }
+
   public static class TestMean<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
@@ -132,6 +207,18 @@ public class DescriptiveStatTests {
   public static class TestMedian<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
+    private final OrderStatisticsStrategy strategy;
+    private final SortingAlgorithm algorithm;
+
+    public TestMedian() {
+      this(OrderStatisticsStrategy.SORT, SortingAlgorithm.SORTING_NETWORK);
+    }
+
+    public TestMedian(OrderStatisticsStrategy strategy, SortingAlgorithm algorithm) {
+      this.strategy = strategy;
+      this.algorithm = algorithm;
+    }
+
     @Override
     public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
       return new TestThread<>() {
@@ -148,7 +235,7 @@ public class DescriptiveStatTests {
             FixedNumeric numeric = FixedNumeric.using(builder);
             List<DRes<SFixed>> xSecret =
                 x.stream().map(x -> numeric.input(x, 1)).collect(Collectors.toList());
-            DRes<SFixed> r = Statistics.using(builder).sampleMedian(xSecret);
+            DRes<SFixed> r = Statistics.using(builder).sampleMedian(xSecret, strategy, algorithm);
             return numeric.open(r);
           };
 
@@ -167,6 +254,18 @@ public class DescriptiveStatTests {
   public static class TestPercentiles<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
+    private final OrderStatisticsStrategy strategy;
+    private final SortingAlgorithm algorithm;
+
+    public TestPercentiles() {
+      this(OrderStatisticsStrategy.SORT, SortingAlgorithm.SORTING_NETWORK);
+    }
+
+    public TestPercentiles(OrderStatisticsStrategy strategy, SortingAlgorithm algorithm) {
+      this.strategy = strategy;
+      this.algorithm = algorithm;
+    }
+
     @Override
     public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
       return new TestThread<>() {
@@ -183,7 +282,9 @@ public class DescriptiveStatTests {
             FixedNumeric numeric = FixedNumeric.using(seq);
             List<DRes<SFixed>> xSecret =
                 x.stream().map(x -> numeric.input(x, 1)).collect(Collectors.toList());
-            return Statistics.using(seq).samplePercentiles(xSecret, new double[] {0.25, 0.5, 0.75});
+            double[] quartiles = new double[] {0.25, 0.5, 0.75};
+            return Statistics.using(seq)
+                .samplePercentiles(xSecret, quartiles, strategy, algorithm);
           }).seq((seq, quartiles) -> {
             FixedNumeric fixedNumeric = FixedNumeric.using(seq);
             return DRes.of(quartiles.stream().map(fixedNumeric::open).collect(Collectors.toList()));
@@ -205,6 +306,53 @@ public class DescriptiveStatTests {
     }
   }
 
+  public static class TestSortedColumn<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final Random random = new Random(1234);
+        final int n = 50;
+        final List<Double> x = IntStream.range(0, n).mapToDouble(i -> random.nextDouble() * 10.0 - 5.0).boxed().collect(
+            Collectors.toList());
+
+        @Override
+        public void test() {
+
+          Application<List<BigDecimal>, ProtocolBuilderNumeric> testApplication = builder -> builder.seq(seq -> {
+            FixedNumeric numeric = FixedNumeric.using(seq);
+            List<DRes<SFixed>> xSecret =
+                x.stream().map(x -> numeric.input(x, 1)).collect(Collectors.toList());
+            return Statistics.using(seq).sorted(xSecret);
+          }).seq((seq, sorted) -> {
+            // Both statistics are computed from the same sorted column
+            DRes<SFixed> median = Statistics.using(seq).sampleMedian(sorted);
+            DRes<List<DRes<SFixed>>> quartiles = Statistics.using(seq)
+                .samplePercentiles(sorted, new double[] {0.25, 0.75});
+            return Pair.lazy(median, quartiles);
+          }).seq((seq, statistics) -> {
+            FixedNumeric fixedNumeric = FixedNumeric.using(seq);
+            List<DRes<BigDecimal>> opened = new ArrayList<>();
+            opened.add(fixedNumeric.open(statistics.getFirst()));
+            statistics.getSecond().out().stream().map(fixedNumeric::open).forEach(opened::add);
+            return DRes.of(opened);
+          }).seq((seq, opened) -> DRes.of(opened.stream().map(DRes::out).collect(Collectors.toList())));
+
+          double[] xArray = x.stream().mapToDouble(i -> i).toArray();
+          Percentile percentile = new Percentile();
+
+          List<BigDecimal> output = runApplication(testApplication);
+
+          Assert.assertEquals(new Median().evaluate(xArray), output.get(0).doubleValue(), 0.001);
+          Assert.assertEquals(percentile.evaluate(xArray, 25), output.get(1).doubleValue(), 0.001);
+          Assert.assertEquals(percentile.evaluate(xArray, 75), output.get(2).doubleValue(), 0.001);
+        }
+      };
+    }
+  }
+
 
   public static class TestVariance<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
@@ -238,6 +386,117 @@ public class DescriptiveStatTests {
     }
   }
 
+  public static class TestFilteredStatistics<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Double> x = Arrays.asList(1.0, 2.0, 1.3, 3.75, 2.25, 0.5, 4.1, 2.8);
+        final List<Double> age = Arrays.asList(41.0, 23.0, 55.0, 40.0, 67.5, 38.0, 44.0, 70.0);
+        final List<Integer> sex = Arrays.asList(1, 1, 1, 0, 1, 0, 0, 1);
+
+        @Override
+        public void test() {
+
+          Application<Pair<List<BigInteger>, List<BigDecimal>>, ProtocolBuilderNumeric> testApplication =
+              builder -> builder.seq(seq -> {
+                FixedNumeric numeric = FixedNumeric.using(seq);
+                List<DRes<SFixed>> xSecret =
+                    x.stream().map(x -> numeric.input(x, 1)).collect(Collectors.toList());
+                List<DRes<SFixed>> ageSecret =
+                    age.stream().map(x -> numeric.input(x, 1)).collect(Collectors.toList());
+                List<DRes<SInt>> sexSecret =
+                    sex.stream().map(x -> seq.numeric().input(x, 1)).collect(Collectors.toList());
+                Filter filter = Filter.greaterThan(ageSecret, 40).and(Filter.equalTo(sexSecret, 1));
+                Filter complement = Filter.greaterThan(ageSecret, 40)
+                    .or(Filter.equalTo(sexSecret, 1)).not();
+                return Pair.lazy(xSecret,
+                    new Pair<>(seq.seq(filter), seq.seq(complement)));
+              }).seq((seq, input) -> {
+                List<DRes<SFixed>> xSecret = input.getFirst();
+                List<DRes<SInt>> indicator = input.getSecond().getFirst().out();
+                Statistics statistics = Statistics.using(seq);
+                List<List<DRes<BigInteger>>> indicators = List.of(VectorUtils.open(indicator, seq),
+                    VectorUtils.open(input.getSecond().getSecond().out(), seq));
+                DRes<BigDecimal> mean = FixedNumeric.using(seq)
+                    .open(statistics.sampleMean(xSecret, indicator));
+                DRes<BigDecimal> variance = FixedNumeric.using(seq)
+                    .open(statistics.sampleVariance(xSecret, indicator));
+                return () -> new Pair<>(
+                    indicators.stream().flatMap(List::stream).map(DRes::out)
+                        .collect(Collectors.toList()), List.of(mean.out(), variance.out()));
+              });
+
+          Pair<List<BigInteger>, List<BigDecimal>> output = runApplication(testApplication);
+
+          int n = x.size();
+          double[] selected = IntStream.range(0, n).filter(i -> age.get(i) > 40 && sex.get(i) == 1)
+              .mapToDouble(x::get).toArray();
+          for (int i = 0; i < n; i++) {
+            assertEquals(age.get(i) > 40 && sex.get(i) == 1 ? 1 : 0,
+                output.getFirst().get(i).intValue());
+            assertEquals(age.get(i) > 40 || sex.get(i) == 1 ? 0 : 1,
+                output.getFirst().get(n + i).intValue());
+          }
+          assertEquals(new Mean().evaluate(selected), output.getSecond().get(0).doubleValue(),
+              0.001);
+          assertEquals(new Variance().evaluate(selected), output.getSecond().get(1).doubleValue(),
+              0.001);
+        }
+      };
+    }
+  }
+
+  public static class TestCompaction<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Integer> selected = Arrays.asList(0, 1, 0, 0, 1, 1, 0, 0, 0, 1, 0);
+        final int bound = 5;
+
+        @Override
+        public void test() {
+
+          Application<Pair<List<BigInteger>, List<BigInteger>>, ProtocolBuilderNumeric> testApplication =
+              builder -> builder.seq(seq -> {
+                Matrix<DRes<SInt>> data = MatrixUtils.buildMatrix(selected.size(), 2,
+                    (i, j) -> seq.numeric().input(10 * i + j, 1));
+                List<DRes<SInt>> indicator = selected.stream()
+                    .map(x -> seq.numeric().input(x, 1)).collect(Collectors.toList());
+                return Statistics.using(seq).compact(data, indicator, bound);
+              }).seq((seq, compacted) -> {
+                List<DRes<BigInteger>> rows = VectorUtils.open(compacted.getFirst().getColumn(0),
+                    seq);
+                List<DRes<BigInteger>> indicator = VectorUtils.open(compacted.getSecond(), seq);
+                return () -> new Pair<>(rows.stream().map(DRes::out).collect(Collectors.toList()),
+                    indicator.stream().map(DRes::out).collect(Collectors.toList()));
+              });
+
+          Pair<List<BigInteger>, List<BigInteger>> output = runApplication(testApplication);
+
+          // The selected rows should come first in their original order
+          List<Integer> expected = IntStream.range(0, selected.size())
+              .filter(i -> selected.get(i) == 1).boxed().collect(Collectors.toList());
+          assertEquals(bound, output.getFirst().size());
+          for (int i = 0; i < bound; i++) {
+            if (i < expected.size()) {
+              assertEquals(10 * expected.get(i), output.getFirst().get(i).intValue());
+              assertEquals(1, output.getSecond().get(i).intValue());
+            } else {
+              assertEquals(0, selected.get(output.getFirst().get(i).intValue() / 10).intValue());
+              assertEquals(0, output.getSecond().get(i).intValue());
+            }
+          }
+        }
+      };
+    }
+  }
+
   public static class TestStandardDeviation<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
@@ -270,6 +529,131 @@ public class DescriptiveStatTests {
     }
   }
 
+  public static class TestMoments<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final double offset;
+
+    public TestMoments() {
+      this(0.0);
+    }
+
+    /**
+     * Test on data shifted by the given offset. The central moments except the mean do not depend
+     * on the offset, but computing them from raw power sums loses precision for large offsets.
+     */
+    public TestMoments(double offset) {
+      this.offset = offset;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Double> x = Stream.of(1.0, 2.0, 1.3, 3.75, 2.25, 0.5, 4.1)
+            .map(xi -> xi + offset).collect(Collectors.toList());
+
+        @Override
+        public void test() {
+
+          Application<List<BigDecimal>, ProtocolBuilderNumeric> testApplication = builder -> {
+            FixedNumeric numeric = FixedNumeric.using(builder);
+            List<DRes<SFixed>> xSecret =
+                x.stream().map(x -> numeric.input(x, 1)).collect(Collectors.toList());
+            DRes<MomentsResult> moments = Statistics.using(builder).moments(xSecret, 4);
+            return builder.seq(seq -> {
+              FixedNumeric fixedNumeric = FixedNumeric.using(seq);
+              List<DRes<BigDecimal>> opened = Arrays.asList(
+                  fixedNumeric.open(moments.out().getMean()),
+                  fixedNumeric.open(moments.out().getVariance()),
+                  fixedNumeric.open(moments.out().getStandardDeviation()),
+                  fixedNumeric.open(moments.out().getSkewness()),
+                  fixedNumeric.open(moments.out().getKurtosis()));
+              return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+            });
+          };
+
+          double[] xArray = x.stream().mapToDouble(i -> i).toArray();
+          double mean = new Mean().evaluate(xArray);
+          double m2 = Arrays.stream(xArray).map(xi -> Math.pow(xi - mean, 2)).average().getAsDouble();
+          double m3 = Arrays.stream(xArray).map(xi -> Math.pow(xi - mean, 3)).average().getAsDouble();
+          double m4 = Arrays.stream(xArray).map(xi -> Math.pow(xi - mean, 4)).average().getAsDouble();
+
+          List<BigDecimal> output = runApplication(testApplication);
+          assertEquals(mean, output.get(0).doubleValue(), 0.001);
+          assertEquals(new Variance().evaluate(xArray), output.get(1).doubleValue(), 0.001);
+          assertEquals(new StandardDeviation().evaluate(xArray), output.get(2).doubleValue(), 0.001);
+          assertEquals(m3 / Math.pow(m2, 1.5), output.get(3).doubleValue(), 0.001);
+          assertEquals(m4 / (m2 * m2) - 3, output.get(4).doubleValue(), 0.001);
+        }
+      };
+    }
+  }
+
+  public static class TestGroupBy<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Integer> keys = Arrays.asList(3, 1, 2, 1, 3, 1, 7);
+        final List<Double> values = Arrays.asList(1.0, 2.0, 3.5, 4.0, 5.0, 6.25, -1.5);
+
+        @Override
+        public void test() {
+
+          Application<Pair<List<List<BigInteger>>, List<List<BigDecimal>>>, ProtocolBuilderNumeric>
+              testApplication = builder -> builder.seq(seq -> {
+                List<DRes<SInt>> keysSecret = keys.stream().map(x -> seq.numeric().input(x, 1))
+                    .collect(Collectors.toList());
+                List<DRes<SFixed>> valuesSecret = values.stream()
+                    .map(x -> FixedNumeric.using(seq).input(x, 1)).collect(Collectors.toList());
+                return Statistics.using(seq).groupBy(keysSecret, valuesSecret, Aggregate.values());
+              }).seq((seq, result) -> {
+                List<List<DRes<BigInteger>>> openedKeys = List.of(
+                    VectorUtils.open(result.getKeys(), seq), VectorUtils.open(result.getLast(), seq));
+                List<List<DRes<BigDecimal>>> openedAggregates = Arrays.stream(Aggregate.values())
+                    .map(aggregate -> result.get(aggregate).stream()
+                        .map(FixedNumeric.using(seq)::open).collect(Collectors.toList()))
+                    .collect(Collectors.toList());
+                return () -> new Pair<>(
+                    openedKeys.stream().map(column -> column.stream().map(DRes::out)
+                        .collect(Collectors.toList())).collect(Collectors.toList()),
+                    openedAggregates.stream().map(column -> column.stream().map(DRes::out)
+                        .collect(Collectors.toList())).collect(Collectors.toList()));
+              });
+
+          Pair<List<List<BigInteger>>, List<List<BigDecimal>>> output =
+              runApplication(testApplication);
+
+          Map<Integer, List<Double>> groups = new HashMap<>();
+          for (int i = 0; i < keys.size(); i++) {
+            groups.computeIfAbsent(keys.get(i), k -> new ArrayList<>()).add(values.get(i));
+          }
+
+          // Only the last row of each group holds the aggregates of the group
+          int seen = 0;
+          for (int i = 0; i < keys.size(); i++) {
+            if (output.getFirst().get(1).get(i).signum() == 0) {
+              continue;
+            }
+            seen++;
+            double[] group = groups.get(output.getFirst().get(0).get(i).intValue()).stream()
+                .mapToDouble(Double::doubleValue).toArray();
+            List<List<BigDecimal>> aggregates = output.getSecond();
+            assertEquals(Arrays.stream(group).sum(), aggregates.get(0).get(i).doubleValue(), 0.001);
+            assertEquals(group.length, aggregates.get(1).get(i).doubleValue(), 0.001);
+            assertEquals(new Mean().evaluate(group), aggregates.get(2).get(i).doubleValue(), 0.001);
+            assertEquals(new Variance().evaluate(group), aggregates.get(3).get(i).doubleValue(),
+                0.001);
+          }
+          assertEquals(groups.size(), seen);
+        }
+      };
+    }
+  }
+
   public static class TestLeakyFrequencyTable<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
@@ -421,6 +805,66 @@ public class DescriptiveStatTests {
     }
   }
 
+  public static class TestSecretPermutation<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final SortingAlgorithm algorithm;
+
+    public TestSecretPermutation() {
+      this(SortingAlgorithm.SORTING_NETWORK);
+    }
+
+    public TestSecretPermutation(SortingAlgorithm algorithm) {
+      this.algorithm = algorithm;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Integer> keys = Arrays.asList(5, -2, 7, 5, 0, 11, -2, 3, 5, 1, 8);
+
+        @Override
+        public void test() {
+
+          Application<List<List<BigInteger>>, ProtocolBuilderNumeric> testApplication = builder -> builder
+              .seq(seq -> {
+                List<DRes<SInt>> input = keys.stream().map(x -> seq.numeric().input(x, 1))
+                    .collect(Collectors.toList());
+                return Pair.lazy(input, seq.seq(SecretPermutation.sorting(input, algorithm)));
+              }).seq((seq, inputAndPermutation) -> {
+                List<DRes<SInt>> input = inputAndPermutation.getFirst();
+                SecretPermutation permutation = inputAndPermutation.getSecond().out();
+                List<DRes<SInt>> indices = IntStream.range(0, keys.size())
+                    .mapToObj(i -> seq.numeric().known(i)).collect(Collectors.toList());
+                return Pair.lazy(seq.seq(permutation.apply(input)),
+                    seq.seq(permutation.apply(indices)));
+              }).seq((seq, sorted) -> {
+                // Shift the keys before opening to avoid negative numbers
+                List<DRes<BigInteger>> sortedKeys = sorted.getFirst().out().stream()
+                    .map(x -> seq.numeric().open(seq.numeric().add(100, x)))
+                    .collect(Collectors.toList());
+                List<DRes<BigInteger>> sortedIndices = VectorUtils
+                    .open(sorted.getSecond().out(), seq);
+                return () -> List.of(
+                    sortedKeys.stream().map(DRes::out).collect(Collectors.toList()),
+                    sortedIndices.stream().map(DRes::out).collect(Collectors.toList()));
+              });
+
+          List<List<BigInteger>> output = runApplication(testApplication);
+
+          // The sorting is stable, so it should be the same as Java's sort
+          List<Integer> expectedIndices = IntStream.range(0, keys.size()).boxed()
+              .sorted(Comparator.comparing(keys::get)).collect(Collectors.toList());
+          for (int i = 0; i < keys.size(); i++) {
+            assertEquals(keys.get(expectedIndices.get(i)) + 100, output.get(0).get(i).intValue());
+            assertEquals(expectedIndices.get(i).intValue(), output.get(1).get(i).intValue());
+          }
+        }
+      };
+    }
+  }
+
   public static class TestTiedGroups<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
@@ -496,6 +940,52 @@ public class DescriptiveStatTests {
     }
   }
 
+  public static class TestHistogramKnownBuckets<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final int[] buckets;
+
+    public TestHistogramKnownBuckets(int[] buckets) {
+      this.buckets = buckets;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final int n = 100;
+        final Random random = new Random(1234);
+        final List<Integer> x = IntStream.range(0, n).map(i -> random.nextInt(60) - 20).boxed()
+            .collect(Collectors.toList());
+        final List<Integer> expected = IntStream.range(0, buckets.length + 1)
+            .map(i -> (int) x.stream()
+                .filter(y -> (i == 0 || y > buckets[i - 1]) && (i == buckets.length
+                    || y <= buckets[i])).count()).boxed().collect(Collectors.toList());
+
+        @Override
+        public void test() {
+
+          Application<List<BigInteger>, ProtocolBuilderNumeric> testApplication = builder -> builder
+              .seq(seq -> {
+                List<DRes<SInt>> xSecret =
+                    x.stream().map(x -> seq.numeric().input(x, 1)).collect(Collectors.toList());
+                return Statistics.using(seq).histogramDiscrete(buckets, xSecret);
+              }).seq((seq, h) -> {
+                List<DRes<BigInteger>> out =
+                    h.stream().map(seq.numeric()::open).collect(Collectors.toList());
+                return () -> out.stream().map(DRes::out).collect(Collectors.toList());
+              });
+
+          List<BigInteger> output = runApplication(testApplication);
+          assertEquals(expected.size(), output.size());
+          for (int i = 0; i < output.size(); i++) {
+            assertEquals(expected.get(i).intValue(), output.get(i).intValue());
+          }
+        }
+      };
+    }
+  }
+
   public static class TestNoisyHistogram<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
@@ -625,6 +1115,16 @@ public class DescriptiveStatTests {
   public static class TestMultiDimHistogram<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
+    private final int chunkSize;
+
+    public TestMultiDimHistogram() {
+      this(Integer.MAX_VALUE);
+    }
+
+    public TestMultiDimHistogram(int chunkSize) {
+      this.chunkSize = chunkSize;
+    }
+
     @Override
     public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
       return new TestThread<>() {
@@ -659,7 +1159,8 @@ public class DescriptiveStatTests {
                   }
                 });
 
-                return new MultiDimensionalHistogram(buckets, data).buildComputation(seq);
+                return new MultiDimensionalHistogram(buckets, data, chunkSize)
+                    .buildComputation(seq);
               }).seq((seq, histogram) -> {
                 MultiDimensionalArray<DRes<BigInteger>> opened = histogram.map(seq.numeric()::open);
                 return () -> opened.map(DRes::out);
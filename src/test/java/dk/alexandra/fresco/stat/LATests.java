@@ -13,7 +13,12 @@ import dk.alexandra.fresco.lib.common.collections.Matrix;
 import dk.alexandra.fresco.lib.fixed.FixedLinearAlgebra;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.linearalgebra.AffineMap;
+import dk.alexandra.fresco.stat.linearalgebra.BlockInvertTriangularMatrix;
 import dk.alexandra.fresco.stat.linearalgebra.Convolution;
+import dk.alexandra.fresco.stat.linearalgebra.KaratsubaConvolution;
+import dk.alexandra.fresco.stat.linearalgebra.LinearSolver;
+import dk.alexandra.fresco.stat.linearalgebra.QRMethod;
 import dk.alexandra.fresco.stat.utils.MatrixUtils;
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -23,15 +28,22 @@ import java.util.Random;
 import java.util.stream.Collectors;
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.CholeskyDecomposition;
 import org.apache.commons.math3.linear.DecompositionSolver;
 import org.apache.commons.math3.linear.QRDecomposition;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
 import org.apache.commons.math3.linear.SingularValueDecomposition;
 import org.junit.Assert;
+import org.junit.Test;
 
 public class LATests {
 
+  @Test(expected = IllegalArgumentException.class)
+  public void karatsubaConvolutionEmptyInput() {
+    new KaratsubaConvolution(new ArrayList<>(), new ArrayList<>());
+  }
+
   private static BigDecimal innerProduct(List<BigDecimal> a, List<BigDecimal> b) {
     assert (a.size() == b.size());
     BigDecimal out = BigDecimal.ZERO;
@@ -122,10 +134,16 @@ public class LATests {
 
     private final long seed;
     private final boolean square;
+    private final QRMethod method;
 
     public TestQRDcomposition(long seed, boolean square) {
+      this(seed, square, QRMethod.GRAM_SCHMIDT);
+    }
+
+    public TestQRDcomposition(long seed, boolean square, QRMethod method) {
       this.seed = seed;
       this.square = square;
+      this.method = method;
     }
 
     @Override
@@ -143,7 +161,7 @@ public class LATests {
           Application<Pair<Matrix<BigDecimal>, Matrix<BigDecimal>>, ProtocolBuilderNumeric> testApplication = builder ->
               builder.seq(seq -> FixedLinearAlgebra.using(seq).input(input, 1))
               .seq((seq, a) -> AdvancedLinearAlgebra.using(seq).qrDecomposition(
-                  a)).seq((seq, qr) -> {
+                  a, method)).seq((seq, qr) -> {
             Matrix<DRes<BigDecimal>> qOut = MatrixUtils
                 .map(qr.getFirst(), FixedNumeric.using(seq)::open);
             Matrix<DRes<BigDecimal>> rOut = MatrixUtils
@@ -236,9 +254,61 @@ public class LATests {
     }
   }
 
+  public static class TestCholeskyDecomposition<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        @Override
+        public void test() {
+
+          double[][] a = new double[][]{
+              {4.0, 12.0, -16.0},
+              {12.0, 37.0, -43.0},
+              {-16.0, -43.0, 98.0}};
+          Matrix<BigDecimal> input = MatrixUtils.buildMatrix(3, 3,
+              (i, j) -> BigDecimal.valueOf(a[i][j]));
+
+          Application<Matrix<BigDecimal>, ProtocolBuilderNumeric> testApplication = builder ->
+              builder.seq(seq -> FixedLinearAlgebra.using(seq).input(input, 1))
+                  .seq((seq, m) -> AdvancedLinearAlgebra.using(seq).choleskyDecomposition(m))
+                  .seq((seq, l) -> {
+                    Matrix<DRes<BigDecimal>> open = MatrixUtils
+                        .map(l, FixedNumeric.using(seq)::open);
+                    return DRes.of(open);
+                  }).seq((seq, open) -> {
+                Matrix<BigDecimal> out = MatrixUtils.map(open, DRes::out);
+                return DRes.of(out);
+              });
+
+          Matrix<BigDecimal> out = runApplication(testApplication);
+
+          RealMatrix expected = new CholeskyDecomposition(new Array2DRowRealMatrix(a)).getL();
+          for (int i = 0; i < out.getHeight(); i++) {
+            for (int j = 0; j < out.getWidth(); j++) {
+              assertEquals(expected.getEntry(i, j), out.getRow(i).get(j).doubleValue(), 0.01);
+            }
+          }
+        }
+      };
+    }
+  }
+
   public static class TestEigenvalues<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
+    private final QRMethod method;
+
+    public TestEigenvalues() {
+      this(QRMethod.GRAM_SCHMIDT);
+    }
+
+    public TestEigenvalues(QRMethod method) {
+      this.method = method;
+    }
+
     @Override
     public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
       return new TestThread<>() {
@@ -261,7 +331,7 @@ public class LATests {
           Application<List<BigDecimal>, ProtocolBuilderNumeric> testApplication = builder ->
               builder.seq(seq -> FixedLinearAlgebra.using(seq).input(input, 1))
                   .seq((seq, a) -> AdvancedLinearAlgebra.using(seq).iterativeEigenvalues(
-                      a, 10)).seq((seq, eigenvalues) -> {
+                      a, 10, method)).seq((seq, eigenvalues) -> {
                 List<DRes<BigDecimal>> open = eigenvalues.stream()
                     .map(FixedNumeric.using(seq)::open).collect(
                         Collectors.toList());
@@ -575,6 +645,65 @@ public class LATests {
     }
   }
 
+  public static class TestLinearInverseProblemLeastSquares<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final LinearSolver solver;
+
+    public TestLinearInverseProblemLeastSquares(LinearSolver solver) {
+      this.solver = solver;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        @Override
+        public void test() {
+
+          double[][] a = new double[][]{
+              {1.0, 0.5, 2.0},
+              {1.0, -1.0, 0.0},
+              {1.0, 2.0, 1.0},
+              {1.0, 1.5, -1.0},
+              {1.0, 0.0, 3.0},
+              {1.0, -0.5, 1.5}};
+          double[] b = new double[]{3.1, -0.2, 4.2, 1.9, 4.8, 1.4};
+
+          Matrix<BigDecimal> inputA = MatrixUtils.buildMatrix(a.length, a[0].length,
+              (i, j) -> BigDecimal.valueOf(a[i][j]));
+          ArrayList<BigDecimal> inputB = Arrays.stream(b).mapToObj(BigDecimal::valueOf)
+              .collect(Collectors.toCollection(ArrayList::new));
+
+          Application<List<BigDecimal>, ProtocolBuilderNumeric> testApplication = builder ->
+              builder.seq(seq -> {
+                Pair<DRes<Matrix<DRes<SFixed>>>, DRes<ArrayList<DRes<SFixed>>>> inputs = new Pair<>(
+                    FixedLinearAlgebra.using(seq).input(inputA, 1),
+                    FixedLinearAlgebra.using(seq).input(inputB, 1));
+                return DRes.of(inputs);
+              }).seq((seq, inputs) -> AdvancedLinearAlgebra.using(seq).linearInverseProblem(
+                  inputs.getFirst().out(), inputs.getSecond().out(), solver))
+                  .seq((seq, x) -> {
+                    List<DRes<BigDecimal>> open = x.stream()
+                        .map(FixedNumeric.using(seq)::open).collect(
+                            Collectors.toList());
+                    return DRes.of(open);
+                  }).seq((seq, open) -> {
+                List<BigDecimal> out = open.stream().map(DRes::out).collect(Collectors.toList());
+                return DRes.of(out);
+              });
+
+          List<BigDecimal> out = runApplication(testApplication);
+
+          RealVector expected = new QRDecomposition(new Array2DRowRealMatrix(a)).getSolver()
+              .solve(new ArrayRealVector(b));
+          Assert.assertArrayEquals(expected.toArray(),
+              out.stream().mapToDouble(BigDecimal::doubleValue).toArray(), 0.001);
+        }
+      };
+    }
+  }
+
   public static class TestBackSubstitution<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
@@ -640,10 +769,16 @@ public class LATests {
 
     private final long seed;
     private final boolean square;
+    private final QRMethod method;
 
     public TestMoorePenrosePseudoInverse(long seed, boolean square) {
+      this(seed, square, QRMethod.GRAM_SCHMIDT);
+    }
+
+    public TestMoorePenrosePseudoInverse(long seed, boolean square, QRMethod method) {
       this.seed = seed;
       this.square = square;
+      this.method = method;
     }
 
     @Override
@@ -662,7 +797,7 @@ public class LATests {
           Application<Matrix<BigDecimal>, ProtocolBuilderNumeric> testApplication = builder ->
               builder.seq(seq -> FixedLinearAlgebra.using(seq).input(input, 1))
                   .seq((seq, a) -> AdvancedLinearAlgebra.using(seq).moorePenrosePseudoInverse(
-                      a)).seq((seq, inverse) -> {
+                      a, method)).seq((seq, inverse) -> {
                 Matrix<DRes<BigDecimal>> open = MatrixUtils
                     .map(inverse, FixedNumeric.using(seq)::open);
                 return DRes.of(open);
@@ -722,4 +857,202 @@ public class LATests {
     }
   }
 
+  public static class TestKaratsubaConvolution<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final int m, n;
+
+    public TestKaratsubaConvolution(int m, int n) {
+      this.m = m;
+      this.n = n;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        @Override
+        public void test() {
+
+          Random random = new Random(1234);
+          ArrayList<BigDecimal> a = random.doubles(m, -5, 5).mapToObj(BigDecimal::valueOf)
+              .collect(Collectors.toCollection(ArrayList::new));
+          ArrayList<BigDecimal> b = random.doubles(n, -5, 5).mapToObj(BigDecimal::valueOf)
+              .collect(Collectors.toCollection(ArrayList::new));
+
+          Application<List<BigDecimal>, ProtocolBuilderNumeric> testApplication =
+              root -> root.seq(seq -> {
+                DRes<ArrayList<DRes<SFixed>>> aSecret = FixedLinearAlgebra.using(seq).input(a, 1);
+                DRes<ArrayList<DRes<SFixed>>> bSecret = FixedLinearAlgebra.using(seq).input(b, 2);
+                return Pair.lazy(aSecret, bSecret);
+              }).seq((seq, inputs) -> {
+                DRes<ArrayList<DRes<SFixed>>> result = AdvancedLinearAlgebra.using(seq)
+                    .karatsubaConvolution(inputs.getFirst().out(), inputs.getSecond().out());
+                return FixedLinearAlgebra.using(seq).openArrayList(result);
+              }).seq((seq, result) -> DRes
+                  .of(result.stream().map(DRes::out).collect(Collectors.toList())));
+
+          List<BigDecimal> output = runApplication(testApplication);
+
+          double[] expected = new double[m + n - 1];
+          for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+              expected[i + j] += a.get(i).doubleValue() * b.get(j).doubleValue();
+            }
+          }
+          Assert.assertArrayEquals(expected,
+              output.stream().mapToDouble(BigDecimal::doubleValue).toArray(), 0.001);
+        }
+      };
+    }
+  }
+
+  public static class TestStrassenMultiplication<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final int m, k, n, cutoff;
+
+    public TestStrassenMultiplication(int m, int k, int n, int cutoff) {
+      this.m = m;
+      this.k = k;
+      this.n = n;
+      this.cutoff = cutoff;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        @Override
+        public void test() {
+
+          Random random = new Random(1234);
+          double[][] a = new double[m][k];
+          double[][] b = new double[k][n];
+          for (double[] row : a) {
+            Arrays.setAll(row, j -> random.nextDouble() * 10 - 5);
+          }
+          for (double[] row : b) {
+            Arrays.setAll(row, j -> random.nextDouble() * 10 - 5);
+          }
+
+          Application<Matrix<BigDecimal>, ProtocolBuilderNumeric> testApplication =
+              root -> root.seq(seq -> {
+                FixedLinearAlgebra linearAlgebra = FixedLinearAlgebra.using(seq);
+                DRes<Matrix<DRes<SFixed>>> aSecret = linearAlgebra.input(MatrixUtils
+                    .buildMatrix(m, k, (i, j) -> BigDecimal.valueOf(a[i][j])), 1);
+                DRes<Matrix<DRes<SFixed>>> bSecret = linearAlgebra.input(MatrixUtils
+                    .buildMatrix(k, n, (i, j) -> BigDecimal.valueOf(b[i][j])), 2);
+                return Pair.lazy(aSecret, bSecret);
+              }).seq((seq, inputs) -> {
+                DRes<Matrix<DRes<SFixed>>> product = AdvancedLinearAlgebra.using(seq)
+                    .mult(inputs.getFirst().out(), inputs.getSecond().out(), cutoff);
+                return FixedLinearAlgebra.using(seq).openMatrix(product);
+              }).seq((seq, product) -> DRes.of(MatrixUtils.map(product, DRes::out)));
+
+          Matrix<BigDecimal> output = runApplication(testApplication);
+          RealMatrix expected = new Array2DRowRealMatrix(a)
+              .multiply(new Array2DRowRealMatrix(b));
+          for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+              assertEquals(expected.getEntry(i, j), output.getRow(i).get(j).doubleValue(), 0.001);
+            }
+          }
+        }
+      };
+    }
+  }
+
+  public static class TestBlockTriangularInverse<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final int n;
+
+    public TestBlockTriangularInverse(int n) {
+      this.n = n;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        @Override
+        public void test() {
+
+          Random random = new Random(1234);
+          double[][] l = new double[n][n];
+          for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+              l[i][j] = random.nextDouble() * 2 - 1;
+            }
+            l[i][i] = 1 + random.nextDouble() * 2;
+          }
+
+          Application<Matrix<BigDecimal>, ProtocolBuilderNumeric> testApplication =
+              root -> root.seq(seq -> FixedLinearAlgebra.using(seq)
+                  .input(MatrixUtils.buildMatrix(n, n, (i, j) -> BigDecimal.valueOf(l[i][j])), 1))
+                  .seq((seq, input) -> new BlockInvertTriangularMatrix(input)
+                      .buildComputation(seq))
+                  .seq((seq, inverse) -> FixedLinearAlgebra.using(seq).openMatrix(DRes.of(inverse)))
+                  .seq((seq, inverse) -> DRes.of(MatrixUtils.map(inverse, DRes::out)));
+
+          Matrix<BigDecimal> output = runApplication(testApplication);
+          RealMatrix expected = new QRDecomposition(new Array2DRowRealMatrix(l)).getSolver()
+              .getInverse();
+          for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+              assertEquals(expected.getEntry(i, j), output.getRow(i).get(j).doubleValue(), 0.01);
+            }
+          }
+        }
+      };
+    }
+  }
+
+  public static class TestAffineMap<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final double[][] a = {{1.3, 2.1, -3.9, 0.01}, {-11.7, 0.5, 2.25, 1.0},
+            {0.125, -0.75, 3.5, -2.0}};
+        final List<Double> v = List.of(0.2, -1.4, 3.3, 0.9);
+        final List<Double> bias = List.of(1.0, -2.5, 0.75);
+
+        @Override
+        public void test() {
+
+          Application<List<BigDecimal>, ProtocolBuilderNumeric> testApplication =
+              builder -> builder.seq(seq -> {
+                FixedNumeric numeric = FixedNumeric.using(seq);
+                Matrix<DRes<SFixed>> aSecret = MatrixUtils
+                    .buildMatrix(a.length, a[0].length, (i, j) -> numeric.input(a[i][j], 1));
+                ArrayList<DRes<SFixed>> vSecret = v.stream().map(x -> numeric.input(x, 1))
+                    .collect(Collectors.toCollection(ArrayList::new));
+                ArrayList<DRes<SFixed>> biasSecret = bias.stream().map(x -> numeric.input(x, 1))
+                    .collect(Collectors.toCollection(ArrayList::new));
+                return new AffineMap(aSecret, biasSecret, vSecret).buildComputation(seq);
+              }).seq((seq, result) -> {
+                FixedNumeric numeric = FixedNumeric.using(seq);
+                List<DRes<BigDecimal>> opened = result.stream().map(numeric::open)
+                    .collect(Collectors.toList());
+                return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+              });
+
+          List<BigDecimal> out = runApplication(testApplication);
+
+          for (int i = 0; i < a.length; i++) {
+            double expected = bias.get(i);
+            for (int k = 0; k < v.size(); k++) {
+              expected += a[i][k] * v.get(k);
+            }
+            assertEquals(expected, out.get(i).doubleValue(), 0.001);
+          }
+        }
+      };
+    }
+  }
+
 }
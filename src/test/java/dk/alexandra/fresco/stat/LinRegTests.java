@@ -16,8 +16,10 @@ import dk.alexandra.fresco.lib.fixed.FixedLinearAlgebra;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
 import dk.alexandra.fresco.stat.anonymisation.NoisyStats;
+import dk.alexandra.fresco.stat.linearalgebra.LinearSolver;
 import dk.alexandra.fresco.stat.regression.linear.LinearRegression;
 import dk.alexandra.fresco.stat.regression.linear.SimpleLinearRegression.SimpleLinearRegressionResult;
+import dk.alexandra.fresco.stat.regression.linear.SufficientStatistics;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -163,6 +165,16 @@ public class LinRegTests {
   public static class TestLinearRegression<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
+    private final LinearSolver solver;
+
+    public TestLinearRegression() {
+      this(LinearSolver.QR);
+    }
+
+    public TestLinearRegression(LinearSolver solver) {
+      this.solver = solver;
+    }
+
     @Override
     public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
       return new TestThread<>() {
@@ -195,7 +207,7 @@ public class LinRegTests {
 
                 return statistics.linearRegression(
                     inputs.getFirst().stream().map(DRes::out).collect(
-                        Collectors.toList()), inputs.getSecond());
+                        Collectors.toList()), inputs.getSecond(), solver);
               }).seq((seq, result) -> {
                 ArrayList<DRes<SFixed>> toOutput = new ArrayList<>(result.getBeta());
                 toOutput.add(result.getErrorVariance());
@@ -236,4 +248,94 @@ public class LinRegTests {
     }
   }
 
+  public static class TestLinearRegressionSufficientStatistics<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final double[] x1, x2, y;
+    private final double tolerance;
+
+    public TestLinearRegressionSufficientStatistics() {
+      this.x1 = new double[]{.18, .24, .12, .30, .30, .22, .15};
+      this.x2 = new double[]{.52, .40, .40, .48, .32, .16, .27};
+      this.y = new double[]{.04, .02, -.24, -.84, -.56, -.52, -.11};
+      this.tolerance = 0.01;
+    }
+
+    /**
+     * Test on a large random dataset with <i>n</i> rows. Only the sufficient statistics are input,
+     * so the size of the dataset only affects the magnitude of the sums.
+     */
+    public TestLinearRegressionSufficientStatistics(int n) {
+      Random random = new Random(1234);
+      this.x1 = new double[n];
+      this.x2 = new double[n];
+      this.y = new double[n];
+      for (int i = 0; i < n; i++) {
+        x1[i] = 2.0 + random.nextGaussian();
+        x2[i] = -1.0 + 0.5 * random.nextGaussian();
+        y[i] = 1.0 + 0.5 * x1[i] - 2.0 * x2[i] + random.nextGaussian();
+      }
+      this.tolerance = 0.001;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        // Party 1 holds the first rows and party 2 holds the rest
+        final int split = y.length / 2;
+
+        @Override
+        public void test() {
+
+          Application<List<BigDecimal>, ProtocolBuilderNumeric> testApplication =
+              builder -> builder.par(par -> {
+                List<double[]> rows = IntStream.range(0, y.length)
+                    .mapToObj(i -> new double[]{1.0, x1[i], x2[i]}).collect(Collectors.toList());
+                List<DRes<SufficientStatistics>> statistics = new ArrayList<>();
+                for (int party = 1; party <= 2; party++) {
+                  int from = party == 1 ? 0 : split;
+                  int to = party == 1 ? split : y.length;
+                  statistics.add(par.seq(conf.getMyId() == party
+                      ? SufficientStatistics.input(rows.subList(from, to),
+                      Arrays.copyOfRange(y, from, to), party)
+                      : SufficientStatistics.input(3, party)));
+                }
+                return DRes.of(statistics);
+              }).seq((seq, statistics) -> Statistics.using(seq).linearRegression(
+                  statistics.stream().map(DRes::out).collect(Collectors.toList())))
+                  .seq((seq, result) -> {
+                    ArrayList<DRes<SFixed>> toOutput = new ArrayList<>(result.getBeta());
+                    toOutput.add(result.getErrorVariance());
+                    toOutput.addAll(result.getStdErrorsSquared());
+                    toOutput.add(result.getRSquared());
+                    return FixedLinearAlgebra.using(seq).openArrayList(DRes.of(toOutput));
+                  }).seq((seq, output) -> DRes
+                      .of(output.stream().map(DRes::out).collect(Collectors.toList())));
+
+          List<BigDecimal> output = runApplication(testApplication);
+
+          OLSMultipleLinearRegression regression = new OLSMultipleLinearRegression();
+          double[][] xArray = new double[y.length][];
+          for (int i = 0; i < y.length; i++) {
+            xArray[i] = new double[]{x1[i], x2[i]};
+          }
+          regression.newSampleData(y, xArray);
+
+          assertArrayEquals(regression.estimateRegressionParameters(),
+              output.subList(0, 3).stream().mapToDouble(BigDecimal::doubleValue).toArray(),
+              tolerance);
+          assertEquals(regression.estimateErrorVariance(), output.get(3).doubleValue(), 0.001);
+          double[] errorsExpected = Arrays
+              .stream(regression.estimateRegressionParametersStandardErrors()).map(z -> z * z)
+              .toArray();
+          assertArrayEquals(errorsExpected,
+              output.subList(4, 7).stream().mapToDouble(BigDecimal::doubleValue).toArray(),
+              tolerance);
+          assertEquals(regression.calculateRSquared(), output.get(7).doubleValue(), 0.001);
+        }
+      };
+    }
+  }
+
 }
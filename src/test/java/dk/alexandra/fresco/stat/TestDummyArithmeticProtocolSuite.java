@@ -5,31 +5,45 @@ import dk.alexandra.fresco.framework.builder.numeric.field.MersennePrimeFieldDef
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.descriptive.OrderStatisticsStrategy;
+import dk.alexandra.fresco.stat.descriptive.sort.SortingAlgorithm;
+import dk.alexandra.fresco.stat.linearalgebra.LinearSolver;
+import dk.alexandra.fresco.stat.linearalgebra.QRMethod;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestHistogramContinuous;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestHistogramDiscrete;
+import dk.alexandra.fresco.stat.DescriptiveStatTests.TestHistogramKnownBuckets;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestKAnonymity;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestKAnonymityOpen;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestMean;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestMedian;
+import dk.alexandra.fresco.stat.DescriptiveStatTests.TestMoments;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestMultiDimHistogram;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestNoisyHistogram;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestPercentiles;
+import dk.alexandra.fresco.stat.DescriptiveStatTests.TestSortedColumn;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestStandardDeviation;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestTwoDimHistogram;
 import dk.alexandra.fresco.stat.DescriptiveStatTests.TestVariance;
 import dk.alexandra.fresco.stat.LATests.TestBackSubstitution;
+import dk.alexandra.fresco.stat.LATests.TestBlockTriangularInverse;
+import dk.alexandra.fresco.stat.LATests.TestCholeskyDecomposition;
+import dk.alexandra.fresco.stat.LATests.TestAffineMap;
 import dk.alexandra.fresco.stat.LATests.TestConvolution;
 import dk.alexandra.fresco.stat.LATests.TestEigenvalues;
 import dk.alexandra.fresco.stat.LATests.TestForwardSubstitution;
 import dk.alexandra.fresco.stat.LATests.TestGramSchmidt;
+import dk.alexandra.fresco.stat.LATests.TestKaratsubaConvolution;
 import dk.alexandra.fresco.stat.LATests.TestLinearInverseProblem;
+import dk.alexandra.fresco.stat.LATests.TestLinearInverseProblemLeastSquares;
 import dk.alexandra.fresco.stat.LATests.TestLinearInverseProblemNoSolution;
 import dk.alexandra.fresco.stat.LATests.TestLinearInverseProblemOverdetermined;
 import dk.alexandra.fresco.stat.LATests.TestLinearInverseProblemUnderdetermined;
 import dk.alexandra.fresco.stat.LATests.TestMoorePenrosePseudoInverse;
 import dk.alexandra.fresco.stat.LATests.TestQRDcomposition;
+import dk.alexandra.fresco.stat.LATests.TestStrassenMultiplication;
 import dk.alexandra.fresco.stat.LATests.TestTriangularInverse;
 import dk.alexandra.fresco.stat.LinRegTests.TestLinearRegression;
+import dk.alexandra.fresco.stat.LinRegTests.TestLinearRegressionSufficientStatistics;
 import dk.alexandra.fresco.stat.LinRegTests.TestNoisySimpleLinearRegression;
 import dk.alexandra.fresco.stat.LinRegTests.TestSimpleLinearRegression;
 import dk.alexandra.fresco.stat.LogRegTests.TestLogRegPrediction;
@@ -40,20 +54,30 @@ import dk.alexandra.fresco.stat.SurvivalAnalysisTests.TestCoxRegressionContinuou
 import dk.alexandra.fresco.stat.SurvivalAnalysisTests.TestCoxRegressionDiscrete;
 import dk.alexandra.fresco.stat.TestsTests.TestChiSquareTest;
 import dk.alexandra.fresco.stat.TestsTests.TestChiSquareTestKnown;
+import dk.alexandra.fresco.stat.TestsTests.TestChiSquareTestPartialCounts;
 import dk.alexandra.fresco.stat.TestsTests.TestFTest;
+import dk.alexandra.fresco.stat.TestsTests.TestFTestFromSummaries;
 import dk.alexandra.fresco.stat.TestsTests.TestKruskallWallis;
 import dk.alexandra.fresco.stat.TestsTests.TestKruskallWallisFixedPoint;
+import dk.alexandra.fresco.stat.TestsTests.TestKruskallWallisSorted;
 import dk.alexandra.fresco.stat.TestsTests.TestTTest;
 import dk.alexandra.fresco.stat.TestsTests.TestTwoSampleTTest;
 import dk.alexandra.fresco.stat.TestsTests.TestTwoSampleTTestDifferentSizes;
+import dk.alexandra.fresco.stat.TestsTests.TestTwoSampleTTestFromSummaries;
 import dk.alexandra.fresco.stat.UtilTests.TestArgMax;
+import dk.alexandra.fresco.stat.UtilTests.TestBitDecomposedColumn;
+import dk.alexandra.fresco.stat.UtilTests.TestDeterministicEncoder;
+import dk.alexandra.fresco.stat.UtilTests.TestDeterministicEncryptionCache;
 import dk.alexandra.fresco.stat.UtilTests.TestMax;
+import dk.alexandra.fresco.stat.UtilTests.TestPermutationNetwork;
 import dk.alexandra.fresco.stat.UtilTests.TestProduct;
 import dk.alexandra.fresco.stat.mlp.NNTests.TestBackwardPropagation;
 import dk.alexandra.fresco.stat.mlp.NNTests.TestFit;
 import dk.alexandra.fresco.stat.mlp.NNTests.TestForwardPropagation;
 import dk.alexandra.fresco.stat.mlp.NNTests.TestPrediction;
 import dk.alexandra.fresco.stat.mlp.NNTests.TestSingleStepTraining;
+import dk.alexandra.fresco.stat.utils.LegendreEncoder;
+import dk.alexandra.fresco.stat.utils.MiMCEncoder;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
 import dk.alexandra.fresco.suite.dummy.arithmetic.AbstractDummyArithmeticTest;
 import java.util.ArrayList;
@@ -73,6 +97,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
       .fixedPointPrecesion(32).evaluationStrategy(EvaluationStrategy.SEQUENTIAL).numParties(2)
       .performanceLogging(false);
 
+  /* The encoders are run with performance logging, so their costs may be compared from the log */
+  private static final TestParameters ENCODER_TEST_PARAMETERS = new TestParameters()
+      .maxBitLength(180).field(MersennePrimeFieldDefinition.find(256)).fixedPointPrecesion(32)
+      .evaluationStrategy(EvaluationStrategy.SEQUENTIAL).numParties(2).performanceLogging(true);
+
   @Test
   public void test_mean() {
     runTest(new TestMean<>(), TEST_PARAMETERS);
@@ -88,11 +117,65 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestPercentiles<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_median_selection() {
+    runTest(new TestMedian<>(OrderStatisticsStrategy.SELECTION,
+        SortingAlgorithm.SHUFFLE_AND_COMPARE), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_percentiles_selection() {
+    runTest(new TestPercentiles<>(OrderStatisticsStrategy.SELECTION,
+        SortingAlgorithm.SHUFFLE_AND_COMPARE), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_median_shuffle_and_compare() {
+    runTest(new TestMedian<>(OrderStatisticsStrategy.SORT,
+        SortingAlgorithm.SHUFFLE_AND_COMPARE), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_percentiles_shuffle_and_compare() {
+    runTest(new TestPercentiles<>(OrderStatisticsStrategy.SORT,
+        SortingAlgorithm.SHUFFLE_AND_COMPARE), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_sorted_column() {
+    runTest(new TestSortedColumn<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_variance() {
     runTest(new TestVariance<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_filtered_statistics() {
+    runTest(new DescriptiveStatTests.TestFilteredStatistics<>(), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_compaction() {
+    runTest(new DescriptiveStatTests.TestCompaction<>(), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_moments() {
+    runTest(new TestMoments<>(), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_moments_offset_mean() {
+    runTest(new TestMoments<>(1000.0), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_group_by() {
+    runTest(new DescriptiveStatTests.TestGroupBy<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_standard_deviation() {
     runTest(new TestStandardDeviation<>(), TEST_PARAMETERS);
@@ -113,6 +196,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestTwoSampleTTestDifferentSizes<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_two_sample_t_test_from_summaries() {
+    runTest(new TestTwoSampleTTestFromSummaries<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_chi_square_test() {
     runTest(new TestChiSquareTest<>(), TEST_PARAMETERS);
@@ -123,6 +211,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestChiSquareTestKnown<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_chi_square_test_partial_counts() {
+    runTest(new TestChiSquareTestPartialCounts<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_simple_linear_regression() {
     runTest(new TestSimpleLinearRegression<>(), TEST_PARAMETERS);
@@ -138,11 +231,31 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestLinearRegression<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_linear_regression_cholesky() {
+    runTest(new TestLinearRegression<>(LinearSolver.CHOLESKY), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_linear_regression_sufficient_statistics() {
+    runTest(new TestLinearRegressionSufficientStatistics<>(), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_linear_regression_sufficient_statistics_large_dataset() {
+    runTest(new TestLinearRegressionSufficientStatistics<>(1_000_000), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_correlation() {
     runTest(new DescriptiveStatTests.TestCorrelation<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_covariance_and_correlation_matrix() {
+    runTest(new DescriptiveStatTests.TestCovarianceAndCorrelationMatrix<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_categorical_distribution_sampling() {
     double[] p = new double[]{0.1, 0.2, 0.5, 0.2};
@@ -275,6 +388,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestFTest<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_f_test_from_summaries() {
+    runTest(new TestFTestFromSummaries<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_leaky_ranking() {
     runTest(new DescriptiveStatTests.TestLeakyRanks<>(), TEST_PARAMETERS);
@@ -285,6 +403,17 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new DescriptiveStatTests.TestRanks<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_secret_permutation() {
+    runTest(new DescriptiveStatTests.TestSecretPermutation<>(), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_secret_permutation_shuffle_and_compare() {
+    runTest(new DescriptiveStatTests.TestSecretPermutation<>(SortingAlgorithm.SHUFFLE_AND_COMPARE),
+        TEST_PARAMETERS);
+  }
+
   @Test
   public void test_kruskall_wallis() {
     runTest(new TestKruskallWallis<>(), TEST_PARAMETERS);
@@ -295,6 +424,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestKruskallWallisFixedPoint<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_kruskall_wallis_sorted() {
+    runTest(new TestKruskallWallisSorted<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_cox_gradient() {
     runTest(new TestCoxGradient<>(), TEST_PARAMETERS);
@@ -347,16 +481,39 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     }
   }
 
+  @Test
+  public void test_qr_decomposition_householder() {
+    Random random = new Random(1234);
+    for (int i = 0; i < 10; i++) {
+      runTest(new TestQRDcomposition<>(random.nextLong(), true, QRMethod.HOUSEHOLDER),
+          TEST_PARAMETERS);
+    }
+    for (int i = 0; i < 10; i++) {
+      runTest(new TestQRDcomposition<>(random.nextLong(), false, QRMethod.HOUSEHOLDER),
+          TEST_PARAMETERS);
+    }
+  }
+
   @Test
   public void test_inverse_of_triangular_matrix() {
     runTest(new TestTriangularInverse<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_block_inverse_of_triangular_matrix() {
+    runTest(new TestBlockTriangularInverse<>(7), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_find_eigenvalues() {
     runTest(new TestEigenvalues<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_find_eigenvalues_householder() {
+    runTest(new TestEigenvalues<>(QRMethod.HOUSEHOLDER), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_forward_substitution() {
     runTest(new TestForwardSubstitution<>(), TEST_PARAMETERS);
@@ -387,6 +544,16 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestLinearInverseProblemOverdetermined<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_linear_inverse_problem_cholesky() {
+    runTest(new TestLinearInverseProblemLeastSquares<>(LinearSolver.CHOLESKY), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_cholesky_decomposition() {
+    runTest(new TestCholeskyDecomposition<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_moore_penrose_pseudo_inverse() {
     Random random = new Random(1234);
@@ -398,21 +565,65 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     }
   }
 
+  @Test
+  public void test_moore_penrose_pseudo_inverse_householder() {
+    Random random = new Random(1234);
+    for (int i = 0; i < 10; i++) {
+      runTest(new TestMoorePenrosePseudoInverse<>(random.nextLong(), false, QRMethod.HOUSEHOLDER),
+          TEST_PARAMETERS);
+    }
+  }
+
   @Test
   public void test_convolution() {
     runTest(new TestConvolution<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_strassen_multiplication() {
+    runTest(new TestStrassenMultiplication<>(8, 8, 8, 1), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_strassen_multiplication_non_square() {
+    runTest(new TestStrassenMultiplication<>(15, 10, 12, 1), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_karatsuba_convolution() {
+    runTest(new TestKaratsubaConvolution<>(7, 7), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_karatsuba_convolution_unequal_lengths() {
+    runTest(new TestKaratsubaConvolution<>(3, 13), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_product() {
     runTest(new TestProduct<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_affine_map() {
+    runTest(new TestAffineMap<>(), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_histogram_discrete() {
     runTest(new TestHistogramDiscrete<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_histogram_equal_width() {
+    runTest(new TestHistogramKnownBuckets<>(new int[]{-9, -1, 7, 15, 23}), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_histogram_known_buckets() {
+    runTest(new TestHistogramKnownBuckets<>(new int[]{-5, 10, 20, 30}), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_noisy_histogram() {
     runTest(new TestNoisyHistogram<>(), TEST_PARAMETERS);
@@ -433,6 +644,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestMultiDimHistogram<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_multidimensional_histogram_chunked() {
+    runTest(new TestMultiDimHistogram<>(3), TEST_PARAMETERS);
+  }
+
   @Test
   public void test_k_anonymity() {
     runTest(new TestKAnonymity<>(), TEST_PARAMETERS);
@@ -480,4 +696,34 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new TestMax<>(), TEST_PARAMETERS);
   }
 
+  @Test
+  public void test_bit_decomposed_column() {
+    runTest(new TestBitDecomposedColumn<>(), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_bit_decomposed_column_odd_bit_length() {
+    runTest(new TestBitDecomposedColumn<>(13), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_permutation_network() {
+    runTest(new TestPermutationNetwork<>(), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_deterministic_encryption_cache() {
+    runTest(new TestDeterministicEncryptionCache<>(), TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_deterministic_encoder_mimc() {
+    runTest(new TestDeterministicEncoder<>(MiMCEncoder::new, 64), ENCODER_TEST_PARAMETERS);
+  }
+
+  @Test
+  public void test_deterministic_encoder_legendre() {
+    runTest(new TestDeterministicEncoder<>(LegendreEncoder::new, 64), ENCODER_TEST_PARAMETERS);
+  }
+
 }
@@ -2,6 +2,8 @@ package dk.alexandra.fresco.stat;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import dk.alexandra.fresco.framework.Application;
 import dk.alexandra.fresco.framework.DRes;
@@ -9,19 +11,50 @@ import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.tests.FTest;
 import dk.alexandra.fresco.stat.tests.KruskallWallisTest;
+import dk.alexandra.fresco.stat.tests.PartialCounts;
+import dk.alexandra.fresco.stat.tests.SampleSummary;
+import dk.alexandra.fresco.stat.tests.TwoSampleTTest;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.apache.commons.math3.stat.descriptive.rank.Median;
 import org.apache.commons.math3.stat.inference.ChiSquareTest;
 import org.apache.commons.math3.stat.inference.OneWayAnova;
 import org.apache.commons.math3.stat.inference.TTest;
+import org.junit.Test;
 
 public class TestsTests {
 
+  @Test(expected = IllegalArgumentException.class)
+  public void partialCountsWithDifferentNumberOfBuckets() {
+    List<DRes<SInt>> counts1 = mock(List.class);
+    when(counts1.size()).thenReturn(3);
+    List<DRes<SInt>> counts2 = mock(List.class);
+    when(counts2.size()).thenReturn(4);
+    new PartialCounts(List.of(counts1, counts2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void ttestWithMissingSummary() {
+    SampleSummary summary = mock(SampleSummary.class);
+    when(summary.getSize()).thenReturn(10);
+    new TwoSampleTTest(summary, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void ftestWithSingleSummary() {
+    SampleSummary summary = mock(SampleSummary.class);
+    when(summary.getSize()).thenReturn(10);
+    new FTest(summary);
+  }
+
 
   public static class TestTTest<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
@@ -139,6 +172,42 @@ public class TestsTests {
     }
   }
 
+  public static class TestTwoSampleTTestFromSummaries<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final double[] data1 = new double[]{42.1, 41.3, 42.4, 43.2, 41.8, 41.0, 41.8, 42.8, 42.3};
+        final double[] data2 = new double[]{42.7, 43.8, 42.5, 43.1, 44.0, 43.6, 43.3, 43.5};
+
+        @Override
+        public void test() throws Exception {
+
+          Application<BigDecimal, ProtocolBuilderNumeric> testApplication = builder ->
+              builder.par(par -> {
+                DRes<SampleSummary> summary1 = par.seq(conf.getMyId() == 1
+                    ? SampleSummary.input(data1, 1) : SampleSummary.input(data1.length, 1));
+                DRes<SampleSummary> summary2 = par.seq(conf.getMyId() == 2
+                    ? SampleSummary.input(data2, 2) : SampleSummary.input(data2.length, 2));
+                return Pair.lazy(summary1, summary2);
+              }).seq((seq, summaries) -> {
+                DRes<SFixed> t = Statistics.using(seq)
+                    .ttest(summaries.getFirst().out(), summaries.getSecond().out());
+                return FixedNumeric.using(seq).open(t);
+              });
+
+          BigDecimal output = runApplication(testApplication);
+
+          double clearT = new TTest().homoscedasticT(data1, data2);
+
+          assertEquals(clearT, output.doubleValue(), 0.01);
+        }
+      };
+    }
+  }
+
 
   public static class TestChiSquareTest<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
@@ -208,6 +277,44 @@ public class TestsTests {
     }
   }
 
+  public static class TestChiSquareTestPartialCounts<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final double[] expected = new double[]{58.0, 34.5, 7.0, 0.5};
+        final List<Integer> observed1 = List.of(20, 11, 5, 0);
+        final List<Integer> observed2 = List.of(36, 25, 3, 0);
+
+        @Override
+        public void test() throws Exception {
+
+          Application<BigDecimal, ProtocolBuilderNumeric> testApplication = builder -> {
+            List<DRes<SInt>> o1 = observed1.stream().map(x -> builder.numeric().input(x, 1))
+                .collect(Collectors.toList());
+            List<DRes<SInt>> o2 = observed2.stream().map(x -> builder.numeric().input(x, 2))
+                .collect(Collectors.toList());
+            DRes<SFixed> x = Statistics.using(builder)
+                .chiSquare(new PartialCounts(List.of(o1, o2)), expected);
+            return FixedNumeric.using(builder).open(x);
+          };
+
+          BigDecimal output = runApplication(testApplication);
+
+          long[] o = new long[expected.length];
+          for (int i = 0; i < o.length; i++) {
+            o[i] = observed1.get(i) + observed2.get(i);
+          }
+          double clearQ = new ChiSquareTest().chiSquare(expected, o);
+
+          assertEquals(output.doubleValue(), clearQ, 0.01);
+        }
+      };
+    }
+  }
+
   public static class TestFTest<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
@@ -255,6 +362,47 @@ public class TestsTests {
     }
   }
 
+  public static class TestFTestFromSummaries<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<double[]> data = DescriptiveStatTests.ranksDataset().stream()
+            .map(sample -> sample.stream().mapToDouble(Double::valueOf).toArray())
+            .collect(Collectors.toList());
+
+        @Override
+        public void test() throws Exception {
+
+          Application<BigDecimal, ProtocolBuilderNumeric> testApplication = builder ->
+              builder.par(par -> {
+                // Party 1 holds the even samples and party 2 holds the odd samples
+                List<DRes<SampleSummary>> summaries = new ArrayList<>();
+                for (int i = 0; i < data.size(); i++) {
+                  int party = i % 2 + 1;
+                  summaries.add(par.seq(conf.getMyId() == party
+                      ? SampleSummary.input(data.get(i), party)
+                      : SampleSummary.input(data.get(i).length, party)));
+                }
+                return DRes.of(summaries);
+              }).seq((seq, summaries) -> {
+                DRes<SFixed> f = Statistics.using(seq).ffest(
+                    summaries.stream().map(DRes::out).toArray(SampleSummary[]::new));
+                return FixedNumeric.using(seq).open(f);
+              });
+
+          BigDecimal output = runApplication(testApplication);
+
+          double f = new OneWayAnova().anovaFValue(data);
+
+          assertEquals(f, output.doubleValue(), 0.01);
+        }
+      };
+    }
+  }
+
   public static class TestKruskallWallis<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
@@ -316,4 +464,45 @@ public class TestsTests {
     }
   }
 
+  public static class TestKruskallWallisSorted<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<List<Integer>> data = DescriptiveStatTests.ranksDataset();
+
+        @Override
+        public void test() {
+          Application<List<BigDecimal>, ProtocolBuilderNumeric> testApplication = builder -> builder
+              .seq(seq -> {
+                List<DRes<SFixed>> input = data.stream().flatMap(List::stream)
+                    .map(x -> FixedNumeric.using(seq).input(x, 1)).collect(Collectors.toList());
+                return Statistics.using(seq).sorted(input);
+              }).seq((seq, sorted) -> {
+                // Reuse the sorted column for both the test and the median
+                Statistics statistics = Statistics.using(seq);
+                DRes<SFixed> h = statistics.kruskallWallisTest(sorted,
+                    data.stream().map(List::size).collect(Collectors.toList()));
+                DRes<SFixed> median = statistics.sampleMedian(sorted);
+                return Pair.lazy(h, median);
+              }).seq((seq, result) -> {
+                FixedNumeric fixedNumeric = FixedNumeric.using(seq);
+                List<DRes<BigDecimal>> opened = List.of(fixedNumeric.open(result.getFirst()),
+                    fixedNumeric.open(result.getSecond()));
+                return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+              });
+
+          // Data and expected values from example 12.3 in Blæsild & Granfeldt: "Statistics with
+          // applications in biology and geology".
+          List<BigDecimal> output = runApplication(testApplication);
+          assertEquals(29.4203, output.get(0).doubleValue(), 0.01);
+          assertEquals(new Median().evaluate(data.stream().flatMap(List::stream)
+              .mapToDouble(Integer::doubleValue).toArray()), output.get(1).doubleValue(), 0.01);
+        }
+      };
+    }
+  }
+
 }
@@ -15,16 +15,27 @@ import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.Matrix;
 import dk.alexandra.fresco.lib.fixed.FixedNumeric;
 import dk.alexandra.fresco.lib.fixed.SFixed;
+import dk.alexandra.fresco.stat.utils.BitDecomposedColumn;
+import dk.alexandra.fresco.stat.utils.DeterministicEncoder;
+import dk.alexandra.fresco.stat.utils.DeterministicEncryptionCache;
+import dk.alexandra.fresco.stat.utils.MatrixUtils;
 import dk.alexandra.fresco.stat.utils.MaxList;
 import dk.alexandra.fresco.stat.utils.MaxPair;
 import dk.alexandra.fresco.stat.utils.MultiDimensionalArray;
+import dk.alexandra.fresco.stat.utils.PermutationNetwork;
 import dk.alexandra.fresco.stat.utils.RealUtils;
+import dk.alexandra.fresco.stat.utils.Shuffle;
 import dk.alexandra.fresco.stat.utils.VectorUtils;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -192,4 +203,222 @@ public class UtilTests {
   }
 
 
+  public static class TestBitDecomposedColumn<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final int bitLength;
+
+    public TestBitDecomposedColumn() {
+      this(16);
+    }
+
+    public TestBitDecomposedColumn(int bitLength) {
+      this.bitLength = bitLength;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Integer> values = List.of(-5, 0, 3, 17);
+        final List<Integer> known = List.of(-6, -5, 0, 2, 3, 100);
+        final List<Integer> secret = List.of(-5, 3, 4);
+
+        @Override
+        public void test() {
+
+          Application<List<List<BigInteger>>, ProtocolBuilderNumeric> testApplication = builder ->
+              builder.par(par -> {
+                List<DRes<SInt>> x = values.stream().map(v -> par.numeric().input(v, 1))
+                    .collect(Collectors.toList());
+                List<DRes<SInt>> t = secret.stream().map(v -> par.numeric().input(v, 2))
+                    .collect(Collectors.toList());
+                return Pair.lazy(par.seq(BitDecomposedColumn.decompose(x, bitLength)),
+                    par.seq(BitDecomposedColumn.decompose(t, bitLength)));
+              }).par((par, columns) -> {
+                BitDecomposedColumn x = columns.getFirst().out();
+                BitDecomposedColumn t = columns.getSecond().out();
+                List<BigInteger> thresholds = known.stream().map(BigInteger::valueOf)
+                    .collect(Collectors.toList());
+                List<DRes<List<DRes<SInt>>>> results = IntStream.range(0, values.size())
+                    .boxed().flatMap(i -> Stream.of(par.seq(x.leq(i, thresholds)),
+                        par.seq(x.geq(i, thresholds)), par.seq(x.leq(i, t)), par.seq(x.geq(i, t)),
+                        par.seq(x.equalTo(i, thresholds))))
+                    .collect(Collectors.toList());
+                return DRes.of(results);
+              }).par((par, results) -> DRes.of(results.stream()
+                  .map(result -> VectorUtils.open(result.out(), par))
+                  .collect(Collectors.toList())))
+                  .seq((seq, results) -> DRes.of(results.stream()
+                      .map(result -> result.stream().map(DRes::out).collect(Collectors.toList()))
+                      .collect(Collectors.toList())));
+
+          List<List<BigInteger>> out = runApplication(testApplication);
+          for (int i = 0; i < values.size(); i++) {
+            int x = values.get(i);
+            Assert.assertEquals(known.stream().map(t -> x <= t ? BigInteger.ONE : BigInteger.ZERO)
+                .collect(Collectors.toList()), out.get(5 * i));
+            Assert.assertEquals(known.stream().map(t -> t <= x ? BigInteger.ONE : BigInteger.ZERO)
+                .collect(Collectors.toList()), out.get(5 * i + 1));
+            Assert.assertEquals(secret.stream().map(t -> x <= t ? BigInteger.ONE : BigInteger.ZERO)
+                .collect(Collectors.toList()), out.get(5 * i + 2));
+            Assert.assertEquals(secret.stream().map(t -> t <= x ? BigInteger.ONE : BigInteger.ZERO)
+                .collect(Collectors.toList()), out.get(5 * i + 3));
+            Assert.assertEquals(known.stream().map(t -> x == t ? BigInteger.ONE : BigInteger.ZERO)
+                .collect(Collectors.toList()), out.get(5 * i + 4));
+          }
+        }
+      };
+    }
+  }
+
+  public static class TestPermutationNetwork<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Integer> sizes = List.of(1, 2, 3, 5, 6, 8, 11, 13);
+        final Random random = new Random(1234);
+        final List<int[]> permutations = sizes.stream().map(n -> {
+          List<Integer> permutation = IntStream.range(0, n).boxed().collect(Collectors.toList());
+          Collections.shuffle(permutation, random);
+          return permutation.stream().mapToInt(Integer::intValue).toArray();
+        }).collect(Collectors.toList());
+
+        @Override
+        public void test() {
+
+          Application<Pair<List<Matrix<BigInteger>>, List<BigInteger>>, ProtocolBuilderNumeric> testApplication = builder ->
+              builder.par(par -> {
+                // Party 1 knows the permutations
+                List<DRes<Matrix<DRes<SInt>>>> permuted = IntStream.range(0, sizes.size())
+                    .mapToObj(k -> {
+                      Matrix<DRes<SInt>> matrix = MatrixUtils.buildMatrix(sizes.get(k), 2,
+                          (i, j) -> par.numeric().known(100 * j + i));
+                      return par.seq(par.getBasicNumericContext().getMyId() == 1
+                          ? new PermutationNetwork(matrix, permutations.get(k))
+                          : new PermutationNetwork(matrix, 1));
+                    }).collect(Collectors.toList());
+                List<DRes<SInt>> values = IntStream.range(0, 11)
+                    .mapToObj(i -> par.numeric().known(i)).collect(Collectors.toList());
+                return Pair.lazy(permuted, par.seq(Shuffle.shuffle(values)));
+              }).par((par, permutedAndShuffled) -> {
+                List<Matrix<DRes<BigInteger>>> permuted = permutedAndShuffled.getFirst().stream()
+                    .map(m -> MatrixUtils.map(m.out(), par.numeric()::open))
+                    .collect(Collectors.toList());
+                List<DRes<BigInteger>> shuffled = VectorUtils.open(
+                    permutedAndShuffled.getSecond().out(), par);
+                return Pair.lazy(permuted, shuffled);
+              }).seq((seq, opened) -> Pair.lazy(opened.getFirst().stream()
+                  .map(m -> MatrixUtils.map(m, DRes::out)).collect(Collectors.toList()),
+                  opened.getSecond().stream().map(DRes::out).collect(Collectors.toList())));
+
+          Pair<List<Matrix<BigInteger>>, List<BigInteger>> out = runApplication(testApplication);
+          for (int k = 0; k < sizes.size(); k++) {
+            int[] permutation = permutations.get(k);
+            Matrix<BigInteger> permuted = out.getFirst().get(k);
+            for (int i = 0; i < sizes.get(k); i++) {
+              assertEquals(BigInteger.valueOf(i), permuted.getRow(permutation[i]).get(0));
+              assertEquals(BigInteger.valueOf(100 + i), permuted.getRow(permutation[i]).get(1));
+            }
+          }
+          Assert.assertEquals(IntStream.range(0, 11).mapToObj(BigInteger::valueOf)
+              .collect(Collectors.toList()), out.getSecond().stream().sorted()
+              .collect(Collectors.toList()));
+        }
+      };
+    }
+  }
+
+  public static class TestDeterministicEncryptionCache<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Integer> values = List.of(5, 3, 5, 7);
+        final DeterministicEncryptionCache cache = new DeterministicEncryptionCache();
+
+        @Override
+        public void test() {
+
+          Application<Pair<List<BigInteger>, List<BigInteger>>, ProtocolBuilderNumeric> testApplication = builder ->
+              builder.seq(seq -> {
+                List<DRes<SInt>> x = values.stream().map(v -> seq.numeric().input(v, 1))
+                    .collect(Collectors.toList());
+                return Pair.lazy(x, seq.seq(cache.encryptAndOpen(x)));
+              }).seq((seq, first) -> {
+                // Reuse the first column in reverse order along with a new value equal to the second
+                List<DRes<SInt>> y = new ArrayList<>(first.getFirst());
+                Collections.reverse(y);
+                y.add(seq.numeric().input(3, 1));
+                return Pair.lazy(first.getSecond().out(), seq.seq(cache.encryptAndOpen(y)));
+              }).seq((seq, ciphers) -> Pair.lazy(ciphers.getFirst(), ciphers.getSecond().out()));
+
+          Pair<List<BigInteger>, List<BigInteger>> out = runApplication(testApplication);
+          List<BigInteger> first = out.getFirst();
+          List<BigInteger> second = out.getSecond();
+          assertEquals(first.get(0), first.get(2));
+          Assert.assertNotEquals(first.get(0), first.get(1));
+          Assert.assertNotEquals(first.get(0), first.get(3));
+          for (int i = 0; i < values.size(); i++) {
+            assertEquals(first.get(i), second.get(values.size() - 1 - i));
+          }
+          assertEquals(first.get(1), second.get(values.size()));
+
+          // Only the new value should have been encrypted in the second call
+          assertEquals(values.size() + 1, cache.size());
+        }
+      };
+    }
+  }
+
+  /**
+   * Test that a deterministic encoder maps equal values to the same encoding and distinct values to
+   * distinct encodings.
+   */
+  public static class TestDeterministicEncoder<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final Supplier<DeterministicEncoder> encoder;
+    private final int n;
+
+    public TestDeterministicEncoder(Supplier<DeterministicEncoder> encoder, int n) {
+      this.encoder = encoder;
+      this.n = n;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<>() {
+
+        final List<Integer> values = IntStream.range(0, n).map(i -> i % 7 - 3).boxed()
+            .collect(Collectors.toList());
+
+        @Override
+        public void test() {
+
+          DeterministicEncoder instance = encoder.get();
+          Application<List<BigInteger>, ProtocolBuilderNumeric> testApplication = builder ->
+              builder.seq(seq -> {
+                List<DRes<SInt>> x = values.stream().map(v -> seq.numeric().input(v, 1))
+                    .collect(Collectors.toList());
+                return seq.seq(instance.encodeAndOpen(x));
+              });
+
+          List<BigInteger> out = runApplication(testApplication);
+
+          for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+              assertEquals(values.get(i).equals(values.get(j)), out.get(i).equals(out.get(j)));
+            }
+          }
+        }
+      };
+    }
+  }
+
 }